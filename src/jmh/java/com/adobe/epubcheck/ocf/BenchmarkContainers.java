@@ -0,0 +1,70 @@
+package com.adobe.epubcheck.ocf;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import com.adobe.epubcheck.util.FeatureEnum;
+
+/**
+ * Creates in-memory containers for benchmarks (the container builder is not
+ * part of the public API).
+ */
+public final class BenchmarkContainers
+{
+
+  private BenchmarkContainers()
+  {
+    // static utility class
+  }
+
+  /**
+   * Returns a packaged container with the given files, by path.
+   */
+  public static OCFContainer create(Map<String, String> files)
+  {
+    OCFContainer.Builder builder = new OCFContainer.Builder();
+    builder.setPackaged(true);
+    for (Map.Entry<String, String> file : files.entrySet())
+    {
+      final String path = file.getKey();
+      final byte[] content = file.getValue().getBytes(StandardCharsets.UTF_8);
+      builder.addResource(new OCFResource()
+      {
+
+        @Override
+        public InputStream openStream()
+        {
+          return new ByteArrayInputStream(content);
+        }
+
+        @Override
+        public boolean isFile()
+        {
+          return true;
+        }
+
+        @Override
+        public boolean isDirectory()
+        {
+          return false;
+        }
+
+        @Override
+        public Map<FeatureEnum, String> getProperties()
+        {
+          return Collections.emptyMap();
+        }
+
+        @Override
+        public String getPath()
+        {
+          return path;
+        }
+      });
+    }
+    return builder.build();
+  }
+}
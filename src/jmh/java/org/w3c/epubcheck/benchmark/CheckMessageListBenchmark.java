@@ -0,0 +1,59 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.adobe.epubcheck.reporting.CheckMessageList;
+
+/**
+ * Measures the aggregation of reported messages by ID and text in a
+ * {@link CheckMessageList}. The time per operation is expected to grow
+ * linearly with the number of messages (i.e. 4x from 20000 to 80000
+ * messages); a quadratic aggregation would grow 16x.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckMessageListBenchmark
+{
+
+  private static final Message MESSAGE = new Message(MessageId.RSC_005, Severity.ERROR,
+      "Error: %1$s", "");
+  private static final EPUBLocation LOCATION = EPUBLocation.of(new File("benchmark.epub"));
+
+  /**
+   * The number of distinct messages, each reported twice.
+   */
+  @Param({ "20000", "80000" })
+  public int messages;
+
+  @Benchmark
+  public int aggregate()
+  {
+    CheckMessageList list = new CheckMessageList();
+    for (int i = 0; i < messages; i++)
+    {
+      list.add(MESSAGE, LOCATION.at(i, 1), String.valueOf(i));
+      list.add(MESSAGE, LOCATION.at(i, 2), String.valueOf(i));
+    }
+    return list.size();
+  }
+}
@@ -0,0 +1,85 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.reporting.CheckingReport;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.google.common.io.CharStreams;
+
+import io.mola.galimatias.URL;
+
+/**
+ * Measures the collection of messages and features by a
+ * {@link CheckingReport}, and its serialization to JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckingReportBenchmark
+{
+
+  /**
+   * The number of reported messages (and of publication resources).
+   */
+  @Param({ "100", "10000" })
+  public int messages;
+
+  private EPUBLocation[] locations;
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    // locations are spread over 100 resources, as messages are grouped by ID
+    locations = new EPUBLocation[100];
+    for (int i = 0; i < locations.length; i++)
+    {
+      locations[i] = EPUBLocation.of(
+          URL.parse("file:///benchmark/EPUB/" + SyntheticPublication.chapterName(i + 1)), null);
+    }
+  }
+
+  @Benchmark
+  public int report()
+  {
+    CheckingReport report = new CheckingReport(new PrintWriter(CharStreams.nullWriter()),
+        "benchmark.epub");
+    report.initialize();
+    for (int i = 0; i < messages; i++)
+    {
+      EPUBLocation location = locations[i % locations.length];
+      report.info(location.path, FeatureEnum.RESOURCE, "EPUB/style.css");
+      switch (i % 3)
+      {
+      case 0:
+        report.message(MessageId.RSC_012, location.at(i, 1));
+        break;
+      case 1:
+        report.message(MessageId.HTM_061, location.at(i, 1), "data-");
+        break;
+      default:
+        report.message(MessageId.CSS_008, location.at(i, 1), "unexpected token " + i);
+        break;
+      }
+    }
+    return report.generate();
+  }
+}
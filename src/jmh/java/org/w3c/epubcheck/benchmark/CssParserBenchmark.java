@@ -0,0 +1,113 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.idpf.epubcheck.util.css.CssContentHandler;
+import org.idpf.epubcheck.util.css.CssErrorHandler;
+import org.idpf.epubcheck.util.css.CssExceptions.CssException;
+import org.idpf.epubcheck.util.css.CssGrammar.CssAtRule;
+import org.idpf.epubcheck.util.css.CssGrammar.CssDeclaration;
+import org.idpf.epubcheck.util.css.CssGrammar.CssSelector;
+import org.idpf.epubcheck.util.css.CssParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CssParser} on large style sheets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CssParserBenchmark
+{
+
+  /**
+   * Counts the parsed constructs, so that the parse results are consumed.
+   */
+  private static final class CountingHandler implements CssContentHandler, CssErrorHandler
+  {
+    private int count = 0;
+
+    @Override
+    public void error(CssException e)
+    {
+      count++;
+    }
+
+    @Override
+    public void startDocument()
+    {
+    }
+
+    @Override
+    public void endDocument()
+    {
+    }
+
+    @Override
+    public void startAtRule(CssAtRule atRule)
+    {
+      count++;
+    }
+
+    @Override
+    public void endAtRule(String name)
+    {
+    }
+
+    @Override
+    public void selectors(List<CssSelector> selectors)
+    {
+      count += selectors.size();
+    }
+
+    @Override
+    public void endSelectors(List<CssSelector> selectors)
+    {
+    }
+
+    @Override
+    public void declaration(CssDeclaration declaration)
+    {
+      count++;
+    }
+  }
+
+  /**
+   * The number of rule sets in the style sheet.
+   */
+  @Param({ "1000", "10000" })
+  public int rules;
+
+  private String css;
+
+  @Setup
+  public void setup()
+  {
+    css = SyntheticPublication.css(rules);
+  }
+
+  @Benchmark
+  public int parse()
+    throws Exception
+  {
+    CountingHandler handler = new CountingHandler();
+    new CssParser(Locale.ENGLISH).parse(new StringReader(css), "style.css", handler, handler);
+    return handler.count;
+  }
+}
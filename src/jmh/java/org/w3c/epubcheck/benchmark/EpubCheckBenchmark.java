@@ -0,0 +1,54 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adobe.epubcheck.api.EpubCheck;
+import com.adobe.epubcheck.xml.XMLValidators;
+
+/**
+ * Measures the end-to-end check of generated publications, with
+ * {@link EpubCheck#doValidate()}.
+ * <p>
+ * Schemas are compiled before the measurement (as in a long-running process
+ * checking many publications).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class EpubCheckBenchmark
+{
+
+  @Param
+  public SyntheticPublication.Size size;
+
+  private byte[] epub;
+
+  @Setup
+  public void setup()
+  {
+    epub = SyntheticPublication.epub(size);
+    XMLValidators.precompile();
+  }
+
+  @Benchmark
+  public int doValidate()
+  {
+    return new EpubCheck(epub, new NullReport(), "benchmark.epub").doValidate();
+  }
+}
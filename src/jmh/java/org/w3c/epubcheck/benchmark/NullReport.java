@@ -0,0 +1,35 @@
+package org.w3c.epubcheck.benchmark;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.MasterReport;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.util.FeatureEnum;
+
+/**
+ * A report that only counts the messages (see {@link MasterReport}), so that
+ * benchmarks don't measure report output.
+ */
+public final class NullReport extends MasterReport
+{
+
+  @Override
+  public void message(Message message, EPUBLocation location, Object... args)
+  {
+  }
+
+  @Override
+  public void info(String resource, FeatureEnum feature, String value)
+  {
+  }
+
+  @Override
+  public int generate()
+  {
+    return 0;
+  }
+
+  @Override
+  public void initialize()
+  {
+  }
+}
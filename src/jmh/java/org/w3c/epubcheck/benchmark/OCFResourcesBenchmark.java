@@ -0,0 +1,112 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.epubcheck.util.url.URLUtils;
+
+import com.adobe.epubcheck.ocf.OCFByteArrayResources;
+import com.adobe.epubcheck.ocf.OCFResource;
+import com.adobe.epubcheck.ocf.OCFResources;
+import com.adobe.epubcheck.ocf.OCFZipResources;
+import com.adobe.epubcheck.util.FeatureEnum;
+
+import io.mola.galimatias.URL;
+
+/**
+ * Measures the enumeration of the entries of a packaged publication, from a
+ * file ({@link OCFZipResources}) and from memory
+ * ({@link OCFByteArrayResources}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OCFResourcesBenchmark
+{
+
+  /**
+   * The number of entries in the ZIP archive.
+   */
+  @Param({ "10", "1000", "10000" })
+  public int entries;
+
+  private byte[] data;
+  private File file;
+  private URL url;
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    Map<String, String> files = new LinkedHashMap<>();
+    files.put("mimetype", "application/epub+zip");
+    for (int i = 1; i < entries; i++)
+    {
+      files.put("EPUB/" + SyntheticPublication.chapterName(i), "<p>" + i + "</p>");
+    }
+    data = SyntheticPublication.zip(files);
+    file = File.createTempFile("epubcheck-benchmark", ".epub");
+    Files.write(file.toPath(), data);
+    url = URLUtils.toURL(file);
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    file.delete();
+  }
+
+  @Benchmark
+  public long enumerateZipFile()
+    throws Exception
+  {
+    return enumerate(new OCFZipResources(url));
+  }
+
+  @Benchmark
+  public long enumerateByteArray()
+    throws Exception
+  {
+    return enumerate(new OCFByteArrayResources(data));
+  }
+
+  private static long enumerate(OCFResources resources)
+    throws IOException
+  {
+    try
+    {
+      long size = 0;
+      for (OCFResource resource : resources)
+      {
+        if (resource.isFile())
+        {
+          size += resource.getPath().length()
+              + resource.getProperties().get(FeatureEnum.SIZE).length();
+        }
+      }
+      return size;
+    } finally
+    {
+      resources.close();
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.epubcheck.core.references.Reference;
+import org.w3c.epubcheck.core.references.ReferenceRegistry;
+import org.w3c.epubcheck.core.references.ResourceReferencesChecker;
+import org.w3c.epubcheck.core.references.ResourceRegistry;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.ocf.BenchmarkContainers;
+import com.adobe.epubcheck.ocf.OCFContainer;
+import com.adobe.epubcheck.opf.OPFItem;
+import com.adobe.epubcheck.opf.ValidationContext;
+import com.adobe.epubcheck.opf.ValidationContext.ValidationContextBuilder;
+import com.adobe.epubcheck.util.EPUBVersion;
+import com.google.common.base.Optional;
+
+import io.mola.galimatias.URL;
+
+/**
+ * Measures {@link ResourceReferencesChecker} on a synthetic link graph, where
+ * each content document links to IDs in the next document. One link in a
+ * hundred targets a missing ID, so that the reporting path is exercised too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResourceReferencesCheckerBenchmark
+{
+
+  /**
+   * The number of content documents.
+   */
+  @Param({ "100", "1000" })
+  public int documents;
+
+  /**
+   * The number of links (and IDs) per content document.
+   */
+  @Param({ "10", "100" })
+  public int links;
+
+  private ValidationContext context;
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    Map<String, String> files = new LinkedHashMap<>();
+    for (int i = 1; i <= documents; i++)
+    {
+      files.put("EPUB/" + SyntheticPublication.chapterName(i), "");
+    }
+    OCFContainer container = BenchmarkContainers.create(files);
+    Map<String, URL> urls = new HashMap<>();
+    for (URL url : container.getResources())
+    {
+      urls.put(container.relativize(url), url);
+    }
+
+    context = new ValidationContextBuilder().url(container.getRootURL())
+        .version(EPUBVersion.VERSION_3).container(container).report(new NullReport()).build();
+    ResourceRegistry resources = context.resourceRegistry.get();
+    ReferenceRegistry references = context.referenceRegistry.get();
+    EPUBLocation opfLocation = EPUBLocation.of(context);
+    for (int i = 1; i <= documents; i++)
+    {
+      URL url = urls.get("EPUB/" + SyntheticPublication.chapterName(i));
+      resources.registerResource(new OPFItem.Builder().id("c" + i).url(url)
+          .location(opfLocation).container(Optional.of(container))
+          .mimetype("application/xhtml+xml").inSpine(i - 1).build());
+      for (int p = 1; p <= links; p++)
+      {
+        resources.registerID("p" + p, Reference.Type.GENERIC, url);
+      }
+    }
+    for (int i = 1; i <= documents; i++)
+    {
+      URL url = urls.get("EPUB/" + SyntheticPublication.chapterName(i));
+      URL target = urls.get("EPUB/" + SyntheticPublication.chapterName((i % documents) + 1));
+      EPUBLocation location = EPUBLocation.of(url, container);
+      for (int p = 1; p <= links; p++)
+      {
+        String id = ((i * links + p) % 100 == 0) ? "missing" : "p" + p;
+        references.registerReference(target.withFragment(id), Reference.Type.HYPERLINK,
+            location.at(p, 1));
+      }
+    }
+  }
+
+  @Benchmark
+  public int check()
+  {
+    new ResourceReferencesChecker(context).check();
+    return context.report.getErrorCount();
+  }
+}
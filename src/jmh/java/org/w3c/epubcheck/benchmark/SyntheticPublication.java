@@ -0,0 +1,282 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generates valid EPUB 3 publications and standalone documents of a given
+ * size, used as benchmark inputs.
+ * <p>
+ * Content documents contain paragraphs with IDs, repeated inline styles, and
+ * hyperlinks to the following document, so that the reference checks and the
+ * CSS checks are exercised as well as the schema validation.
+ * </p>
+ */
+public final class SyntheticPublication
+{
+
+  /**
+   * Typical publication sizes.
+   */
+  public enum Size
+  {
+    SMALL(5, 20),
+    MEDIUM(50, 100),
+    HUGE(500, 200);
+
+    public final int documents;
+    public final int paragraphs;
+
+    private Size(int documents, int paragraphs)
+    {
+      this.documents = documents;
+      this.paragraphs = paragraphs;
+    }
+  }
+
+  private SyntheticPublication()
+  {
+    // static utility class
+  }
+
+  /**
+   * Returns the (zipped) content of a publication of the given size.
+   */
+  public static byte[] epub(Size size)
+  {
+    return zip(files(size.documents, size.paragraphs));
+  }
+
+  /**
+   * Returns the files of a publication with the given number of content
+   * documents, by path (in package order, starting with the mimetype file).
+   */
+  public static Map<String, String> files(int documents, int paragraphs)
+  {
+    Map<String, String> files = new LinkedHashMap<>();
+    files.put("mimetype", "application/epub+zip");
+    files.put("META-INF/container.xml",
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<container version=\"1.0\" xmlns=\"urn:oasis:names:tc:opendocument:xmlns:container\">\n"
+            + "  <rootfiles>\n"
+            + "    <rootfile full-path=\"EPUB/package.opf\" media-type=\"application/oebps-package+xml\"/>\n"
+            + "  </rootfiles>\n"
+            + "</container>\n");
+    files.put("EPUB/package.opf", opf(documents));
+    files.put("EPUB/nav.xhtml", nav(documents));
+    files.put("EPUB/style.css", css(20));
+    for (int i = 1; i <= documents; i++)
+    {
+      files.put("EPUB/" + chapterName(i), xhtml(i, (i < documents) ? i + 1 : 1, paragraphs));
+    }
+    return files;
+  }
+
+  public static String chapterName(int i)
+  {
+    return "chapter_" + i + ".xhtml";
+  }
+
+  /**
+   * Returns a package document declaring the given number of content
+   * documents.
+   */
+  public static String opf(int documents)
+  {
+    StringBuilder manifest = new StringBuilder();
+    StringBuilder spine = new StringBuilder();
+    for (int i = 1; i <= documents; i++)
+    {
+      manifest.append("    <item id=\"c").append(i).append("\" href=\"").append(chapterName(i))
+          .append("\" media-type=\"application/xhtml+xml\"/>\n");
+      spine.append("    <itemref idref=\"c").append(i).append("\"/>\n");
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<package xmlns=\"http://www.idpf.org/2007/opf\" version=\"3.0\" unique-identifier=\"uid\">\n"
+        + "  <metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\">\n"
+        + "    <dc:identifier id=\"uid\">urn:uuid:2b5f5c6e-4b0a-4a8e-9c33-0d1e6b0c1f00</dc:identifier>\n"
+        + "    <dc:title>Benchmark</dc:title>\n"
+        + "    <dc:language>en</dc:language>\n"
+        + "    <meta property=\"dcterms:modified\">2024-01-01T00:00:00Z</meta>\n"
+        + "  </metadata>\n"
+        + "  <manifest>\n"
+        + "    <item id=\"nav\" href=\"nav.xhtml\" media-type=\"application/xhtml+xml\" properties=\"nav\"/>\n"
+        + "    <item id=\"css\" href=\"style.css\" media-type=\"text/css\"/>\n"
+        + manifest
+        + "  </manifest>\n"
+        + "  <spine>\n"
+        + spine
+        + "  </spine>\n"
+        + "</package>\n";
+  }
+
+  /**
+   * Returns a navigation document linking to the given number of content
+   * documents.
+   */
+  public static String nav(int documents)
+  {
+    StringBuilder items = new StringBuilder();
+    for (int i = 1; i <= documents; i++)
+    {
+      items.append("        <li><a href=\"").append(chapterName(i)).append("\">Chapter ").append(i)
+          .append("</a></li>\n");
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:epub=\"http://www.idpf.org/2007/ops\" lang=\"en\" xml:lang=\"en\">\n"
+        + "  <head><title>Contents</title></head>\n"
+        + "  <body>\n"
+        + "    <nav epub:type=\"toc\">\n"
+        + "      <ol>\n"
+        + items
+        + "      </ol>\n"
+        + "    </nav>\n"
+        + "  </body>\n"
+        + "</html>\n";
+  }
+
+  /**
+   * Returns an XHTML content document with the given number of paragraphs,
+   * linking to the paragraphs of another content document.
+   */
+  public static String xhtml(int index, int linked, int paragraphs)
+  {
+    StringBuilder body = new StringBuilder();
+    for (int p = 1; p <= paragraphs; p++)
+    {
+      body.append("    <p id=\"p").append(p).append("\" class=\"text\"");
+      if (p % 5 == 0)
+      {
+        body.append(" style=\"font-style: italic; margin: 0 1em\"");
+      }
+      body.append(">Lorem ipsum dolor sit amet, <em>consectetur</em> adipiscing elit. ")
+          .append("<a href=\"").append(chapterName(linked)).append("#p").append(p)
+          .append("\">See also</a>.</p>\n");
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:epub=\"http://www.idpf.org/2007/ops\" lang=\"en\" xml:lang=\"en\">\n"
+        + "  <head>\n"
+        + "    <title>Chapter " + index + "</title>\n"
+        + "    <link rel=\"stylesheet\" type=\"text/css\" href=\"style.css\"/>\n"
+        + "  </head>\n"
+        + "  <body>\n"
+        + "    <section epub:type=\"chapter\">\n"
+        + "    <h1>Chapter " + index + "</h1>\n"
+        + body
+        + "    </section>\n"
+        + "  </body>\n"
+        + "</html>\n";
+  }
+
+  /**
+   * Returns an SVG content document with the given number of shapes.
+   */
+  public static String svg(int shapes)
+  {
+    StringBuilder body = new StringBuilder();
+    for (int i = 1; i <= shapes; i++)
+    {
+      body.append("  <g id=\"g").append(i).append("\" transform=\"translate(").append(i % 100)
+          .append(",").append(i / 100).append(")\">\n")
+          .append("    <rect x=\"0\" y=\"0\" width=\"1\" height=\"1\" fill=\"#336699\"/>\n")
+          .append("    <text x=\"0\" y=\"1\" font-size=\"1\">").append(i).append("</text>\n")
+          .append("  </g>\n");
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" viewBox=\"0 0 100 100\">\n"
+        + "  <title>Benchmark</title>\n"
+        + body
+        + "</svg>\n";
+  }
+
+  /**
+   * Returns a media overlay document with the given number of clips.
+   */
+  public static String smil(int clips)
+  {
+    StringBuilder body = new StringBuilder();
+    for (int i = 1; i <= clips; i++)
+    {
+      body.append("      <par id=\"par").append(i).append("\">\n")
+          .append("        <text src=\"chapter_1.xhtml#p").append(i).append("\"/>\n")
+          .append("        <audio src=\"audio.mp3\" clipBegin=\"").append(i - 1)
+          .append("s\" clipEnd=\"").append(i).append("s\"/>\n")
+          .append("      </par>\n");
+    }
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<smil xmlns=\"http://www.w3.org/ns/SMIL\" xmlns:epub=\"http://www.idpf.org/2007/ops\" version=\"3.0\">\n"
+        + "  <body>\n"
+        + "    <seq id=\"seq1\" epub:textref=\"chapter_1.xhtml\" epub:type=\"chapter\">\n"
+        + body
+        + "    </seq>\n"
+        + "  </body>\n"
+        + "</smil>\n";
+  }
+
+  /**
+   * Returns a style sheet with the given number of rule sets.
+   */
+  public static String css(int rules)
+  {
+    StringBuilder css = new StringBuilder();
+    css.append("@charset \"UTF-8\";\n");
+    css.append("@font-face { font-family: \"Bench\"; src: url(\"fonts/bench.woff\"); }\n");
+    for (int i = 1; i <= rules; i++)
+    {
+      css.append("body > section.s").append(i).append(" p.text:first-child, #p").append(i)
+          .append(" a[href^=\"http\"]:hover {\n")
+          .append("  margin: 0 0 1em ").append(i % 10).append("px;\n")
+          .append("  font: italic small-caps bold 1.2em/1.5 \"Bench\", serif;\n")
+          .append("  color: rgba(").append(i % 256).append(", 0, 0, 0.5);\n")
+          .append("  background: url(\"images/bg").append(i % 20).append(".png\") no-repeat;\n")
+          .append("}\n");
+      if (i % 50 == 0)
+      {
+        css.append("@media screen and (min-width: ").append(i).append("px) { .s").append(i)
+            .append(" { display: none } }\n");
+      }
+    }
+    return css.toString();
+  }
+
+  /**
+   * Zips the given files, storing the first one uncompressed (as required for
+   * the mimetype file).
+   */
+  public static byte[] zip(Map<String, String> files)
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(out))
+    {
+      boolean first = true;
+      for (Map.Entry<String, String> file : files.entrySet())
+      {
+        byte[] content = file.getValue().getBytes(StandardCharsets.UTF_8);
+        ZipEntry entry = new ZipEntry(file.getKey());
+        if (first)
+        {
+          CRC32 crc = new CRC32();
+          crc.update(content);
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(content.length);
+          entry.setCrc(crc.getValue());
+          first = false;
+        }
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+      }
+    } catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,132 @@
+package org.w3c.epubcheck.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.adobe.epubcheck.opf.ValidationContext;
+import com.adobe.epubcheck.opf.ValidationContext.ValidationContextBuilder;
+import com.adobe.epubcheck.util.EPUBVersion;
+import com.adobe.epubcheck.xml.XMLParser;
+import com.adobe.epubcheck.xml.XMLValidators;
+
+import io.mola.galimatias.URL;
+
+/**
+ * Measures {@link XMLParser#process()} on XHTML, package, SVG and media
+ * overlay documents, with each set of schemas used by the checkers.
+ * <p>
+ * Schemas are compiled before the measurement, so only the parsing and the
+ * validation are measured.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class XMLParserBenchmark
+{
+
+  /**
+   * A document type and the schemas it is validated against.
+   */
+  public enum Scenario
+  {
+    XHTML_NONE("application/xhtml+xml"),
+    XHTML_NVDL("application/xhtml+xml", XMLValidators.XHTML_30_NVDL),
+    XHTML_RNC("application/xhtml+xml", XMLValidators.XHTML_30_RNC),
+    XHTML_SCH("application/xhtml+xml", XMLValidators.XHTML_30_SCH),
+    XHTML_CHECKER("application/xhtml+xml", XMLValidators.XHTML_30_NVDL,
+        XMLValidators.SVG_30_INFORMATIVE_NVDL),
+    OPF_NONE("application/oebps-package+xml"),
+    OPF_RNC("application/oebps-package+xml", XMLValidators.OPF_30_RNC),
+    OPF_SCH("application/oebps-package+xml", XMLValidators.OPF_30_SCH),
+    OPF_CHECKER("application/oebps-package+xml", XMLValidators.OPF_30_RNC,
+        XMLValidators.OPF_30_SCH),
+    SVG_NONE("image/svg+xml"),
+    SVG_NVDL("image/svg+xml", XMLValidators.SVG_30_NVDL),
+    SVG_SCH("image/svg+xml", XMLValidators.SVG_30_SCH),
+    SVG_CHECKER("image/svg+xml", XMLValidators.SVG_30_NVDL,
+        XMLValidators.SVG_30_INFORMATIVE_NVDL),
+    SMIL_NONE("application/smil+xml"),
+    SMIL_RNC("application/smil+xml", XMLValidators.MO_30_RNC),
+    SMIL_SCH("application/smil+xml", XMLValidators.MO_30_SCH),
+    SMIL_CHECKER("application/smil+xml", XMLValidators.MO_30_RNC, XMLValidators.MO_30_SCH);
+
+    private final String mimetype;
+    private final XMLValidators[] validators;
+
+    private Scenario(String mimetype, XMLValidators... validators)
+    {
+      this.mimetype = mimetype;
+      this.validators = validators;
+    }
+  }
+
+  @Param
+  public Scenario scenario;
+
+  /**
+   * The size of the document (paragraphs, manifest items, shapes, or clips).
+   */
+  @Param({ "100", "1000" })
+  public int size;
+
+  private byte[] document;
+  private ValidationContextBuilder context;
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    String content;
+    switch (scenario.mimetype)
+    {
+    case "application/oebps-package+xml":
+      content = SyntheticPublication.opf(size);
+      break;
+    case "image/svg+xml":
+      content = SyntheticPublication.svg(size);
+      break;
+    case "application/smil+xml":
+      content = SyntheticPublication.smil(size);
+      break;
+    default:
+      content = SyntheticPublication.xhtml(1, 1, size);
+      break;
+    }
+    document = content.getBytes(StandardCharsets.UTF_8);
+    XMLValidators.precompile(scenario.validators);
+    context = new ValidationContextBuilder().url(URL.parse("file:///benchmark/document"))
+        .mimetype(scenario.mimetype).version(EPUBVersion.VERSION_3)
+        .resourceProvider(url -> new ByteArrayInputStream(document));
+  }
+
+  @Benchmark
+  public int process()
+  {
+    NullReport report = new NullReport();
+    ValidationContext validationContext = context.report(report).build();
+    XMLParser parser = new XMLParser(validationContext);
+    for (XMLValidators validator : scenario.validators)
+    {
+      parser.addValidator(validator.get());
+    }
+    parser.process();
+    return report.getErrorCount();
+  }
+}
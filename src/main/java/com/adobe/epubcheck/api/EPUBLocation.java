@@ -1,6 +1,7 @@
 package com.adobe.epubcheck.api;
 
 import java.io.File;
+import java.util.Objects;
 
 import com.adobe.epubcheck.ocf.OCFContainer;
 import com.adobe.epubcheck.opf.ValidationContext;
@@ -124,6 +125,12 @@ public final class EPUBLocation implements Comparable<EPUBLocation>
         && (this.getContext() == null || this.getContext().equals(other.getContext()));
   }
 
+  @Override
+  public int hashCode()
+  {
+    return Objects.hash(path, line, column, context);
+  }
+
   @Override
   public int compareTo(EPUBLocation o)
   {
@@ -27,35 +27,61 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.io.UncheckedIOException;
 import java.util.Locale;
 import java.util.Properties;
 
 import org.w3c.epubcheck.constants.MIMEType;
 import org.w3c.epubcheck.core.Checker;
+import org.w3c.epubcheck.core.LimitedReport;
 import org.w3c.epubcheck.util.url.URLUtils;
 
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.ocf.OCFChecker;
+import com.adobe.epubcheck.ocf.OCFEntryCache;
 import com.adobe.epubcheck.opf.ValidationContext.ValidationContextBuilder;
+import com.adobe.epubcheck.util.ByteArrayResourceProvider;
 import com.adobe.epubcheck.util.DefaultReportImpl;
 import com.adobe.epubcheck.util.FileResourceProvider;
+import com.adobe.epubcheck.util.GenericResourceProvider;
 import com.adobe.epubcheck.util.ResourceUtil;
 import com.adobe.epubcheck.util.WriterReportImpl;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheStats;
+import com.google.common.io.ByteStreams;
 
 /**
  * Public interface to epub validator.
  */
 public class EpubCheck implements Checker
 {
-  private static String VERSION = null;
-  private static String BUILD_DATE = null;
+  /**
+   * The maximum size of an EPUB read from a stream to be checked in memory;
+   * larger EPUBs are copied to a temporary file.
+   */
+  public static final int STREAM_IN_MEMORY_MAX_SIZE = 32 * 1024 * 1024;
+
   final private File epubFile;
+  // the EPUB data, when checked in memory
+  final private byte[] epubData;
   final private EPUBProfile profile;
   final private Report report;
+  private int threads = 1;
+  private long entryCacheMaxSize = OCFEntryCache.DEFAULT_MAX_SIZE;
+  private long entryCacheMaxEntrySize = OCFEntryCache.DEFAULT_MAX_ENTRY_SIZE;
+  private OCFEntryCache entryCache = null;
+  private TimingListener timingListener = null;
+  private MessageLimits messageLimits = MessageLimits.NONE;
 
-  public static String version()
+  /**
+   * Holds the project properties, loaded once when first accessed (the class
+   * initialization is thread-safe).
+   */
+  private static final class ProjectProperties
   {
-    if (VERSION == null)
+    private static final Properties INSTANCE = load();
+
+    private static Properties load()
     {
       Properties prop = new Properties();
       InputStream in = EpubCheck.class.getResourceAsStream("project.properties");
@@ -77,15 +103,18 @@ public class EpubCheck implements Checker
           }
         }
       }
-      VERSION = prop.getProperty("version");
-      BUILD_DATE = prop.getProperty("buildDate");
+      return prop;
     }
-    return VERSION;
+  }
+
+  public static String version()
+  {
+    return ProjectProperties.INSTANCE.getProperty("version");
   }
 
   public static String buildDate()
   {
-    return BUILD_DATE;
+    return ProjectProperties.INSTANCE.getProperty("buildDate");
   }
 
   /**
@@ -124,6 +153,7 @@ public class EpubCheck implements Checker
   public EpubCheck(File epubFile, Report report, EPUBProfile profile)
   {
     this.epubFile = epubFile;
+    this.epubData = null;
     this.report = report;
     this.profile = profile == null ? EPUBProfile.DEFAULT : profile;
   }
@@ -133,51 +163,67 @@ public class EpubCheck implements Checker
     this(inputStream, report, uri, EPUBProfile.DEFAULT);
   }
 
+  /**
+   * Create an epub validator to validate the EPUB read from the given stream.
+   * The stream is read and closed. EPUBs of at most
+   * {@link #STREAM_IN_MEMORY_MAX_SIZE} bytes are held in memory, larger ones
+   * are copied to a temporary file.
+   */
   public EpubCheck(InputStream inputStream, Report report, String uri, EPUBProfile profile)
   {
-    File epubFile;
-    OutputStream out = null;
-    try
+    Preconditions.checkNotNull(uri);
+    try (InputStream in = inputStream)
     {
-      epubFile = File.createTempFile("epub", "." + ResourceUtil.getExtension(uri));
-      epubFile.deleteOnExit();
-      out = new FileOutputStream(epubFile);
-
-      byte[] bytes = new byte[1024];
-      int read;
-      while ((read = inputStream.read(bytes)) != -1)
+      byte[] head = ByteStreams.toByteArray(ByteStreams.limit(in, STREAM_IN_MEMORY_MAX_SIZE + 1));
+      if (head.length <= STREAM_IN_MEMORY_MAX_SIZE)
       {
-        out.write(bytes, 0, read);
+        this.epubFile = new File(uri);
+        this.epubData = head;
       }
-
-      this.epubFile = epubFile;
-      this.profile = profile == null ? EPUBProfile.DEFAULT : profile;
-      this.report = report;
-    } catch (IOException e)
-    {
-      throw new RuntimeException(e);
-    } finally
-    {
-      if (inputStream != null)
+      else
       {
-        try
-        {
-          inputStream.close();
-        } catch (IOException ignored)
-        {
-        }
-      }
-      if (out != null)
-      {
-        try
-        {
-          out.flush();
-          out.close();
-        } catch (IOException ignored)
+        this.epubFile = File.createTempFile("epub", "." + ResourceUtil.getExtension(uri));
+        this.epubFile.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(epubFile))
         {
+          out.write(head);
+          head = null;
+          ByteStreams.copy(in, out);
         }
+        this.epubData = null;
       }
+    } catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
     }
+    this.profile = profile == null ? EPUBProfile.DEFAULT : profile;
+    this.report = report;
+  }
+
+  /**
+   * Create an epub validator to validate the EPUB held in memory in the given
+   * array, which must not be modified during the validation. The given URI
+   * (or file name) identifies the EPUB in the report.
+   */
+  public EpubCheck(byte[] epubData, Report report, String uri)
+  {
+    this(epubData, report, uri, EPUBProfile.DEFAULT);
+  }
+
+  /**
+   * Create an epub validator to validate the EPUB held in memory in the given
+   * array, which must not be modified during the validation. The given URI
+   * (or file name) identifies the EPUB in the report. Can validate a specific
+   * EPUB profile (e.g. EDUPUB, DICT, IDX, etc).
+   */
+  public EpubCheck(byte[] epubData, Report report, String uri, EPUBProfile profile)
+  {
+    Preconditions.checkNotNull(epubData);
+    Preconditions.checkNotNull(uri);
+    this.epubFile = new File(uri);
+    this.epubData = epubData;
+    this.profile = profile == null ? EPUBProfile.DEFAULT : profile;
+    this.report = report;
   }
 
   /**
@@ -195,6 +241,78 @@ public class EpubCheck implements Checker
     }
   }
 
+  /**
+   * Sets the maximum number of threads used to check the publication resources
+   * concurrently. By default, resources are checked sequentially. The reported
+   * messages are the same (and in the same order) regardless of this setting.
+   * 
+   * @param threads
+   *          the maximum number of threads, <code>1</code> to check resources
+   *          sequentially.
+   */
+  public void setThreads(int threads)
+  {
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * Sets the size limits of the cache of container resource content, used so
+   * that resources read several times are only inflated once. By default, the
+   * cache holds at most {@link OCFEntryCache#DEFAULT_MAX_SIZE} bytes, and
+   * resources of at most {@link OCFEntryCache#DEFAULT_MAX_ENTRY_SIZE} bytes.
+   * 
+   * @param maxSize
+   *          the maximum total size of the cached content, in bytes,
+   *          <code>0</code> to disable the cache
+   * @param maxEntrySize
+   *          the maximum size of a cached resource, in bytes
+   */
+  public void setEntryCacheSize(long maxSize, long maxEntrySize)
+  {
+    this.entryCacheMaxSize = Math.max(0, maxSize);
+    this.entryCacheMaxEntrySize = Math.max(0, maxEntrySize);
+  }
+
+  /**
+   * Sets the listener notified of the time spent in the validation phases,
+   * resource checkers, schema validators, CSS parsing and bitmap probing. When
+   * resources are checked concurrently, the listener may be called from
+   * several threads at once.
+   * 
+   * @param timingListener
+   *          the listener, or <code>null</code> to not measure anything (the
+   *          default)
+   */
+  public void setTimingListener(TimingListener timingListener)
+  {
+    this.timingListener = timingListener;
+  }
+
+  /**
+   * Sets the limits on the number of reported messages. The validation stops
+   * as soon as one of the limits is reached, in which case the report is
+   * incomplete: a <code>CHK-009</code> message is reported, and the value
+   * returned by {@link #doValidate()} has its <code>8</code> bit set.
+   * 
+   * @param messageLimits
+   *          the limits, {@link MessageLimits#NONE} (the default) to always
+   *          run the complete validation
+   */
+  public void setMessageLimits(MessageLimits messageLimits)
+  {
+    this.messageLimits = Preconditions.checkNotNull(messageLimits);
+  }
+
+  /**
+   * Returns the hit and miss statistics of the resource content cache used by
+   * the last validation. All the counts are zero if the cache is disabled or
+   * if no validation was run.
+   */
+  public CacheStats getEntryCacheStats()
+  {
+    return (entryCache != null) ? entryCache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+  }
+
   /**
    * Validate the file. Return true if no errors or warnings found.
    */
@@ -203,21 +321,43 @@ public class EpubCheck implements Checker
     doValidate();
   }
 
+  /**
+   * Validates the file, and returns a bit mask of the outcome: <code>4</code>
+   * if fatal errors were reported, <code>2</code> if errors were reported,
+   * <code>1</code> if warnings were reported, and <code>8</code> if the
+   * validation was stopped early after reaching a message limit. The value
+   * <code>2</code> alone is also returned if the file does not exist.
+   */
   public int doValidate()
   {
-    if (!epubFile.exists())
+    if (epubData == null && !epubFile.exists())
     {
       report.message(MessageId.PKG_018, EPUBLocation.of(epubFile));
       return 2;
     }
 
+    entryCache = (entryCacheMaxSize > 0)
+        ? new OCFEntryCache(entryCacheMaxSize, entryCacheMaxEntrySize)
+        : null;
+    GenericResourceProvider resourceProvider = (epubData != null)
+        ? new ByteArrayResourceProvider(epubData)
+        : new FileResourceProvider(epubFile);
+    LimitedReport limitedReport = messageLimits.isEmpty() ? null
+        : new LimitedReport(report, messageLimits);
     OCFChecker checker = new OCFChecker(new ValidationContextBuilder().url(URLUtils.toURL(epubFile))
         .mimetype(MIMEType.EPUB.toString())
-        .resourceProvider(new FileResourceProvider(epubFile)).report(report).profile(profile)
+        .resourceProvider(resourceProvider).report(report).limitedReport(limitedReport)
+        .profile(profile).threads(threads).entryCache(entryCache).timingListener(timingListener)
         .build());
     checker.check();
 
     int returnValue = 0;
+    if (limitedReport != null && limitedReport.isLimitReached())
+    {
+      report.message(MessageId.CHK_009, EPUBLocation.of(epubFile),
+          limitedReport.getLimitReached());
+      returnValue |= 8;
+    }
     if (report.getFatalErrorCount() != 0) returnValue |= 4;
     if (report.getErrorCount() != 0) returnValue |= 2;
     if (report.getWarningCount() != 0) returnValue |= 1;
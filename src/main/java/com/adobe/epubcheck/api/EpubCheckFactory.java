@@ -40,12 +40,16 @@ public class EpubCheckFactory
 
   public Checker newInstance(ValidationContext context)
   {
+    EpubCheck epubCheck;
+    // the limits are applied by EpubCheck itself, on the underlying report
+    Report report = context.limitedReport.isPresent() ? context.limitedReport.get().getDelegate()
+        : context.report;
     //FIXME next test on context.url instead of context.path
     if (context.path.startsWith("http://") || context.path.startsWith("https://"))
     {
       try
       {
-        return new EpubCheck(context.resourceProvider.openStream(context.url), context.report,
+        epubCheck = new EpubCheck(context.resourceProvider.openStream(context.url), report,
             context.path, context.profile);
       } catch (IOException e)
       {
@@ -54,7 +58,14 @@ public class EpubCheckFactory
     }
     else
     {
-      return new EpubCheck(new File(context.path), context.report, context.profile);
+      epubCheck = new EpubCheck(new File(context.path), report, context.profile);
     }
+    epubCheck.setThreads(context.threads);
+    epubCheck.setTimingListener(context.timingListener.orNull());
+    if (context.limitedReport.isPresent())
+    {
+      epubCheck.setMessageLimits(context.limitedReport.get().getLimits());
+    }
+    return epubCheck;
   }
 }
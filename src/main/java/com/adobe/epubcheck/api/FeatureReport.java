@@ -23,6 +23,45 @@ public final class FeatureReport
 
   private final SetMultimap<FeatureEnum, Feature> features = Multimaps
       .synchronizedSetMultimap(LinkedHashMultimap.<FeatureEnum, Feature> create());
+  private final FeatureReport parent;
+
+  public FeatureReport()
+  {
+    this(null);
+  }
+
+  private FeatureReport(FeatureReport parent)
+  {
+    this.parent = parent;
+  }
+
+  /**
+   * Returns a new report that can be used to look-up the features of this
+   * report, but that stores newly reported features separately until it is
+   * merged back with {@link #merge(FeatureReport)}.
+   * 
+   * @return a new child report of this report
+   */
+  public FeatureReport fork()
+  {
+    return new FeatureReport(this);
+  }
+
+  /**
+   * Adds all the features reported in a report previously created with
+   * {@link #fork()} to this report.
+   * 
+   * @param fork
+   *          a report created by calling {@link #fork()} on this report
+   */
+  public void merge(FeatureReport fork)
+  {
+    Preconditions.checkArgument(fork != null && fork.parent == this);
+    synchronized (fork.features)
+    {
+      features.putAll(fork.features);
+    }
+  }
 
   /**
    * Add a new feature to this report.
@@ -63,7 +102,7 @@ public final class FeatureReport
    */
   public boolean hasFeature(FeatureEnum feature)
   {
-    return features.containsKey(feature);
+    return features.containsKey(feature) || (parent != null && parent.hasFeature(feature));
   }
 
   /**
@@ -77,7 +116,16 @@ public final class FeatureReport
    */
   public Set<Feature> getFeature(FeatureEnum feature)
   {
-    return ImmutableSet.copyOf(features.get(feature));
+    ImmutableSet.Builder<Feature> result = ImmutableSet.builder();
+    if (parent != null)
+    {
+      result.addAll(parent.getFeature(feature));
+    }
+    synchronized (features)
+    {
+      result.addAll(features.get(feature));
+    }
+    return result.build();
   }
 
   /**
@@ -1,8 +1,8 @@
 package com.adobe.epubcheck.api;
 
 import java.io.File;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.adobe.epubcheck.messages.Message;
 import com.adobe.epubcheck.messages.LocaleHolder;
@@ -23,7 +23,7 @@ import java.util.Locale;
  */
 public abstract class MasterReport implements LocalizableReport
 {
-  public static Set<MessageId> allReportedMessageIds = new HashSet<MessageId>();
+  public static Set<MessageId> allReportedMessageIds = ConcurrentHashMap.newKeySet();
   private int errorCount, warningCount, fatalErrorCount, usageCount, infoCount = 0;
   private int reportingLevel = ReportingLevel.Info;
   private String ePubName;
@@ -0,0 +1,173 @@
+package com.adobe.epubcheck.api;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.google.common.base.Joiner;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+/**
+ * Limits on the number of reported messages, per severity or per message ID.
+ * A check is stopped as soon as one of its limits is reached, leaving the
+ * report incomplete.
+ * <p>
+ * Only the messages actually reported are counted: messages suppressed, or
+ * filtered out by the reporting level, do not count toward the limits.
+ * </p>
+ */
+public final class MessageLimits
+{
+
+  /**
+   * No limits: the check is always complete.
+   */
+  public static final MessageLimits NONE = builder().build();
+
+  /**
+   * Returns limits stopping the check at the first error or fatal error.
+   */
+  public static MessageLimits failFast()
+  {
+    return builder().limit(Severity.FATAL, 1).limit(Severity.ERROR, 1).build();
+  }
+
+  /**
+   * Parses limits from a comma-separated list of <code>KEY=N</code> pairs,
+   * where the key is either a severity (e.g. <code>ERROR</code>) or a message
+   * ID (e.g. <code>RSC-005</code>), and <code>N</code> is a positive number of
+   * messages.
+   *
+   * @throws IllegalArgumentException
+   *           if the limits cannot be parsed
+   */
+  public static MessageLimits parse(String limits)
+  {
+    Builder builder = builder();
+    for (Map.Entry<String, String> limit : Splitter.on(',').trimResults().omitEmptyStrings()
+        .withKeyValueSeparator(Splitter.on('=').trimResults()).split(limits).entrySet())
+    {
+      int count;
+      try
+      {
+        count = Integer.parseInt(limit.getValue());
+      } catch (NumberFormatException e)
+      {
+        throw new IllegalArgumentException("Invalid message limit: " + limit.getValue());
+      }
+      String key = limit.getKey();
+      try
+      {
+        builder.limit(Severity.fromString(key.toUpperCase(Locale.ROOT)), count);
+      } catch (NoSuchElementException e)
+      {
+        try
+        {
+          builder.limit(MessageId.fromString(key.toUpperCase(Locale.ROOT)), count);
+        } catch (NoSuchElementException e2)
+        {
+          throw new IllegalArgumentException("Unknown severity or message ID: " + key);
+        }
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns a new builder.
+   */
+  public static Builder builder()
+  {
+    return new Builder();
+  }
+
+  private final Map<Severity, Integer> severityLimits;
+  private final Map<MessageId, Integer> idLimits;
+
+  private MessageLimits(Builder builder)
+  {
+    this.severityLimits = Maps.immutableEnumMap(builder.severityLimits);
+    this.idLimits = Maps.immutableEnumMap(builder.idLimits);
+  }
+
+  /**
+   * Returns the maximum number of messages of the given severity, or
+   * <code>-1</code> if the number is not limited.
+   */
+  public int getLimit(Severity severity)
+  {
+    Integer limit = severityLimits.get(severity);
+    return (limit != null) ? limit : -1;
+  }
+
+  /**
+   * Returns the maximum number of messages with the given ID, or
+   * <code>-1</code> if the number is not limited.
+   */
+  public int getLimit(MessageId id)
+  {
+    Integer limit = idLimits.get(id);
+    return (limit != null) ? limit : -1;
+  }
+
+  /**
+   * Returns <code>true</code> if no limit is set.
+   */
+  public boolean isEmpty()
+  {
+    return severityLimits.isEmpty() && idLimits.isEmpty();
+  }
+
+  /**
+   * Returns the limits as a comma-separated list of <code>KEY=N</code> pairs,
+   * as accepted by {@link #parse(String)}.
+   */
+  @Override
+  public String toString()
+  {
+    return Joiner.on(',').withKeyValueSeparator('=').join(
+        ImmutableMap.builder().putAll(severityLimits).putAll(idLimits).build());
+  }
+
+  /**
+   * A builder of {@link MessageLimits}.
+   */
+  public static final class Builder
+  {
+    private final Map<Severity, Integer> severityLimits = new EnumMap<>(Severity.class);
+    private final Map<MessageId, Integer> idLimits = new EnumMap<>(MessageId.class);
+
+    /**
+     * Stops the check once the given number of messages of the given severity
+     * have been reported.
+     */
+    public Builder limit(Severity severity, int count)
+    {
+      Preconditions.checkArgument(count > 0, "limit must be positive");
+      severityLimits.put(Preconditions.checkNotNull(severity), count);
+      return this;
+    }
+
+    /**
+     * Stops the check once the given number of messages with the given ID have
+     * been reported.
+     */
+    public Builder limit(MessageId id, int count)
+    {
+      Preconditions.checkArgument(count > 0, "limit must be positive");
+      idLimits.put(Preconditions.checkNotNull(id), count);
+      return this;
+    }
+
+    public MessageLimits build()
+    {
+      return new MessageLimits(this);
+    }
+  }
+}
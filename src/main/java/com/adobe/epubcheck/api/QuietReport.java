@@ -24,6 +24,12 @@ public final class QuietReport extends MasterReport
   {
   }
 
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    return false;
+  }
+
   @Override
   public int generate()
   {
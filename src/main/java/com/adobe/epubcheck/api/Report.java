@@ -64,6 +64,19 @@ public interface Report
    */
   public void info(String resource, FeatureEnum feature, String value);
 
+  /**
+   * Returns whether this report makes use of the given feature. Some features
+   * are costly to compute (e.g. the SHA-256 hash of a resource), checkers can
+   * use this method to skip them when they are not used by the report.
+   *
+   * @param feature a feature keyword
+   * @return <code>true</code> (the default) if the feature is used by this report
+   */
+  default boolean usesFeature(FeatureEnum feature)
+  {
+    return true;
+  }
+
   public int getErrorCount();
 
   public int getWarningCount();
@@ -0,0 +1,133 @@
+package com.adobe.epubcheck.api;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+/**
+ * A measure of the time spent in a validation phase or check.
+ * <p>
+ * The CPU time and the number of bytes read are measured on the thread that
+ * ran the phase or check.
+ * </p>
+ */
+public final class Timing
+{
+
+  /**
+   * The kind of measured phase or check.
+   */
+  public static enum Category
+  {
+    /**
+     * A phase of the publication check (e.g. container structure, package
+     * document, references).
+     */
+    PHASE,
+    /**
+     * The check of a publication resource, named by its checker.
+     */
+    CHECKER,
+    /**
+     * A schema validation, named by its schema. The time is the wall time spent
+     * in the validator while parsing the document, the CPU time is not
+     * measured.
+     */
+    VALIDATOR,
+    /**
+     * The parsing and checking of a style sheet or CSS string.
+     */
+    CSS,
+    /**
+     * The reading of a bitmap image header.
+     */
+    BITMAP
+  }
+
+  private final Category category;
+  private final String name;
+  private final String path;
+  private final long wallTime;
+  private final long cpuTime;
+  private final long bytesRead;
+
+  /**
+   * Creates a new measure.
+   *
+   * @param category
+   *          the kind of measured phase or check
+   * @param name
+   *          the name of the phase or check
+   * @param path
+   *          the path of the checked resource, may be empty
+   * @param wallTime
+   *          the elapsed time, in nanoseconds
+   * @param cpuTime
+   *          the CPU time, in nanoseconds, or <code>-1</code> if not measured
+   * @param bytesRead
+   *          the number of bytes read
+   */
+  public Timing(Category category, String name, String path, long wallTime, long cpuTime,
+      long bytesRead)
+  {
+    this.category = Preconditions.checkNotNull(category);
+    this.name = Preconditions.checkNotNull(name);
+    this.path = (path == null) ? "" : path;
+    this.wallTime = wallTime;
+    this.cpuTime = cpuTime;
+    this.bytesRead = bytesRead;
+  }
+
+  public Category getCategory()
+  {
+    return category;
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Returns the path of the checked resource, or an empty string if the
+   * measure is not related to a single resource.
+   */
+  public String getPath()
+  {
+    return path;
+  }
+
+  /**
+   * Returns the elapsed time in the given unit.
+   */
+  public long getWallTime(TimeUnit unit)
+  {
+    return unit.convert(wallTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the CPU time in the given unit, or <code>-1</code> if the CPU time
+   * was not measured.
+   */
+  public long getCpuTime(TimeUnit unit)
+  {
+    return (cpuTime < 0) ? -1 : unit.convert(cpuTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Returns the number of bytes read from the publication resources.
+   */
+  public long getBytesRead()
+  {
+    return bytesRead;
+  }
+
+  @Override
+  public String toString()
+  {
+    return MoreObjects.toStringHelper(this).add("category", category).add("name", name)
+        .add("path", path).add("wallTime", wallTime).add("cpuTime", cpuTime)
+        .add("bytesRead", bytesRead).toString();
+  }
+}
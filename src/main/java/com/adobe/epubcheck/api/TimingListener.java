@@ -0,0 +1,19 @@
+package com.adobe.epubcheck.api;
+
+/**
+ * Receives the time spent in the phases and checks of a validation.
+ * <p>
+ * When publication resources are checked concurrently, this listener may be
+ * called from several threads at once.
+ * </p>
+ */
+public interface TimingListener
+{
+  /**
+   * Called when a measured phase or check is complete.
+   *
+   * @param timing
+   *          the measure
+   */
+  public void timing(Timing timing);
+}
@@ -22,23 +22,25 @@
 
 package com.adobe.epubcheck.bitmap;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Iterator;
 
 import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
-import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.w3c.epubcheck.core.TimingScope;
 
 import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.Timing.Category;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.ocf.OCFContainer;
 import com.adobe.epubcheck.opf.PublicationResourceChecker;
 import com.adobe.epubcheck.opf.ValidationContext;
 import com.adobe.epubcheck.util.CheckUtil;
+import com.google.common.io.ByteStreams;
 
 import io.mola.galimatias.URL;
 
@@ -96,88 +98,120 @@ public class BitmapChecker extends PublicationResourceChecker
     }
 
     String suffix = imgURL.path().substring(pos + 1);
-    File tempFile = null;
+    // the length is read from the container entry metadata when available
+    long length = container.getSize(imgURL);
     if ("svg".compareToIgnoreCase(suffix) == 0)
     {
-      tempFile = getImageFile(container, imgURL);
-      if (tempFile != null)
+      return new ImageHeuristics(0, 0, (length >= 0) ? length : getLength(container, imgURL));
+    }
+
+    // Determine format and dimensions from the image header
+    if (BitmapHeader.Format.isKnownSuffix(suffix))
+    {
+      try (InputStream in = openStream(container, imgURL))
       {
-        long tempFileLength = tempFile.length();
-        // FIXME 2022 check if file need to be deleted for expanded containers
-        tempFile.delete();
-        return new ImageHeuristics(0, 0, tempFileLength);
+        BitmapHeader header = BitmapHeader.read(in);
+        if (header != null)
+        {
+          if (!header.format.hasSuffix(suffix))
+          {
+            // file format and file extension differs
+            report.message(MessageId.PKG_022, EPUBLocation.of(context), header.format.getName(),
+                suffix);
+            return null;
+          }
+          return new ImageHeuristics(header.width, header.height,
+              (length >= 0) ? length : getLength(container, imgURL));
+        }
       }
-      return null;
     }
-    
+
+    // Fall back to ImageIO, e.g. for corrupt headers or unknown extensions
+    return getImageSizesWithImageIO(container, imgURL, suffix,
+        (length >= 0) ? length : getLength(container, imgURL));
+  }
+
+  private ImageHeuristics getImageSizesWithImageIO(OCFContainer container, URL imgURL,
+      String suffix, long length)
+    throws IOException
+  {
     // Determine format by file extension and by inspecting the file
-    tempFile = getImageFile(container, imgURL);
     String formatFromInputStream = null;
     String formatFromSuffix = null;
     ImageReader reader = null;
-    ImageInputStream imageInputStream = ImageIO.createImageInputStream(tempFile);
-    Iterator<ImageReader> imageReaderIteratorFromInputStream = ImageIO.getImageReaders(imageInputStream);
-    while (imageReaderIteratorFromInputStream.hasNext()) {
-      ImageReader imageReaderFromInputStream = imageReaderIteratorFromInputStream.next();
-      formatFromInputStream = imageReaderFromInputStream.getFormatName();
-        
-      Iterator<ImageReader> imageReaderIteratorFromSuffix = ImageIO.getImageReadersBySuffix(suffix);
-        while (imageReaderIteratorFromSuffix.hasNext()) {
+    try (InputStream in = openStream(container, imgURL);
+        ImageInputStream imageInputStream = new MemoryCacheImageInputStream(in))
+    {
+      Iterator<ImageReader> imageReaderIteratorFromInputStream = ImageIO
+          .getImageReaders(imageInputStream);
+      while (imageReaderIteratorFromInputStream.hasNext())
+      {
+        ImageReader imageReaderFromInputStream = imageReaderIteratorFromInputStream.next();
+        formatFromInputStream = imageReaderFromInputStream.getFormatName();
+
+        Iterator<ImageReader> imageReaderIteratorFromSuffix = ImageIO
+            .getImageReadersBySuffix(suffix);
+        while (imageReaderIteratorFromSuffix.hasNext())
+        {
           reader = imageReaderIteratorFromSuffix.next();
           formatFromSuffix = reader.getFormatName();
-          
+
           if (formatFromSuffix != null && formatFromSuffix.equals(formatFromInputStream)) break;
         }
         if (formatFromSuffix != null && formatFromSuffix.equals(formatFromInputStream)) break;
+      }
     }
-    imageInputStream.close();
-
-
 
-    if (formatFromSuffix != null && formatFromSuffix.equals(formatFromInputStream)) {
+    if (formatFromSuffix != null && formatFromSuffix.equals(formatFromInputStream))
+    {
       // file format and file extension matches; read image file
-
-      try (ImageInputStream stream = new FileImageInputStream(tempFile)) {
+      try (InputStream in = openStream(container, imgURL);
+          ImageInputStream stream = new MemoryCacheImageInputStream(in))
+      {
         reader.setInput(stream);
         int width = reader.getWidth(reader.getMinIndex());
         int height = reader.getHeight(reader.getMinIndex());
-        return new ImageHeuristics(width, height, tempFile.length());
-      }
-      catch (IOException e)
+        return new ImageHeuristics(width, height, length);
+      } catch (IOException e)
       {
         report.message(MessageId.PKG_021, EPUBLocation.of(context));
         return null;
-      }
-      catch (RuntimeException argex)
+      } catch (RuntimeException argex)
       {
         report.message(MessageId.PKG_021, EPUBLocation.of(context));
         return null;
-      }
-      finally
+      } finally
       {
-         tempFile.delete();
+        reader.dispose();
       }
-  
-    } else
-      {
-          tempFile.delete();
-          if (formatFromSuffix != null) {
-              // file format and file extension differs
-
-              report.message(MessageId.PKG_022, EPUBLocation.of(context), formatFromInputStream, suffix);
-              return null;
-
-          } else {
-              // file format could not be determined
+    }
+    else if (formatFromSuffix != null)
+    {
+      // file format and file extension differs
+      report.message(MessageId.PKG_022, EPUBLocation.of(context), formatFromInputStream, suffix);
+      return null;
+    }
+    else
+    {
+      // file format could not be determined
+      throw new IOException("Not a known image file: " + imgURL);
+    }
+  }
 
-              throw new IOException("Not a known image file: " + imgURL);
-          }
-      }
+  private long getLength(OCFContainer container, URL imageURL)
+    throws IOException
+  {
+    try (InputStream in = openStream(container, imageURL))
+    {
+      return ByteStreams.exhaust(in);
+    }
   }
 
-  private static File getImageFile(OCFContainer container, URL imageURL) throws IOException
+  private InputStream openStream(OCFContainer container, URL url)
+    throws IOException
   {
-    return getTempImageFile(container, imageURL);
+    // images are not cached, they are only read to get their size
+    return TimingScope.countBytes(context, container.openUncachedStream(url));
   }
 
   public class ImageHeuristics
@@ -194,55 +228,9 @@ public class BitmapChecker extends PublicationResourceChecker
     }
   }
 
-  private static File getTempImageFile(OCFContainer container, URL imageURL) throws IOException
-  {
-    // FIXME 2022 better implement file copy
-    File file = null;
-    FileOutputStream os = null;
-    InputStream is = null;
-    try
-    {
-      int pos = imageURL.path().lastIndexOf(".");
-      if (pos == -1)
-      {
-        throw new IOException("No extension for file: " + imageURL);
-      }
-      String suffix = imageURL.path().substring(pos);
-      String prefix = "img";
-
-      file = File.createTempFile(prefix, suffix);
-      os = new FileOutputStream(file);
-
-      is = container.openStream(imageURL);
-      if (is == null)
-      {
-        return null;
-      }
-      byte[] bytes = new byte[32 * 1024];
-      int read;
-      while ((read = is.read(bytes)) > 0)
-      {
-        os.write(bytes, 0, read);
-      }
-    }
-    finally
-    {
-      if (os != null)
-      {
-        os.flush();
-        os.close();
-      }
-      if (is != null)
-      {
-        is.close();
-      }
-    }
-    return file;  //To change body of created methods use File | Settings | File Templates.
-  }
-
   private void checkImageDimensions()
   {
-    try
+    try (TimingScope timing = TimingScope.start(context, Category.BITMAP, "probe"))
     {
       ImageHeuristics h = getImageSizes();
       if (h != null)
@@ -269,7 +257,8 @@ public class BitmapChecker extends PublicationResourceChecker
   @Override
   protected boolean checkContent()
   {
-    try (InputStream in = context.resourceProvider.openStream(context.url))
+    try (InputStream in = TimingScope.countBytes(context,
+        context.resourceProvider.openStream(context.url)))
     {
       if (in == null)
       {
@@ -0,0 +1,223 @@
+package com.adobe.epubcheck.bitmap;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+/**
+ * The format and dimensions of a bitmap image, as read from the image header.
+ * <p>
+ * Only the first bytes of the image are read (the PNG <code>IHDR</code> chunk,
+ * the GIF logical screen descriptor, or the JPEG segments up to the first
+ * <code>SOF</code> marker), without decoding the image data.
+ * </p>
+ */
+final class BitmapHeader
+{
+
+  enum Format
+  {
+    GIF("gif"),
+    JPEG("JPEG"),
+    PNG("png");
+
+    // the format names of the ImageIO readers registered for a file suffix
+    private static final LoadingCache<String, ImmutableSet<String>> READER_FORMATS = CacheBuilder
+        .newBuilder().maximumSize(64).build(CacheLoader.from(Format::getReaderFormats));
+
+    private final String name;
+
+    private Format(String name)
+    {
+      this.name = name;
+    }
+
+    /**
+     * Returns the format name, as used by ImageIO readers.
+     */
+    public String getName()
+    {
+      return name;
+    }
+
+    /**
+     * Returns whether the given file suffix is a known suffix for this format,
+     * that is if an ImageIO reader of this format is registered for the
+     * suffix.
+     */
+    public boolean hasSuffix(String suffix)
+    {
+      return READER_FORMATS.getUnchecked(suffix).contains(name);
+    }
+
+    /**
+     * Returns whether the given file suffix is known for any of the formats.
+     */
+    public static boolean isKnownSuffix(String suffix)
+    {
+      for (Format format : values())
+      {
+        if (format.hasSuffix(suffix)) return true;
+      }
+      return false;
+    }
+
+    private static ImmutableSet<String> getReaderFormats(String suffix)
+    {
+      ImmutableSet.Builder<String> formats = ImmutableSet.builder();
+      Iterator<ImageReader> readers = ImageIO.getImageReadersBySuffix(suffix);
+      while (readers.hasNext())
+      {
+        ImageReader reader = readers.next();
+        try
+        {
+          formats.add(reader.getFormatName());
+        } catch (IOException e)
+        {
+          // ignore this reader
+        } finally
+        {
+          reader.dispose();
+        }
+      }
+      return formats.build();
+    }
+  }
+
+  public final Format format;
+  public final int width;
+  public final int height;
+
+  private BitmapHeader(Format format, int width, int height)
+  {
+    this.format = format;
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Reads a bitmap header from the given stream. The stream is read up to the
+   * information needed to get the image dimensions.
+   *
+   * @param in
+   *          a stream to the image content, positioned at its start
+   * @return the bitmap header, or <code>null</code> if the image format is not
+   *         recognized or the header is truncated or malformed
+   * @throws IOException
+   *           if an I/O error occurs
+   */
+  public static BitmapHeader read(InputStream in)
+    throws IOException
+  {
+    DataInputStream data = new DataInputStream(in);
+    try
+    {
+      int b0 = data.readUnsignedByte();
+      int b1 = data.readUnsignedByte();
+      if (b0 == 0xFF && b1 == 0xD8)
+      {
+        return readJPEG(data);
+      }
+      else if (b0 == 0x89 && b1 == 'P')
+      {
+        return readPNG(data);
+      }
+      else if (b0 == 'G' && b1 == 'I')
+      {
+        return readGIF(data);
+      }
+      return null;
+    } catch (EOFException e)
+    {
+      return null;
+    }
+  }
+
+  private static BitmapHeader readPNG(DataInputStream data)
+    throws IOException
+  {
+    // remaining signature bytes, then the IHDR chunk length and type
+    byte[] bytes = new byte[14];
+    data.readFully(bytes);
+    if (bytes[0] != 'N' || bytes[1] != 'G' || bytes[10] != 'I' || bytes[11] != 'H'
+        || bytes[12] != 'D' || bytes[13] != 'R')
+    {
+      return null;
+    }
+    int width = data.readInt();
+    int height = data.readInt();
+    return (width < 0 || height < 0) ? null : new BitmapHeader(Format.PNG, width, height);
+  }
+
+  private static BitmapHeader readGIF(DataInputStream data)
+    throws IOException
+  {
+    // remaining signature bytes ("F8"), then the version ("7a" or "9a")
+    byte[] bytes = new byte[4];
+    data.readFully(bytes);
+    // other versions are rejected by the ImageIO reader, like corrupt headers
+    if (bytes[0] != 'F' || bytes[1] != '8' || bytes[2] != '7' && bytes[2] != '9'
+        || bytes[3] != 'a')
+    {
+      return null;
+    }
+    // the logical screen dimensions are little-endian
+    int width = data.readUnsignedByte() | data.readUnsignedByte() << 8;
+    int height = data.readUnsignedByte() | data.readUnsignedByte() << 8;
+    return new BitmapHeader(Format.GIF, width, height);
+  }
+
+  private static BitmapHeader readJPEG(DataInputStream data)
+    throws IOException
+  {
+    while (true)
+    {
+      // markers start with 0xFF, possibly preceded by fill bytes
+      if (data.readUnsignedByte() != 0xFF)
+      {
+        return null;
+      }
+      int marker = data.readUnsignedByte();
+      while (marker == 0xFF)
+      {
+        marker = data.readUnsignedByte();
+      }
+      if (marker == 0x01 || marker >= 0xD0 && marker <= 0xD8)
+      {
+        // standalone markers, without a segment
+        continue;
+      }
+      if (marker == 0xD9 || marker == 0xDA)
+      {
+        // end of image or start of scan, before any frame header
+        return null;
+      }
+      int length = data.readUnsignedShort();
+      if (length < 2)
+      {
+        return null;
+      }
+      if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8
+          && marker != 0xCC)
+      {
+        // start of frame: sample precision, then height and width
+        data.readUnsignedByte();
+        int height = data.readUnsignedShort();
+        int width = data.readUnsignedShort();
+        return new BitmapHeader(Format.JPEG, width, height);
+      }
+      ByteStreams.skipFully(data, length - 2);
+    }
+  }
+}
@@ -30,8 +30,10 @@ import java.util.Locale;
 import org.idpf.epubcheck.util.css.CssExceptions;
 import org.idpf.epubcheck.util.css.CssParser;
 import org.idpf.epubcheck.util.css.CssSource;
+import org.w3c.epubcheck.core.TimingScope;
 
 import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.Timing.Category;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.opf.PublicationResourceChecker;
 import com.adobe.epubcheck.opf.ValidationContext;
@@ -44,6 +46,7 @@ public class CSSChecker extends PublicationResourceChecker
   private final String value; // css string
   private int line; // where css string occurs in host
   private final boolean isStyleAttribute;
+  private final CSSStringParser parser; // reusable string parser, or null
 
   enum Mode
   {
@@ -56,22 +59,33 @@ public class CSSChecker extends PublicationResourceChecker
    */
   public CSSChecker(ValidationContext context)
   {
-    this(context, Mode.FILE, null, -1, false);
+    this(context, Mode.FILE, null, null, -1, false);
   }
 
   public CSSChecker(ValidationContext context, String value, int line, boolean isStyleAttribute)
   {
-    this(context, Mode.STRING, value, line, isStyleAttribute);
+    this(context, Mode.STRING, null, value, line, isStyleAttribute);
   }
 
   /**
-   * Constructor for CSS strings (html style attributes and elements) .
+   * Constructor for CSS strings (html style attributes and elements), parsed
+   * with the given reusable parser of the host document.
    */
-  private CSSChecker(ValidationContext context, Mode mode, String value, int line,
+  public CSSChecker(ValidationContext context, CSSStringParser parser, String value, int line,
       boolean isStyleAttribute)
+  {
+    this(context, Mode.STRING, parser, value, line, isStyleAttribute);
+  }
+
+  /**
+   * Constructor for CSS strings (html style attributes and elements) .
+   */
+  private CSSChecker(ValidationContext context, Mode mode, CSSStringParser parser, String value,
+      int line, boolean isStyleAttribute)
   {
     super(context);
     this.mode = mode;
+    this.parser = parser;
     this.value = value;
     this.line = line;
     this.isStyleAttribute = isStyleAttribute;
@@ -86,12 +100,19 @@ public class CSSChecker extends PublicationResourceChecker
     return true;
   }
 
+  @Override
+  protected boolean isTimed()
+  {
+    // CSS strings are timed in the CSS category
+    return this.mode == Mode.FILE;
+  }
+
   @Override
   protected boolean checkContent()
   {
     CssSource source = null;
 
-    try
+    try (TimingScope timing = TimingScope.start(context, Category.CSS, getTimingName()))
     {
 
       CSSHandler handler = new CSSHandler(context, mode);
@@ -127,13 +148,23 @@ public class CSSChecker extends PublicationResourceChecker
     return true;
   }
 
+  private String getTimingName()
+  {
+    if (this.mode == Mode.FILE)
+    {
+      return "style sheet";
+    }
+    return isStyleAttribute ? "style attribute" : "style element";
+  }
+
   CssSource getCssSource()
     throws IOException
   {
     CssSource source = null;
     if (this.mode == Mode.FILE)
     {
-      source = new CssSource(context.path, context.resourceProvider.openStream(context.url));
+      source = new CssSource(context.path,
+          TimingScope.countBytes(context, context.resourceProvider.openStream(context.url)));
       String charset;
       if (source.getInputStream().getBomCharset().isPresent())
       {
@@ -168,7 +199,11 @@ public class CSSChecker extends PublicationResourceChecker
     throws IOException,
     CssExceptions.CssException
   {
-    if (!isStyleAttribute)
+    if (this.mode == Mode.STRING && parser != null)
+    {
+      parser.parse(this.value, isStyleAttribute, context.path, handler, handler);
+    }
+    else if (!isStyleAttribute)
     {
       if (this.mode == Mode.FILE)
       {
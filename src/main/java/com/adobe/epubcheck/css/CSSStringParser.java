@@ -0,0 +1,183 @@
+package com.adobe.epubcheck.css;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.idpf.epubcheck.util.css.CssContentHandler;
+import org.idpf.epubcheck.util.css.CssErrorHandler;
+import org.idpf.epubcheck.util.css.CssExceptions.CssException;
+import org.idpf.epubcheck.util.css.CssGrammar.CssAtRule;
+import org.idpf.epubcheck.util.css.CssGrammar.CssDeclaration;
+import org.idpf.epubcheck.util.css.CssGrammar.CssSelector;
+import org.idpf.epubcheck.util.css.CssParser;
+
+/**
+ * Parses the CSS strings (<code>style</code> attributes and elements) of a
+ * document, with a single reusable {@link CssParser}.
+ * <p>
+ * The parser events of each parsed string are memoized: when an identical
+ * string is parsed again, the recorded events are replayed to the handlers
+ * instead of scanning and parsing the string again. Since the locations of the
+ * parsed constructs are relative to the string, the handlers report the same
+ * messages and features as for a new parse.
+ * </p>
+ * <p>
+ * An instance is meant to be used for a single document, by a single thread.
+ * </p>
+ */
+public final class CSSStringParser
+{
+  // bounds of the memo cache
+  private static final int MAX_MEMOIZED_STRINGS = 1000;
+  private static final int MAX_MEMOIZED_LENGTH = 1000;
+
+  private interface Event
+  {
+    void replay(CssErrorHandler err, CssContentHandler doc)
+      throws CssException;
+  }
+
+  private final CssParser parser;
+  private final Map<String, List<Event>> styleAttributes = newMemo();
+  private final Map<String, List<Event>> styleElements = newMemo();
+
+  public CSSStringParser(Locale locale)
+  {
+    this.parser = new CssParser(locale);
+  }
+
+  /**
+   * Parses a CSS string, or replays the events of a previous parse of the same
+   * string.
+   *
+   * @param value
+   *          the CSS string
+   * @param isStyleAttribute
+   *          whether the string is the value of a <code>style</code> attribute
+   *          (a declaration list) or the content of a style sheet
+   * @param systemID
+   *          the path of the document containing the string
+   */
+  public void parse(String value, boolean isStyleAttribute, String systemID,
+      CssErrorHandler err, CssContentHandler doc)
+    throws IOException,
+    CssException
+  {
+    Map<String, List<Event>> memo = isStyleAttribute ? styleAttributes : styleElements;
+    List<Event> events = memo.get(value);
+    if (events != null)
+    {
+      for (Event event : events)
+      {
+        event.replay(err, doc);
+      }
+      return;
+    }
+
+    RecordingHandler recorder = new RecordingHandler(err, doc);
+    if (isStyleAttribute)
+    {
+      parser.parseStyleAttribute(new StringReader(value), systemID, recorder, recorder);
+    }
+    else
+    {
+      parser.parse(new StringReader(value), systemID, recorder, recorder);
+    }
+    if (value.length() <= MAX_MEMOIZED_LENGTH)
+    {
+      memo.put(value, recorder.events);
+    }
+  }
+
+  private static Map<String, List<Event>> newMemo()
+  {
+    return new LinkedHashMap<String, List<Event>>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, List<Event>> eldest)
+      {
+        return size() > MAX_MEMOIZED_STRINGS;
+      }
+    };
+  }
+
+  /**
+   * Forwards the parser events to the given handlers, and records them.
+   */
+  private static final class RecordingHandler implements CssContentHandler, CssErrorHandler
+  {
+    private final CssErrorHandler err;
+    private final CssContentHandler doc;
+    private final List<Event> events = new ArrayList<>();
+
+    public RecordingHandler(CssErrorHandler err, CssContentHandler doc)
+    {
+      this.err = err;
+      this.doc = doc;
+    }
+
+    @Override
+    public void error(CssException e)
+      throws CssException
+    {
+      events.add((err, doc) -> err.error(e));
+      err.error(e);
+    }
+
+    @Override
+    public void startDocument()
+    {
+      events.add((err, doc) -> doc.startDocument());
+      doc.startDocument();
+    }
+
+    @Override
+    public void endDocument()
+    {
+      events.add((err, doc) -> doc.endDocument());
+      doc.endDocument();
+    }
+
+    @Override
+    public void startAtRule(CssAtRule atRule)
+    {
+      events.add((err, doc) -> doc.startAtRule(atRule));
+      doc.startAtRule(atRule);
+    }
+
+    @Override
+    public void endAtRule(String name)
+    {
+      events.add((err, doc) -> doc.endAtRule(name));
+      doc.endAtRule(name);
+    }
+
+    @Override
+    public void selectors(List<CssSelector> selectors)
+    {
+      events.add((err, doc) -> doc.selectors(selectors));
+      doc.selectors(selectors);
+    }
+
+    @Override
+    public void endSelectors(List<CssSelector> selectors)
+    {
+      events.add((err, doc) -> doc.endSelectors(selectors));
+      doc.endSelectors(selectors);
+    }
+
+    @Override
+    public void declaration(CssDeclaration declaration)
+    {
+      events.add((err, doc) -> doc.declaration(declaration));
+      doc.declaration(declaration);
+    }
+  }
+}
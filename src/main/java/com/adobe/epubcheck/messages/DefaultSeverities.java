@@ -65,6 +65,7 @@ class DefaultSeverities implements Severities
     severities.put(MessageId.CHK_006, Severity.ERROR);
     severities.put(MessageId.CHK_007, Severity.ERROR);
     severities.put(MessageId.CHK_008, Severity.ERROR);
+    severities.put(MessageId.CHK_009, Severity.INFO);
 
     // CSS
     severities.put(MessageId.CSS_001, Severity.ERROR);
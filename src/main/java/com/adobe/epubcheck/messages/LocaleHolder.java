@@ -8,11 +8,16 @@ import java.util.Locale;
  * Pieces of code that set or change the locale used in the application runtime
  * should update the static locale stored in this class. See for instance how it
  * is done in the {@code MasterReport} implementation.
+ * 
+ * The locale is not inherited by child threads: pooled threads would otherwise
+ * keep the locale of the thread that created them, regardless of the
+ * validation they run. Tasks run by other threads on behalf of a validation
+ * must be wrapped with {@link #propagate(Runnable)}.
  *
  */
 public final class LocaleHolder
 {
-  private static final ThreadLocal<Locale> current = new InheritableThreadLocal<Locale>();
+  private static final ThreadLocal<Locale> current = new ThreadLocal<Locale>();
 
   public static void set(final Locale locale)
   {
@@ -29,6 +34,27 @@ public final class LocaleHolder
     return locale;
   }
 
+  /**
+   * Returns a task running the given task with the locale currently held by
+   * the calling thread, and restoring the previous locale of the running thread
+   * afterwards.
+   */
+  public static Runnable propagate(final Runnable task)
+  {
+    final Locale locale = current.get();
+    return () -> {
+      Locale previous = current.get();
+      current.set(locale);
+      try
+      {
+        task.run();
+      } finally
+      {
+        current.set(previous);
+      }
+    };
+  }
+
   private LocaleHolder()
   {
   }
@@ -8,11 +8,11 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages storage, caching and retrieval of default localized messages.
@@ -23,8 +23,9 @@ public class LocalizedMessages
   private final Locale locale;
   private final ResourceBundle bundle;
   // Collection (static) will contain one LocalizedMessages instance for each
-  // Locale that has been requested.
-  private static final Map<String, LocalizedMessages> localizedMessages = new HashMap<String, LocalizedMessages>();
+  // Locale that has been requested. The map is concurrent, as instances can be
+  // requested by concurrent validations.
+  private static final Map<String, LocalizedMessages> localizedMessages = new ConcurrentHashMap<String, LocalizedMessages>();
   // Messages are lazily instantiated and cached as they are requested.
   private final Map<MessageId, Message> cachedMessages = new EnumMap<MessageId, Message>(MessageId.class);
   private final Severities defaultSeverities = new DefaultSeverities();
@@ -48,31 +49,9 @@ public class LocalizedMessages
    */
   public static LocalizedMessages getInstance(Locale locale)
   {
-    LocalizedMessages instance = null;
-
-    if (locale == null)
-    {
-      locale = Locale.getDefault();
-    }
-
-    String localeKey = locale.getLanguage();
-    if (localizedMessages.containsKey(localeKey))
-    {
-      instance = localizedMessages.get(localeKey);
-    } 
-    else
-    {
-      synchronized (LocalizedMessages.class)
-      {
-        if (instance == null)
-        {
-          instance = new LocalizedMessages(locale);
-          localizedMessages.put(localeKey, instance);
-        }
-      }
-    }
-
-    return instance;
+    final Locale actualLocale = (locale == null) ? Locale.getDefault() : locale;
+    return localizedMessages.computeIfAbsent(actualLocale.getLanguage(),
+        key -> new LocalizedMessages(actualLocale));
   }
 
   /**
@@ -87,18 +66,19 @@ public class LocalizedMessages
     // a MessageId is first requested, we fetch the data from the ResourceBundle
     // and create a new Message object, which is then cached. On the next 
     // request, we'll use the cached version instead. 
-    Message message;
-    if (cachedMessages.containsKey(id))
+    // The cache is synchronized, as the messages can be requested
+    // concurrently when publication resources are checked in parallel.
+    synchronized (cachedMessages)
     {
-      message = cachedMessages.get(id);
-    } 
-    else
-    {
-      message = new Message(id, defaultSeverities.get(id), getMessageAsString(id), getSuggestion(id));
-      cachedMessages.put(id, message);
+      Message message = cachedMessages.get(id);
+      if (message == null)
+      {
+        message = new Message(id, defaultSeverities.get(id), getMessageAsString(id),
+            getSuggestion(id));
+        cachedMessages.put(id, message);
+      }
+      return message;
     }
-
-    return message;
   }
   
   /**
@@ -59,6 +59,7 @@ public enum MessageId implements Comparable<MessageId>
   CHK_006("CHK-006"),
   CHK_007("CHK-007"),
   CHK_008("CHK-008"),
+  CHK_009("CHK-009"),
 
   // Messages associated with styles
   CSS_001("CSS-001"),
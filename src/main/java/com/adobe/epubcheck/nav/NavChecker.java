@@ -67,7 +67,7 @@ public class NavChecker extends PublicationResourceChecker
               hasProp(EpubCheckVocab.VOCAB.get(EpubCheckVocab.PROPERTIES.IN_INDEX_COLLECTION))),
               mimetype("application/xhtml+xml"), version(EPUBVersion.VERSION_3)),
           XMLValidators.XHTML_IDX_SCH, XMLValidators.XHTML_IDX_INDEX_SCH)
-      .build();
+      .cachePlans().build();
 
 
   public NavChecker(ValidationContext context)
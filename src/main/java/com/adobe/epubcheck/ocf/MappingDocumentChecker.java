@@ -17,7 +17,7 @@ class MappingDocumentChecker extends AbstractChecker
   private static final ValidatorMap validatorMap = ValidatorMap.builder()
       .putAll(hasProp(EpubCheckVocab.VOCAB.get(EpubCheckVocab.PROPERTIES.RENDITION_MAPPING)),
           XMLValidators.RENDITION_MAPPING_RNC, XMLValidators.RENDITION_MAPPING_SCH)
-      .build();
+      .cachePlans().build();
 
   public MappingDocumentChecker(ValidationContext context)
   {
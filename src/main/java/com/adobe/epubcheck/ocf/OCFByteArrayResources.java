@@ -0,0 +1,396 @@
+package com.adobe.epubcheck.ocf;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+
+/**
+ * The resources of a packaged EPUB held in memory.
+ * <p>
+ * The ZIP central directory is read in place when the resources are created,
+ * and each entry is inflated on demand when its stream is opened. No temporary
+ * file is created.
+ * </p>
+ */
+public class OCFByteArrayResources implements OCFResources
+{
+  private static final int LOC_SIG = 0x04034b50;
+  private static final int CEN_SIG = 0x02014b50;
+  private static final int END_SIG = 0x06054b50;
+  private static final int ZIP64_END_SIG = 0x06064b50;
+  private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+  private static final int LOC_HEADER_SIZE = 30;
+  private static final int CEN_HEADER_SIZE = 46;
+  private static final int END_HEADER_SIZE = 22;
+  private static final int ZIP64_LOCATOR_SIZE = 20;
+  private static final int ZIP64_EXTRA_ID = 0x0001;
+  private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+  private final byte[] data;
+  private final ByteBuffer buffer;
+  private final List<Entry> entries;
+
+  public OCFByteArrayResources(byte[] data)
+    throws IOException
+  {
+    this.data = Preconditions.checkNotNull(data);
+    this.buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    this.entries = readCentralDirectory();
+  }
+
+  @Override
+  public Iterator<OCFResource> iterator()
+  {
+    return Iterators.transform(entries.iterator(), this::toResource);
+  }
+
+  @Override
+  public void close()
+  {
+    // nothing to release, the data is garbage collected
+  }
+
+  private OCFResource toResource(final Entry entry)
+  {
+    // The SHA-256 hash requires reading the whole entry, it is computed
+    // only if and when the property is accessed
+    final Map<FeatureEnum, String> properties = OCFResources
+        .lazyProperties(ImmutableMap.<FeatureEnum, Supplier<String>> builder()
+            .put(FeatureEnum.SIZE, Suppliers.ofInstance(String.valueOf(entry.size)))
+            .put(FeatureEnum.COMPRESSED_SIZE,
+                Suppliers.ofInstance(String.valueOf(entry.compressedSize)))
+            .put(FeatureEnum.COMPRESSION_METHOD,
+                Suppliers.ofInstance(OCFZipResources.getCompressionMethod(entry.method)))
+            .put(FeatureEnum.SHA_256, Suppliers.memoize(() -> getSHAHash(entry)))
+            .put(FeatureEnum.CREATION_DATE,
+                Suppliers.ofInstance(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'")
+                    .format(new Date(entry.time))))
+            .build());
+
+    return new OCFResource()
+    {
+      @Override
+      public InputStream openStream()
+        throws IOException
+      {
+        return OCFByteArrayResources.this.openStream(entry);
+      }
+
+      @Override
+      public boolean isFile()
+      {
+        return !isDirectory();
+      }
+
+      @Override
+      public boolean isDirectory()
+      {
+        return entry.name.endsWith("/");
+      }
+
+      @Override
+      public Map<FeatureEnum, String> getProperties()
+      {
+        return properties;
+      }
+
+      @Override
+      public String getPath()
+      {
+        return entry.name;
+      }
+
+      @Override
+      public String toString()
+      {
+        return getPath();
+      }
+    };
+  }
+
+  private InputStream openStream(Entry entry)
+    throws IOException
+  {
+    int offset = checkedOffset(entry.localHeaderOffset, LOC_HEADER_SIZE,
+        "ZipFile error reading zip file");
+    if (buffer.getInt(offset) != LOC_SIG)
+    {
+      throw new ZipException("ZipFile invalid LOC header (bad signature)");
+    }
+    long start = (long) offset + LOC_HEADER_SIZE + getShort(offset + 26) + getShort(offset + 28);
+    int dataOffset = checkedOffset(start, entry.compressedSize, "ZipFile error reading zip file");
+    InputStream in = new ByteArrayInputStream(data, dataOffset, (int) entry.compressedSize);
+    switch (entry.method)
+    {
+    case ZipEntry.STORED:
+      return in;
+    case ZipEntry.DEFLATED:
+      return new EntryInflaterInputStream(in, entry.size);
+    default:
+      throw new ZipException("invalid compression method");
+    }
+  }
+
+  private String getSHAHash(Entry entry)
+  {
+    try (InputStream inputStream = openStream(entry))
+    {
+      return OCFResources.getSHAHash(inputStream);
+    } catch (IOException e)
+    {
+      return "";
+    }
+  }
+
+  private List<Entry> readCentralDirectory()
+    throws IOException
+  {
+    int end = findEndHeader();
+    long count = getShort(end + 10);
+    long offset = getInt(end + 16);
+    // the central directory is described by the ZIP64 end record, if any;
+    // like ZipFile, the END header is used if the ZIP64 records are invalid
+    int locator = end - ZIP64_LOCATOR_SIZE;
+    if (locator >= 0 && buffer.getInt(locator) == ZIP64_LOCATOR_SIG)
+    {
+      long end64 = buffer.getLong(locator + 8);
+      if (end64 >= 0 && end64 + 56 <= data.length && buffer.getInt((int) end64) == ZIP64_END_SIG)
+      {
+        long count64 = buffer.getLong((int) end64 + 32);
+        long offset64 = buffer.getLong((int) end64 + 48);
+        // the ZIP64 values must match the END header values that are set
+        if ((count64 == count || count == 0xFFFF) && (offset64 == offset || offset == ZIP64_MAGIC))
+        {
+          count = count64;
+          offset = offset64;
+        }
+      }
+    }
+
+    ImmutableList.Builder<Entry> result = ImmutableList.builder();
+    int pos = checkedOffset(offset, 0, "invalid END header (bad central directory offset)");
+    for (long i = 0; i < count; i++)
+    {
+      if (pos + CEN_HEADER_SIZE > data.length || buffer.getInt(pos) != CEN_SIG)
+      {
+        throw new ZipException("invalid CEN header (bad signature)");
+      }
+      int method = getShort(pos + 10);
+      if ((getShort(pos + 8) & 1) != 0)
+      {
+        throw new ZipException("invalid CEN header (encrypted entry)");
+      }
+      if (method != ZipEntry.STORED && method != ZipEntry.DEFLATED)
+      {
+        throw new ZipException("invalid CEN header (bad compression method: " + method + ")");
+      }
+      int nameLength = getShort(pos + 28);
+      int extraLength = getShort(pos + 30);
+      int commentLength = getShort(pos + 32);
+      int next = pos + CEN_HEADER_SIZE + nameLength + extraLength + commentLength;
+      if (next > data.length)
+      {
+        throw new ZipException("invalid CEN header (bad header size)");
+      }
+
+      Entry entry = new Entry();
+      entry.name = decodeName(pos + CEN_HEADER_SIZE, nameLength);
+      entry.method = method;
+      entry.time = dosToJavaTime(getShort(pos + 14), getShort(pos + 12));
+      entry.compressedSize = getInt(pos + 20);
+      entry.size = getInt(pos + 24);
+      entry.localHeaderOffset = getInt(pos + 42);
+      readZip64Extra(entry, pos + CEN_HEADER_SIZE + nameLength, extraLength);
+      result.add(entry);
+      pos = next;
+    }
+    return result.build();
+  }
+
+  private String decodeName(int offset, int length)
+    throws ZipException
+  {
+    try
+    {
+      // names are decoded strictly, as ZipFile does
+      return StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+          .onUnmappableCharacter(CodingErrorAction.REPORT)
+          .decode(ByteBuffer.wrap(data, offset, length)).toString();
+    } catch (CharacterCodingException e)
+    {
+      throw new ZipException("invalid CEN header (bad entry name)");
+    }
+  }
+
+  private int findEndHeader()
+    throws ZipException
+  {
+    if (data.length == 0)
+    {
+      throw new ZipException("zip file is empty");
+    }
+    // the END header is followed by a comment of at most 0xFFFF bytes
+    int min = Math.max(0, data.length - END_HEADER_SIZE - 0xFFFF);
+    for (int pos = data.length - END_HEADER_SIZE; pos >= min; pos--)
+    {
+      if (buffer.getInt(pos) == END_SIG
+          && pos + END_HEADER_SIZE + getShort(pos + 20) == data.length)
+      {
+        return pos;
+      }
+    }
+    throw new ZipException("zip END header not found");
+  }
+
+  private void readZip64Extra(Entry entry, int start, int length)
+  {
+    int pos = start;
+    while (pos + 4 <= start + length)
+    {
+      int id = getShort(pos);
+      int size = getShort(pos + 2);
+      pos += 4;
+      if (id == ZIP64_EXTRA_ID)
+      {
+        // only the values set to the magic number are present, in this order
+        int field = pos;
+        if (entry.size == ZIP64_MAGIC && field + 8 <= pos + size)
+        {
+          entry.size = buffer.getLong(field);
+          field += 8;
+        }
+        if (entry.compressedSize == ZIP64_MAGIC && field + 8 <= pos + size)
+        {
+          entry.compressedSize = buffer.getLong(field);
+          field += 8;
+        }
+        if (entry.localHeaderOffset == ZIP64_MAGIC && field + 8 <= pos + size)
+        {
+          entry.localHeaderOffset = buffer.getLong(field);
+        }
+        return;
+      }
+      pos += size;
+    }
+  }
+
+  private int checkedOffset(long offset, long length, String message)
+    throws ZipException
+  {
+    if (offset < 0 || length < 0 || offset + length > data.length)
+    {
+      throw new ZipException(message);
+    }
+    return (int) offset;
+  }
+
+  private int getShort(int offset)
+  {
+    return buffer.getShort(offset) & 0xFFFF;
+  }
+
+  private long getInt(int offset)
+  {
+    return buffer.getInt(offset) & 0xFFFFFFFFL;
+  }
+
+  private static long dosToJavaTime(int date, int time)
+  {
+    try
+    {
+      return LocalDateTime
+          .of(((date >> 9) & 0x7F) + 1980, (date >> 5) & 0x0F, date & 0x1F, (time >> 11) & 0x1F,
+              (time >> 5) & 0x3F, (time << 1) & 0x3E)
+          .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    } catch (RuntimeException e)
+    {
+      // invalid DOS date (e.g. zero month or day)
+      return 0L;
+    }
+  }
+
+  /**
+   * The central directory record of an entry.
+   */
+  private static final class Entry
+  {
+    private String name;
+    private int method;
+    private long time;
+    private long size;
+    private long compressedSize;
+    private long localHeaderOffset;
+  }
+
+  /**
+   * Inflates raw deflated data, supplying the dummy byte required by the
+   * inflater at the end of the input (as {@link java.util.zip.ZipFile} does),
+   * and releasing the inflater when closed.
+   */
+  private static final class EntryInflaterInputStream extends InflaterInputStream
+  {
+    private boolean eof = false;
+    private boolean closed = false;
+
+    public EntryInflaterInputStream(InputStream in, long size)
+    {
+      super(in, new Inflater(true),
+          (int) Math.max(64, Math.min(size > 0 ? size : 8192, 8192)));
+    }
+
+    @Override
+    protected void fill()
+      throws IOException
+    {
+      if (eof)
+      {
+        throw new EOFException("Unexpected end of ZLIB input stream");
+      }
+      len = in.read(buf, 0, buf.length);
+      if (len == -1)
+      {
+        buf[0] = 0;
+        len = 1;
+        eof = true;
+      }
+      inf.setInput(buf, 0, len);
+    }
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      if (!closed)
+      {
+        closed = true;
+        inf.end();
+        super.close();
+      }
+    }
+  }
+}
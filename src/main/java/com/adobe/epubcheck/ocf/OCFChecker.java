@@ -35,11 +35,13 @@ import org.w3c.epubcheck.constants.MIMEType;
 import org.w3c.epubcheck.core.AbstractChecker;
 import org.w3c.epubcheck.core.Checker;
 import org.w3c.epubcheck.core.CheckerFactory;
+import org.w3c.epubcheck.core.TimingScope;
 import org.w3c.epubcheck.util.text.UnicodeUtils;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.EPUBProfile;
 import com.adobe.epubcheck.api.FeatureReport;
+import com.adobe.epubcheck.api.Timing.Category;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.opf.OPFChecker;
 import com.adobe.epubcheck.opf.OPFChecker30;
@@ -48,6 +50,7 @@ import com.adobe.epubcheck.opf.OPFHandler30;
 import com.adobe.epubcheck.opf.OPFItem;
 import com.adobe.epubcheck.opf.ValidationContext;
 import com.adobe.epubcheck.opf.ValidationContext.ValidationContextBuilder;
+import com.adobe.epubcheck.util.ByteArrayResourceProvider;
 import com.adobe.epubcheck.util.EPUBVersion;
 import com.adobe.epubcheck.util.FeatureEnum;
 import com.adobe.epubcheck.util.InvalidVersionException;
@@ -77,53 +80,67 @@ public final class OCFChecker extends AbstractChecker
 
     try
     {
-      // Check the EPUB file (zip)
-      // -------------------------
-      //
-      checkZipFile();
+      try (TimingScope timing = TimingScope.start(context, Category.PHASE, "container structure"))
+      {
+        // Check the EPUB file (zip)
+        // -------------------------
+        //
+        checkZipFile();
+
+        // Check the OCF Container file structure
+        // --------------------------------------
+        //
+        if (!checkContainerStructure(state))
+        {
+          return;
+        }
 
-      // Check the OCF Container file structure
-      // --------------------------------------
-      //
-      if (!checkContainerStructure(state))
+        //
+        // Check the mimetype file
+        // ------------------------------
+        //
+        checkMimetypeFile(state);
+      }
+      // Stop early if a message limit was reached
+      if (context.isStopped())
       {
         return;
       }
-      ;
       OCFContainer container = state.getContainer();
 
-      //
-      // Check the mimetype file
-      // ------------------------------
-      //
-      checkMimetypeFile(state);
-
       //
       // Check the container.xml file
       // ----------------------------
       //
-      if (!checkContainerFile(state))
+      try (TimingScope timing = TimingScope.start(context, Category.PHASE, "container file"))
       {
-        return;
+        if (!checkContainerFile(state) || context.isStopped())
+        {
+          return;
+        }
       }
       List<URL> packageDocs = state.getPackageDocuments();
 
-      //
-      // Check the declared package documents
-      // ------------------------------------
-      //
-      if (!checkDeclaredPackageDocuments(state))
+      EPUBVersion validationVersion;
+      try (TimingScope timing = TimingScope.start(context, Category.PHASE, "peeking"))
       {
-        return;
-      }
+        //
+        // Check the declared package documents
+        // ------------------------------------
+        //
+        if (!checkDeclaredPackageDocuments(state) || context.isStopped())
+        {
+          return;
+        }
 
-      //
-      // Override the context-provided version and profile
-      // by what is actually declared in the publication
-      // -------------------------------------------------
-      EPUBVersion validationVersion = checkPublicationVersion(state);
-      state.setVersion(validationVersion);
-      state.setProfile(checkPublicationProfile(state, validationVersion));
+        //
+        // Override the context-provided version and profile
+        // by what is actually declared in the publication
+        // -------------------------------------------------
+        validationVersion = checkPublicationVersion(state);
+        state.setVersion(validationVersion);
+        state.setProfile(checkPublicationProfile(state, validationVersion));
+      }
 
       //
       // Check if there are multiple renditions
@@ -156,8 +173,11 @@ public final class OCFChecker extends AbstractChecker
       // Check other META-INF files
       // ------------------------------
       //
-      checkEncryptionFile(state);
-      checkOtherMetaFiles(state);
+      try (TimingScope timing = TimingScope.start(context, Category.PHASE, "encryption"))
+      {
+        checkEncryptionFile(state);
+        checkOtherMetaFiles(state);
+      }
       container = state.getContainer();
 
       //
@@ -167,6 +187,10 @@ public final class OCFChecker extends AbstractChecker
       List<OPFHandler> opfHandlers = new LinkedList<OPFHandler>();
       for (URL packageDoc : packageDocs)
       {
+        if (context.isStopped())
+        {
+          return;
+        }
         ValidationContextBuilder opfContext = state.context().url(packageDoc)
             .mimetype(MIMEType.PACKAGE_DOC.toString()).featureReport(new FeatureReport());
 
@@ -183,6 +207,10 @@ public final class OCFChecker extends AbstractChecker
       // Check container consistency with Package Documents content
       // ----------------------------------------------------------
       //
+      if (context.isStopped())
+      {
+        return;
+      }
 
       for (final URL resource : container.getResources())
       {
@@ -285,7 +313,13 @@ public final class OCFChecker extends AbstractChecker
     {
       // Get the container resources
       OCFResources resourcesProvider;
-      if ((new File(context.path)).isFile())
+      if (context.resourceProvider instanceof ByteArrayResourceProvider)
+      {
+        resourcesProvider = new OCFByteArrayResources(
+            ((ByteArrayResourceProvider) context.resourceProvider).getData());
+        state.setPackaged(true);
+      }
+      else if ((new File(context.path)).isFile())
       {
         resourcesProvider = new OCFZipResources(context.url);
         state.setPackaged(true);
@@ -447,9 +481,8 @@ public final class OCFChecker extends AbstractChecker
 
   private void checkZipFile()
   {
-    File packageFile = new File(context.path);
     // If the container is packaged (= not a directory):
-    if (packageFile.isFile())
+    if (isPackaged())
     {
       new OCFZipChecker(context).check();
     }
@@ -457,15 +490,21 @@ public final class OCFChecker extends AbstractChecker
 
   private void checkFileExtension(OCFCheckerState state)
   {
-    File packageFile = new File(context.path);
     // If the container is packaged (= not a directory):
-    if (packageFile.isFile())
+    if (isPackaged())
     {
       new OCFExtensionChecker(state.context().build()).check();
     }
 
   }
 
+  private boolean isPackaged()
+  {
+    // packaged containers are either files or held in memory
+    return context.resourceProvider instanceof ByteArrayResourceProvider
+        || new File(context.path).isFile();
+  }
+
   private void checkMimetypeFile(OCFCheckerState state)
   {
     OCFContainer container = state.getContainer();
@@ -589,6 +628,11 @@ public final class OCFChecker extends AbstractChecker
         // we only report the creation date once
         continue;
       }
+      if (!report.usesFeature(feature))
+      {
+        // skip features (like costly hashes) the report doesn't need
+        continue;
+      }
       report.info(resource.getPath(), feature,
           resource.getProperties().get(feature));
     }
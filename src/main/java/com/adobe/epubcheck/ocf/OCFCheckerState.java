@@ -53,6 +53,7 @@ class OCFCheckerState
   public OCFCheckerState(ValidationContext context)
   {
     this.context = context.copy();
+    this.containerBuilder.setEntryCache(context.entryCache.orNull());
   }
 
   public void addEncryptedResource(URL resource, EncryptionFilter filter)
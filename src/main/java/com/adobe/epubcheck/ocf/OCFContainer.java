@@ -10,9 +10,11 @@ import java.util.UUID;
 import org.w3c.epubcheck.util.url.URLUtils;
 
 import com.adobe.epubcheck.ocf.encryption.EncryptionFilter;
+import com.adobe.epubcheck.util.FeatureEnum;
 import com.adobe.epubcheck.util.GenericResourceProvider;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Longs;
 
 import io.mola.galimatias.GalimatiasParseException;
 import io.mola.galimatias.URL;
@@ -24,6 +26,7 @@ public final class OCFContainer implements GenericResourceProvider
 
     private final URL rootURL;
     private boolean isPackaged;
+    private OCFEntryCache entryCache = null;
     private Map<URL, OCFResource> resources = new LinkedHashMap<>();
     private ImmutableMap.Builder<URL, EncryptionFilter> encryptionFilters = ImmutableMap.builder();
 
@@ -70,10 +73,21 @@ public final class OCFContainer implements GenericResourceProvider
     {
       this.isPackaged = isPackaged;
     }
+
+    /**
+     * Sets the cache of resource content, shared by all the containers built
+     * by this builder. Resource content is not cached if the cache is
+     * <code>null</code> (the default).
+     */
+    public void setEntryCache(OCFEntryCache entryCache)
+    {
+      this.entryCache = entryCache;
+    }
   }
 
   private final URL rootURL;
   private final boolean isPackaged;
+  private final OCFEntryCache entryCache;
   private final ImmutableMap<URL, OCFResource> resources;
   private final ImmutableMap<URL, EncryptionFilter> encryptionFilters;
 
@@ -81,6 +95,7 @@ public final class OCFContainer implements GenericResourceProvider
   {
     this.rootURL = builder.rootURL;
     this.isPackaged = builder.isPackaged;
+    this.entryCache = builder.entryCache;
     this.resources = ImmutableMap.copyOf(builder.resources);
     this.encryptionFilters = builder.encryptionFilters.buildKeepingLast();
   }
@@ -101,12 +116,33 @@ public final class OCFContainer implements GenericResourceProvider
   public InputStream openStream(URL url)
     throws IOException
   {
-    OCFResource resource = resources.get(URLUtils.normalize(url));
+    URL normalized = URLUtils.normalize(url);
+    OCFResource resource = resources.get(normalized);
     if (resource == null)
     {
       throw new IllegalArgumentException("Resource not found: " + url);
     }
     // FIXME 2022 filter with encryption
+    if (entryCache != null)
+    {
+      return entryCache.openStream(normalized, resource, getSize(resource));
+    }
+    return resource.openStream();
+  }
+
+  /**
+   * Opens a stream on the given resource without going through the entry
+   * cache, for resources which are not read again (e.g. images, which are only
+   * probed for their size).
+   */
+  public InputStream openUncachedStream(URL url)
+    throws IOException
+  {
+    OCFResource resource = resources.get(URLUtils.normalize(url));
+    if (resource == null)
+    {
+      throw new IllegalArgumentException("Resource not found: " + url);
+    }
     return resource.openStream();
   }
 
@@ -121,6 +157,31 @@ public final class OCFContainer implements GenericResourceProvider
     return (filter == null || filter.canDecrypt());
   }
 
+  /**
+   * Returns the size of the given resource, as found in the container entry
+   * metadata, without reading the resource content.
+   *
+   * @param url
+   *          the URL of a container resource
+   * @return the size in bytes, or <code>-1</code> if it is unknown
+   */
+  public long getSize(URL url)
+  {
+    OCFResource resource = resources.get(URLUtils.normalize(url));
+    if (resource == null)
+    {
+      throw new IllegalArgumentException("Resource not found: " + url);
+    }
+    return getSize(resource);
+  }
+
+  private static long getSize(OCFResource resource)
+  {
+    String size = resource.getProperties().get(FeatureEnum.SIZE);
+    Long value = (size == null) ? null : Longs.tryParse(size);
+    return (value == null) ? -1L : value;
+  }
+
   public Set<URL> getResources()
   {
     return resources.keySet();
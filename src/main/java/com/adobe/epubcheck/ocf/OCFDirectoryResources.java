@@ -6,24 +6,37 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 import com.adobe.epubcheck.util.FeatureEnum;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import io.mola.galimatias.URL;
 
 public class OCFDirectoryResources implements OCFResources
 {
 
+  // OS and VCS artifacts, which are ignored like when creating an archive
+  private static final Set<String> IGNORED_FILES = ImmutableSet.of(".DS_Store", "._DS_Store",
+      "Thumbs.db", "ehthumbs.db");
+  private static final Set<String> IGNORED_DIRECTORIES = ImmutableSet.of(".git", ".svn");
+
   private final Path root;
 
   public OCFDirectoryResources(URL rootURL) throws IOException
@@ -47,8 +60,7 @@ public class OCFDirectoryResources implements OCFResources
     Iterator<Path> paths;
     try
     {
-      paths = Files.walk(root).iterator();
-      paths.next(); // skip the root itself
+      paths = listPaths().iterator();
     } catch (IOException e)
     {
       throw new RuntimeException(e);
@@ -80,14 +92,17 @@ public class OCFDirectoryResources implements OCFResources
             throw new UncheckedIOException(new IOException("symbolic links are disallowed"));
           }
 
-          // Build the properties map
-          final Map<FeatureEnum, String> properties = ImmutableMap.<FeatureEnum, String> builder()
-              .put(FeatureEnum.SIZE, String.valueOf(attributes.size()))
-              .put(FeatureEnum.COMPRESSED_SIZE, String.valueOf(attributes.size()))
-              .put(FeatureEnum.COMPRESSION_METHOD, "Stored")
-              .put(FeatureEnum.SHA_256, getSHAHash(path))
-              .put(FeatureEnum.CREATION_DATE, attributes.creationTime().toString())
-              .build();
+          // Build the properties map (the SHA-256 hash is computed lazily)
+          final Map<FeatureEnum, String> properties = OCFResources
+              .lazyProperties(ImmutableMap.<FeatureEnum, Supplier<String>> builder()
+                  .put(FeatureEnum.SIZE, Suppliers.ofInstance(String.valueOf(attributes.size())))
+                  .put(FeatureEnum.COMPRESSED_SIZE,
+                      Suppliers.ofInstance(String.valueOf(attributes.size())))
+                  .put(FeatureEnum.COMPRESSION_METHOD, Suppliers.ofInstance("Stored"))
+                  .put(FeatureEnum.SHA_256, Suppliers.memoize(() -> getSHAHash(path)))
+                  .put(FeatureEnum.CREATION_DATE,
+                      Suppliers.ofInstance(attributes.creationTime().toString()))
+                  .build());
 
           return new OCFResource()
           {
@@ -146,6 +161,45 @@ public class OCFDirectoryResources implements OCFResources
     // No-op
   }
 
+  /**
+   * Lists the paths of the container, in depth-first order, without the root
+   * itself. Ignored directories are not traversed.
+   */
+  private List<Path> listPaths()
+    throws IOException
+  {
+    final List<Path> paths = new ArrayList<>();
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>()
+    {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+      {
+        if (dir.equals(root))
+        {
+          return FileVisitResult.CONTINUE;
+        }
+        if (IGNORED_DIRECTORIES.contains(dir.getFileName().toString()))
+        {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        paths.add(dir);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+      {
+        // symbolic links are listed too, and reported when read
+        if (!attrs.isRegularFile() || !IGNORED_FILES.contains(file.getFileName().toString()))
+        {
+          paths.add(file);
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return paths;
+  }
+
   private static String getSHAHash(Path path)
   {
 
@@ -15,7 +15,7 @@ final class OCFEncryptionFileChecker extends AbstractChecker
 {
   private static final ValidatorMap validatorMap = ValidatorMap.builder()
       .putAll(version(EPUBVersion.VERSION_3), XMLValidators.ENC_30_RNC, XMLValidators.ENC_30_SCH)
-      .put(version(EPUBVersion.VERSION_2), XMLValidators.ENC_20_RNG).build();
+      .put(version(EPUBVersion.VERSION_2), XMLValidators.ENC_20_RNG).cachePlans().build();
 
   private final OCFCheckerState state;
 
@@ -0,0 +1,218 @@
+package com.adobe.epubcheck.ocf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import io.mola.galimatias.URL;
+
+/**
+ * A size-bounded cache of the content of container resources, so that
+ * resources read several times during a check (e.g. the package document, or
+ * the <code>META-INF</code> files) are only inflated once.
+ * <p>
+ * The cache is bounded by the total size of the cached content, and evicts the
+ * least recently used resources first. Resources larger than the maximum entry
+ * size are never cached.
+ * </p>
+ * <p>
+ * A resource is cached when a stream opened on it is read to the end and then
+ * closed. Streams that are only partially read (e.g. to read the header of an
+ * image) do not populate the cache, so that they don't require reading the
+ * whole resource. Resources which are only read once (e.g. images) can be read
+ * without the cache, see {@link OCFContainer#openUncachedStream(URL)}.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public final class OCFEntryCache
+{
+  /**
+   * The default maximum total size of the cached content, in bytes.
+   */
+  public static final long DEFAULT_MAX_SIZE = 16L * 1024 * 1024;
+  /**
+   * The default maximum size of a cached resource, in bytes.
+   */
+  public static final long DEFAULT_MAX_ENTRY_SIZE = 1024L * 1024;
+
+  // the recorded content starts in a small buffer, which grows as it is read,
+  // so that partially read streams only allocate what they read
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+
+  private final Cache<URL, byte[]> cache;
+  private final long maxEntrySize;
+
+  /**
+   * Creates a cache with the default size limits.
+   */
+  public OCFEntryCache()
+  {
+    this(DEFAULT_MAX_SIZE, DEFAULT_MAX_ENTRY_SIZE);
+  }
+
+  /**
+   * Creates a cache with the given size limits.
+   *
+   * @param maxSize
+   *          the maximum total size of the cached content, in bytes
+   * @param maxEntrySize
+   *          the maximum size of a cached resource, in bytes
+   */
+  public OCFEntryCache(long maxSize, long maxEntrySize)
+  {
+    Preconditions.checkArgument(maxSize >= 0, "maximum size must not be negative");
+    Preconditions.checkArgument(maxEntrySize >= 0, "maximum entry size must not be negative");
+    this.maxEntrySize = Math.min(maxEntrySize, Math.min(maxSize, Integer.MAX_VALUE - 8));
+    // a single segment, for a strict least-recently-used eviction
+    this.cache = CacheBuilder.newBuilder().concurrencyLevel(1).maximumWeight(maxSize)
+        .weigher((URL url, byte[] content) -> content.length).recordStats().build();
+  }
+
+  /**
+   * Opens a stream on the given resource, reading the cached content if it is
+   * available.
+   *
+   * @param url
+   *          the normalized URL of the resource, used as the cache key
+   * @param resource
+   *          the resource
+   * @param size
+   *          the expected size of the resource, or <code>-1</code> if unknown
+   */
+  InputStream openStream(URL url, OCFResource resource, long size)
+    throws IOException
+  {
+    if (size > maxEntrySize)
+    {
+      return resource.openStream();
+    }
+    byte[] content = cache.getIfPresent(url);
+    if (content != null)
+    {
+      return new ByteArrayInputStream(content);
+    }
+    return new CachingInputStream(url, resource.openStream(), size);
+  }
+
+  /**
+   * Returns the hit and miss statistics of this cache. Resources larger than
+   * the maximum entry size are not counted.
+   */
+  public CacheStats stats()
+  {
+    return cache.stats();
+  }
+
+  /**
+   * Returns the number of currently cached resources.
+   */
+  public long size()
+  {
+    return cache.size();
+  }
+
+  @Override
+  public String toString()
+  {
+    CacheStats stats = cache.stats();
+    return "OCFEntryCache[size=" + cache.size() + ", hits=" + stats.hitCount() + ", misses="
+        + stats.missCount() + ", evictions=" + stats.evictionCount() + "]";
+  }
+
+  /**
+   * Records the content read from the underlying stream, and caches it when the
+   * stream is closed after being read to the end.
+   */
+  private final class CachingInputStream extends FilterInputStream
+  {
+    private final URL url;
+    private ByteArrayOutputStream content;
+    private boolean complete = false;
+
+    public CachingInputStream(URL url, InputStream in, long size)
+    {
+      super(in);
+      this.url = url;
+      this.content = new ByteArrayOutputStream(
+          (size > 0) ? (int) Math.min(size, INITIAL_BUFFER_SIZE) : INITIAL_BUFFER_SIZE);
+    }
+
+    @Override
+    public int read()
+      throws IOException
+    {
+      int b = super.read();
+      if (b == -1)
+      {
+        complete = true;
+      }
+      else if (content != null)
+      {
+        content.write(b);
+        checkSize();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+      throws IOException
+    {
+      int read = super.read(b, off, len);
+      if (read == -1)
+      {
+        complete = true;
+      }
+      else if (content != null)
+      {
+        content.write(b, off, read);
+        checkSize();
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n)
+      throws IOException
+    {
+      // skipped content is not recorded, the resource can't be cached
+      content = null;
+      return super.skip(n);
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+      return false;
+    }
+
+    @Override
+    public void close()
+      throws IOException
+    {
+      super.close();
+      if (complete && content != null)
+      {
+        cache.put(url, content.toByteArray());
+      }
+      content = null;
+    }
+
+    private void checkSize()
+    {
+      if (content.size() > maxEntrySize)
+      {
+        content = null;
+      }
+    }
+  }
+}
@@ -3,12 +3,27 @@ package com.adobe.epubcheck.ocf;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.MessageDigest;
+import java.util.Map;
+
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
 
 public interface OCFResources extends Iterable<OCFResource>
 {
   public void close()
     throws IOException;
 
+  /**
+   * Returns a view of the given map of property suppliers, where each value is
+   * only computed when it is first accessed. Suppliers of costly values (like
+   * the SHA-256 hash of the resource) are expected to be memoized.
+   */
+  static Map<FeatureEnum, String> lazyProperties(Map<FeatureEnum, Supplier<String>> suppliers)
+  {
+    return Maps.transformValues(suppliers, Supplier::get);
+  }
+
   static String getSHAHash(InputStream inputStream)
   {
     try
@@ -1,8 +1,7 @@
 package com.adobe.epubcheck.ocf;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import org.w3c.epubcheck.core.Checker;
 
@@ -16,24 +15,22 @@ public class OCFZipChecker implements Checker
 {
   private final ValidationContext context;
   private final Report report;
-  private final File zip;
 
   public OCFZipChecker(ValidationContext context)
   {
     // FIXME 2022 - check preconditions
     this.context = context;
     this.report = context.report;
-    this.zip = new File(context.path);
   }
 
   @Override
   public void check()
   {
-    FileInputStream epubIn = null;
+    InputStream epubIn = null;
     try
     {
 
-      epubIn = new FileInputStream(zip);
+      epubIn = context.resourceProvider.openStream(context.url);
 
       byte[] header = new byte[58];
 
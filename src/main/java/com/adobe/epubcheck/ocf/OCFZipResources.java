@@ -17,6 +17,8 @@ import org.w3c.epubcheck.util.url.URLUtils;
 
 import com.adobe.epubcheck.util.FeatureEnum;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
 
 import io.mola.galimatias.URL;
@@ -50,14 +52,20 @@ public class OCFZipResources implements OCFResources
       {
         final ZipEntry entry = entries.nextElement();
 
-        final Map<FeatureEnum, String> properties = ImmutableMap.<FeatureEnum, String> builder()
-            .put(FeatureEnum.SIZE, String.valueOf(entry.getSize()))
-            .put(FeatureEnum.COMPRESSED_SIZE, String.valueOf(entry.getCompressedSize()))
-            .put(FeatureEnum.COMPRESSION_METHOD, getCompressionMethod(entry))
-            .put(FeatureEnum.SHA_256, getSHAHash(entry, zip))
-            .put(FeatureEnum.CREATION_DATE,
-                new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'").format(new Date(entry.getTime())))
-            .build();
+        // The SHA-256 hash requires reading the whole entry, it is computed
+        // only if and when the property is accessed
+        final Map<FeatureEnum, String> properties = OCFResources
+            .lazyProperties(ImmutableMap.<FeatureEnum, Supplier<String>> builder()
+                .put(FeatureEnum.SIZE, Suppliers.ofInstance(String.valueOf(entry.getSize())))
+                .put(FeatureEnum.COMPRESSED_SIZE,
+                    Suppliers.ofInstance(String.valueOf(entry.getCompressedSize())))
+                .put(FeatureEnum.COMPRESSION_METHOD,
+                    Suppliers.ofInstance(getCompressionMethod(entry)))
+                .put(FeatureEnum.SHA_256, Suppliers.memoize(() -> getSHAHash(entry, zip)))
+                .put(FeatureEnum.CREATION_DATE,
+                    Suppliers.ofInstance(new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'")
+                        .format(new Date(entry.getTime()))))
+                .build());
         
         return new OCFResource()
         {
@@ -122,7 +130,12 @@ public class OCFZipResources implements OCFResources
   private static String getCompressionMethod(ZipEntry entry)
   {
     Preconditions.checkNotNull(entry);
-    switch (entry.getMethod())
+    return getCompressionMethod(entry.getMethod());
+  }
+
+  static String getCompressionMethod(int method)
+  {
+    switch (method)
     {
     case ZipEntry.DEFLATED:
       return "Deflated";
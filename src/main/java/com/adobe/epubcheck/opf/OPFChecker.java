@@ -26,19 +26,32 @@ import static com.adobe.epubcheck.opf.ValidationContext.ValidationContextPredica
 import static com.adobe.epubcheck.opf.ValidationContext.ValidationContextPredicates.profile;
 import static com.adobe.epubcheck.opf.ValidationContext.ValidationContextPredicates.version;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.w3c.epubcheck.constants.MIMEType;
 import org.w3c.epubcheck.core.AbstractChecker;
+import org.w3c.epubcheck.core.BufferedReport;
+import org.w3c.epubcheck.core.CheckExecutors;
 import org.w3c.epubcheck.core.Checker;
 import org.w3c.epubcheck.core.CheckerFactory;
+import org.w3c.epubcheck.core.TimingScope;
+import org.w3c.epubcheck.core.references.ReferenceRegistry;
 import org.w3c.epubcheck.core.references.ResourceReferencesChecker;
 import org.w3c.epubcheck.util.url.URLUtils;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.EPUBProfile;
+import com.adobe.epubcheck.api.FeatureReport;
+import com.adobe.epubcheck.api.Timing.Category;
+import com.adobe.epubcheck.messages.LocaleHolder;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.nav.NavChecker;
 import com.adobe.epubcheck.ncx.NCXChecker;
@@ -54,6 +67,7 @@ import com.adobe.epubcheck.xml.XMLValidators;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 
 public class OPFChecker extends AbstractChecker
 {
@@ -74,7 +88,7 @@ public class OPFChecker extends AbstractChecker
           XMLValidators.OPF_EDUPUB_SCH)
       .put(Predicates.or(profile(EPUBProfile.PREVIEW), hasPubType(PublicationType.PREVIEW)),
           XMLValidators.OPF_PREVIEW_SCH)
-      .build();
+      .cachePlans().build();
 
   protected final String path;
   protected final EPUBVersion version;
@@ -108,45 +122,72 @@ public class OPFChecker extends AbstractChecker
       report.message(MessageId.PKG_020, EPUBLocation.of(context), path);
       return false;
     }
-    checkContent();
-
-    if (!opfHandler.checkUniqueIdentExists())
+    List<OPFItem> items;
+    try (TimingScope timing = TimingScope.start(context, Category.PHASE, "opf"))
     {
-      report.message(MessageId.OPF_030, EPUBLocation.of(context), opfHandler.getIdentId());
-    }
+      checkContent();
 
-    List<OPFItem> items = opfHandler.getItems();
-    report.info(null, FeatureEnum.ITEMS_COUNT, Integer.toString(items.size()));
+      if (!opfHandler.checkUniqueIdentExists())
+      {
+        report.message(MessageId.OPF_030, EPUBLocation.of(context), opfHandler.getIdentId());
+      }
 
-    // Register package doc and items to the XRefChecker
-    context.resourceRegistry.get().registerResource(context.url, context.mimeType);
-    for (OPFItem item : items)
-    {
-      context.resourceRegistry.get().registerResource(item);
-      report.info(item.getPath(), FeatureEnum.DECLARED_MIMETYPE, item.getMimeType());
-    }
+      items = opfHandler.getItems();
+      report.info(null, FeatureEnum.ITEMS_COUNT, Integer.toString(items.size()));
 
-    checkGuide();
+      // Register package doc and items to the XRefChecker
+      context.resourceRegistry.get().registerResource(context.url, context.mimeType);
+      for (OPFItem item : items)
+      {
+        context.resourceRegistry.get().registerResource(item);
+        report.info(item.getPath(), FeatureEnum.DECLARED_MIMETYPE, item.getMimeType());
+      }
+
+      checkGuide();
+    }
 
     // Check items content (publication resources)
-    for (OPFItem item : items)
+    try (TimingScope timing = TimingScope.start(context, Category.PHASE, "content"))
     {
-      if (!item.isRemote())
+      if (context.threads > 1)
       {
-        checkItemContent(item);
+        checkItemsContentInParallel(items);
+      }
+      else
+      {
+        for (OPFItem item : items)
+        {
+          if (context.isStopped())
+          {
+            // a message limit was reached, skip the remaining items
+            break;
+          }
+          if (!item.isRemote())
+          {
+            checkItemContent(item);
+          }
+        }
       }
     }
 
-    // Checks items after the content-validation pass
-    // This allows to run checks depending on info collected in publication
-    // resources
-    for (OPFItem item : items)
+    if (context.isStopped())
     {
-      checkItemAfterResourceValidation(item);
+      return false;
     }
 
-    // Check references
-    new ResourceReferencesChecker(context).check();
+    try (TimingScope timing = TimingScope.start(context, Category.PHASE, "references"))
+    {
+      // Checks items after the content-validation pass
+      // This allows to run checks depending on info collected in publication
+      // resources
+      for (OPFItem item : items)
+      {
+        checkItemAfterResourceValidation(item);
+      }
+
+      // Check references
+      new ResourceReferencesChecker(context).check();
+    }
     return false;
   }
 
@@ -359,7 +400,88 @@ public class OPFChecker extends AbstractChecker
     }
   }
 
+  private void checkItemsContentInParallel(List<OPFItem> items)
+  {
+    // Each item is checked with its own buffered report, reference registry,
+    // and feature report. They are merged back in manifest order once the item
+    // is checked, so that the result is the same as a sequential check.
+    // Media Overlays are checked one after the other, in manifest order, since
+    // the overlay text checker depends on the order of registration.
+    // The threads are shared with the other checks, and are not stopped when
+    // this check completes: if it fails, the items not started are skipped.
+    Executor executor = CheckExecutors.bounded(context.threads);
+    AtomicBoolean cancelled = new AtomicBoolean();
+    try
+    {
+      List<ItemCheck> checks = new ArrayList<>();
+      CompletableFuture<Void> lastOverlayCheck = CompletableFuture.completedFuture(null);
+      for (final OPFItem item : items)
+      {
+        if (item.isRemote())
+        {
+          continue;
+        }
+        final ItemCheck check = new ItemCheck();
+        final ValidationContext parentContext = new ValidationContextBuilder(context)
+            .report(check.report).referenceRegistry(check.references)
+            .featureReport(check.features).build();
+        Runnable task = LocaleHolder.propagate(() -> {
+          // items not started when a message limit is reached are skipped
+          if (!context.isStopped() && !cancelled.get())
+          {
+            checkItemContent(item, parentContext);
+          }
+        });
+        if (MIMEType.SMIL.is(item.getMimeType()))
+        {
+          lastOverlayCheck = lastOverlayCheck.thenRunAsync(task, executor);
+          check.future = lastOverlayCheck;
+        }
+        else
+        {
+          check.future = CompletableFuture.runAsync(task, executor);
+        }
+        checks.add(check);
+      }
+
+      for (ItemCheck check : checks)
+      {
+        try
+        {
+          check.future.join();
+        } catch (CompletionException e)
+        {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw e;
+        }
+        check.report.flush();
+        context.referenceRegistry.get().registerReferences(check.references);
+        context.featureReport.merge(check.features);
+      }
+    } finally
+    {
+      cancelled.set(true);
+    }
+  }
+
+  /**
+   * The state of an item checked in parallel.
+   */
+  private final class ItemCheck
+  {
+    private final BufferedReport report = new BufferedReport(OPFChecker.this.report);
+    private final ReferenceRegistry references = new ReferenceRegistry(
+        context.container.get(), context.resourceRegistry.get());
+    private final FeatureReport features = context.featureReport.fork();
+    private CompletableFuture<Void> future;
+  }
+
   protected void checkItemContent(OPFItem item)
+  {
+    checkItemContent(item, context);
+  }
+
+  private void checkItemContent(OPFItem item, ValidationContext context)
   {
     // We do not currently support checking resources defined as data URLs
     if (item.hasDataURL())
@@ -397,7 +519,7 @@ public class OPFChecker extends AbstractChecker
       checker.check();
     } catch (IllegalStateException e)
     {
-      report.message(MessageId.CHK_008, EPUBLocation.of(context), item.getPath());
+      context.report.message(MessageId.CHK_008, EPUBLocation.of(context), item.getPath());
     }
   }
 
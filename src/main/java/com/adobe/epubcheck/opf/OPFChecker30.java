@@ -173,9 +173,8 @@ public class OPFChecker30 extends OPFChecker
     // - report if no reference (of a publication-resource type) is found
     if (!(item.isInSpine() || item.isNav() || item.isNcx())
         && context.referenceRegistry.isPresent()
-        && context.referenceRegistry.get().asList().stream()
-            .noneMatch(ref -> ref.targetResource.equals(item.getURL())
-                && ref.type.isPublicationResourceReference()))
+        && context.referenceRegistry.get().getReferencesTo(item.getURL()).stream()
+            .noneMatch(ref -> ref.type.isPublicationResourceReference()))
     {
       report.message(MessageId.OPF_097, item.getLocation(), item.getPath());
     }
@@ -212,9 +211,8 @@ public class OPFChecker30 extends OPFChecker
     // check that non-linear content documents are reachable
     if (item.isInSpine() && !item.isLinear() && context.referenceRegistry.isPresent()
     // search the reference registry for any hyperlink pointing to this item
-        && !context.referenceRegistry.get().asList().stream()
-            .anyMatch(ref -> ref.type == Reference.Type.HYPERLINK
-                && ref.targetResource.equals(item.getURL())))
+        && !context.referenceRegistry.get().hasReferencesTo(item.getURL(),
+            Reference.Type.HYPERLINK))
     {
       // if content is scripted, references can be added by scripting
       // se we only report a usage
@@ -23,8 +23,10 @@
 package com.adobe.epubcheck.opf;
 
 import org.w3c.epubcheck.core.AbstractChecker;
+import org.w3c.epubcheck.core.TimingScope;
 
 import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.Timing.Category;
 import com.adobe.epubcheck.messages.MessageId;
 import com.google.common.base.Preconditions;
 
@@ -40,12 +42,36 @@ public class PublicationResourceChecker extends AbstractChecker
 
   @Override
   public final void check()
+  {
+    if (!isTimed())
+    {
+      doCheck();
+      return;
+    }
+    try (TimingScope timing = TimingScope.start(context, Category.CHECKER,
+        getClass().getSimpleName()))
+    {
+      doCheck();
+    }
+  }
+
+  private void doCheck()
   {
     boolean cont = !context.container.isPresent() || checkPublicationBeforeContent();
     cont = cont && checkContent();
     cont = cont && !context.container.isPresent() || checkPublicationAfterContent();
   }
 
+  /**
+   * Returns whether the time spent in this checker is reported to the timing
+   * listener (if any). Checkers of resource fragments, run many times per
+   * resource, can override this to not be reported individually.
+   */
+  protected boolean isTimed()
+  {
+    return true;
+  }
+
   // by construction we know context.ocf is present
   protected boolean checkPublicationBeforeContent()
   {
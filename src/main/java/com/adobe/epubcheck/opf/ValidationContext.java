@@ -6,6 +6,7 @@ import java.util.Locale;
 import java.util.Set;
 
 import org.w3c.epubcheck.core.Checker;
+import org.w3c.epubcheck.core.LimitedReport;
 import org.w3c.epubcheck.core.references.ReferenceRegistry;
 import org.w3c.epubcheck.core.references.ResourceRegistry;
 import org.w3c.epubcheck.util.url.URLUtils;
@@ -14,7 +15,9 @@ import com.adobe.epubcheck.api.EPUBProfile;
 import com.adobe.epubcheck.api.FeatureReport;
 import com.adobe.epubcheck.api.LocalizableReport;
 import com.adobe.epubcheck.api.Report;
+import com.adobe.epubcheck.api.TimingListener;
 import com.adobe.epubcheck.ocf.OCFContainer;
+import com.adobe.epubcheck.ocf.OCFEntryCache;
 import com.adobe.epubcheck.overlay.OverlayTextChecker;
 import com.adobe.epubcheck.util.EPUBVersion;
 import com.adobe.epubcheck.util.GenericResourceProvider;
@@ -112,6 +115,28 @@ public final class ValidationContext
    * The set of properties associated to the resource being validated.
    */
   public final Set<Property> properties;
+  /**
+   * The maximum number of threads used to check the publication resources.
+   * Resources are checked sequentially when set to <code>1</code> (the
+   * default).
+   */
+  public final int threads;
+  /**
+   * The cache of container resource content, absent if resource content is not
+   * cached.
+   */
+  public final Optional<OCFEntryCache> entryCache;
+  /**
+   * The listener notified of the time spent in the validation phases and
+   * checks, absent if nothing is measured.
+   */
+  public final Optional<TimingListener> timingListener;
+  /**
+   * The report enforcing the message limits of the check, absent if the check
+   * is not limited. The limits are shared by all the contexts of a check, even
+   * when their report is a different one (e.g. a buffer of that report).
+   */
+  public final Optional<LimitedReport> limitedReport;
 
   private ValidationContext(ValidationContextBuilder builder)
   {
@@ -142,6 +167,10 @@ public final class ValidationContext
     this.pubTypes = (builder.pubTypes != null) ? Sets.immutableEnumSet(builder.pubTypes)
         : EnumSet.noneOf(PublicationType.class);
     this.properties = builder.properties.build();
+    this.threads = Math.max(1, builder.threads);
+    this.entryCache = Optional.fromNullable(builder.entryCache);
+    this.timingListener = Optional.fromNullable(builder.timingListener);
+    this.limitedReport = Optional.fromNullable(builder.limitedReport);
     this.path = computePath();
   }
 
@@ -174,6 +203,15 @@ public final class ValidationContext
     return new ValidationContextBuilder().copy(this);
   }
 
+  /**
+   * Returns <code>true</code> if the check must stop early, a message limit
+   * having been reached.
+   */
+  public boolean isStopped()
+  {
+    return limitedReport.isPresent() && limitedReport.get().isLimitReached();
+  }
+
   // FIXME 2022 document
   public boolean isRemote(URL url)
   {
@@ -238,6 +276,10 @@ public final class ValidationContext
     private OverlayTextChecker overlayTextChecker = null;
     private Set<PublicationType> pubTypes = null;
     private ImmutableSet.Builder<Property> properties = ImmutableSet.<Property> builder();
+    private int threads = 1;
+    private OCFEntryCache entryCache = null;
+    private TimingListener timingListener = null;
+    private LimitedReport limitedReport = null;
 
     public ValidationContextBuilder()
     {
@@ -263,6 +305,10 @@ public final class ValidationContext
       overlayTextChecker = context.overlayTextChecker.orNull();
       pubTypes = context.pubTypes;
       properties = ImmutableSet.<Property> builder().addAll(context.properties);
+      threads = context.threads;
+      entryCache = context.entryCache.orNull();
+      timingListener = context.timingListener.orNull();
+      limitedReport = context.limitedReport.orNull();
       return this;
     }
 
@@ -320,6 +366,12 @@ public final class ValidationContext
       return this;
     }
 
+    public ValidationContextBuilder referenceRegistry(ReferenceRegistry referenceRegistry)
+    {
+      this.referenceRegistry = referenceRegistry;
+      return this;
+    }
+
     public ValidationContextBuilder pubTypes(Set<PublicationType> pubTypes)
     {
       this.pubTypes = pubTypes;
@@ -342,6 +394,38 @@ public final class ValidationContext
       return this;
     }
 
+    public ValidationContextBuilder threads(int threads)
+    {
+      this.threads = threads;
+      return this;
+    }
+
+    public ValidationContextBuilder entryCache(OCFEntryCache entryCache)
+    {
+      this.entryCache = entryCache;
+      return this;
+    }
+
+    public ValidationContextBuilder timingListener(TimingListener timingListener)
+    {
+      this.timingListener = timingListener;
+      return this;
+    }
+
+    /**
+     * Sets the report enforcing the message limits of the check, and uses it
+     * as the report of the context (if not <code>null</code>).
+     */
+    public ValidationContextBuilder limitedReport(LimitedReport limitedReport)
+    {
+      this.limitedReport = limitedReport;
+      if (limitedReport != null)
+      {
+        this.report = limitedReport;
+      }
+      return this;
+    }
+
     public ValidationContext build()
     {
       return new ValidationContext(this);
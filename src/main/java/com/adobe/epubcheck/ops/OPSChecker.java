@@ -80,7 +80,7 @@ public class OPSChecker extends PublicationResourceChecker
           XMLValidators.XHTML_IDX_SCH, XMLValidators.XHTML_IDX_INDEX_SCH)
       .put(hasProp(PackageVocabs.ITEM_VOCAB.get(PackageVocabs.ITEM_PROPERTIES.DATA_NAV)),
           XMLValidators.XHTML_DATANAV_SCH)
-      .build();
+      .cachePlans().build();
 
 
   public OPSChecker(ValidationContext context)
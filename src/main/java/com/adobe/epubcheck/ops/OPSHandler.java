@@ -32,6 +32,7 @@ import org.xml.sax.SAXException;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.css.CSSChecker;
+import com.adobe.epubcheck.css.CSSStringParser;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.opf.OPFChecker;
 import com.adobe.epubcheck.opf.ValidationContext;
@@ -60,9 +61,13 @@ public class OPSHandler extends XMLHandler
   protected StringBuilder textNode;
   protected Stack<EPUBLocation> elementLocationStack = new Stack<EPUBLocation>();
 
+  // parses the CSS strings of this document, with memoization
+  private final CSSStringParser cssParser;
+
   public OPSHandler(ValidationContext context)
   {
     super(context);
+    this.cssParser = new CSSStringParser(context.locale);
   }
 
   private void checkPaint(String attr)
@@ -287,7 +292,7 @@ public class OPSHandler extends XMLHandler
         String style = e.getAttribute("style");
         if (style != null && style.length() > 0)
         {
-          new CSSChecker(context, style, location().getLine(), true).check();
+          new CSSChecker(context, cssParser, style, location().getLine(), true).check();
         }
       }
     }
@@ -352,7 +357,7 @@ public class OPSHandler extends XMLHandler
       if (style.length() > 0)
       {
         this.hasCSS = true;
-        new CSSChecker(context, style, currentLocation.getLine(), false).check();
+        new CSSChecker(context, cssParser, style, currentLocation.getLine(), false).check();
       }
       textNode = null;
     }
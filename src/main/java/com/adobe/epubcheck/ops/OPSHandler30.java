@@ -1,7 +1,6 @@
 package com.adobe.epubcheck.ops;
 
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -113,33 +112,63 @@ public class OPSHandler30 extends OPSHandler
       "onplaying", "onprogress", "onratechange", "onreadystatechange", "onseeked", "onseeking",
       "onstalled", "onsuspend", "ontimeupdate", "onvolumechange", "onwaiting" };
 
-  static protected HashSet<String> scriptEvents;
-
+  /**
+   * Returns a copy of the names of the script event attributes.
+   *
+   * @deprecated use {@link #getScriptEventNames()}
+   */
+  @Deprecated
   public static HashSet<String> getScriptEvents()
   {
-    if (scriptEvents == null)
-    {
-      scriptEvents = new HashSet<String>();
-      Collections.addAll(scriptEvents, scriptEventsStrings);
-      Collections.addAll(scriptEvents, mouseEventsStrings);
-    }
-    return scriptEvents;
+    return new HashSet<>(SCRIPT_EVENTS);
+  }
+
+  /**
+   * Returns the immutable set of the names of the script event attributes,
+   * including the mouse event attributes.
+   */
+  public static Set<String> getScriptEventNames()
+  {
+    return SCRIPT_EVENTS;
   }
 
   static protected final String[] mouseEventsStrings = { "onclick", "ondblclick", "ondrag",
       "ondragend", "ondragenter", "ondragleave", "ondragover", "ondragstart", "ondrop",
       "onmousedown", "onmousemove", "onmouseout", "onmouseover", "onmouseup", "onmousewheel",
       "onscroll" };
-  static protected HashSet<String> mouseEvents;
-
+  // immutable, as they are shared by concurrent validations
+  private static final Set<String> SCRIPT_EVENTS = ImmutableSet.<String> builder()
+      .add(scriptEventsStrings).add(mouseEventsStrings).build();
+  private static final Set<String> MOUSE_EVENTS = ImmutableSet.copyOf(mouseEventsStrings);
+
+  /**
+   * @deprecated use {@link #getScriptEventNames()}, this set is not used
+   */
+  @Deprecated
+  static protected HashSet<String> scriptEvents = getScriptEvents();
+  /**
+   * @deprecated use {@link #getMouseEventNames()}, this set is not used
+   */
+  @Deprecated
+  static protected HashSet<String> mouseEvents = getMouseEvents();
+
+  /**
+   * Returns a copy of the names of the mouse event attributes.
+   *
+   * @deprecated use {@link #getMouseEventNames()}
+   */
+  @Deprecated
   public static HashSet<String> getMouseEvents()
   {
-    if (mouseEvents == null)
-    {
-      mouseEvents = new HashSet<String>();
-      Collections.addAll(mouseEvents, mouseEventsStrings);
-    }
-    return mouseEvents;
+    return new HashSet<>(MOUSE_EVENTS);
+  }
+
+  /**
+   * Returns the immutable set of the names of the mouse event attributes.
+   */
+  public static Set<String> getMouseEventNames()
+  {
+    return MOUSE_EVENTS;
   }
 
   public OPSHandler30(ValidationContext context)
@@ -509,8 +538,8 @@ public class OPSHandler30 extends OPSHandler
 
   protected void processInlineScripts()
   {
-    HashSet<String> scriptEvents = getScriptEvents();
-    HashSet<String> mouseEvents = getMouseEvents();
+    Set<String> scriptEvents = getScriptEventNames();
+    Set<String> mouseEvents = getMouseEventNames();
 
     XMLElement e = currentElement();
     for (int i = 0; i < e.getAttributeCount(); ++i)
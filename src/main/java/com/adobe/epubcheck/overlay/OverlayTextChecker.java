@@ -13,7 +13,7 @@ public final class OverlayTextChecker
 
   private final Map<URL, String> docToOverlayMap = new HashMap<>();
 
-  public boolean registerOverlay(URL contentDocURL, String overlayID)
+  public synchronized boolean registerOverlay(URL contentDocURL, String overlayID)
   {
     Preconditions.checkArgument(contentDocURL != null);
     Preconditions.checkArgument(overlayID != null);
@@ -28,7 +28,7 @@ public final class OverlayTextChecker
     }
   }
 
-  public boolean isReferencedByOverlay(URL contentDocURL)
+  public synchronized boolean isReferencedByOverlay(URL contentDocURL)
   {
     if (contentDocURL == null)
     {
@@ -37,7 +37,7 @@ public final class OverlayTextChecker
     return docToOverlayMap.containsKey(contentDocURL);
   }
 
-  public boolean isCorrectOverlay(URL contentDocURL, String overlayID)
+  public synchronized boolean isCorrectOverlay(URL contentDocURL, String overlayID)
   {
     return overlayID.equals(docToOverlayMap.get(contentDocURL));
   }
@@ -2,7 +2,9 @@ package com.adobe.epubcheck.reporting;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.messages.Message;
@@ -25,18 +27,38 @@ public class CheckMessage implements Comparable<CheckMessage>
   private final List<EPUBLocation> locations = new ArrayList<EPUBLocation>();
   @JsonProperty
   private final String suggestion;
+  // index of the listed locations, for constant-time duplicate checks
+  private final Set<EPUBLocation> locationSet = new HashSet<EPUBLocation>();
 
-  private CheckMessage(Message message, EPUBLocation location, Object... args)
+  CheckMessage(Message message, String text, EPUBLocation location)
   {
     this.ID = message.getID().toString();
-    this.message = message.getMessage(args);
+    this.message = text;
     this.locations.add(location);
+    this.locationSet.add(location);
     this.severity = message.getSeverity();
     this.suggestion = ("".equals(message.getSuggestion())) ? null : message.getSuggestion();
   }
 
+  private CheckMessage(Message message, EPUBLocation location, Object... args)
+  {
+    this(message, message.getMessage(args), location);
+  }
+
+  /**
+   * Adds a reported message to the given list of check messages, aggregating it
+   * with an existing check message with the same ID and text if any.
+   * <p>
+   * Use a {@link CheckMessageList} to aggregate messages in constant time, the
+   * other lists are searched linearly.
+   * </p>
+   */
   public static CheckMessage addCheckMessage(List<CheckMessage> checkMessages, Message message, EPUBLocation location, Object... args)
   {
+    if (checkMessages instanceof CheckMessageList)
+    {
+      return ((CheckMessageList) checkMessages).add(message, location, args);
+    }
     CheckMessage result = findCheckMessage(checkMessages, message.getID().toString(), message.getMessage(args));
     if (result == null)
     {
@@ -52,7 +74,7 @@ public class CheckMessage implements Comparable<CheckMessage>
 
   void addLocation(EPUBLocation location)
   {
-    if (this.findLocation(location) == null)
+    if (!this.locationSet.contains(location))
     {
       if (this.locations.size() == CheckMessage.MAX_LOCATIONS)
       {
@@ -62,11 +84,13 @@ public class CheckMessage implements Comparable<CheckMessage>
       else if (this.locations.size() < CheckMessage.MAX_LOCATIONS)
       {
         this.locations.add(location);
+        this.locationSet.add(location);
       }
       else
       {
         ++additionalLocations;
         EPUBLocation infoLocation = this.locations.remove(this.locations.size() - 1);
+        this.locationSet.remove(infoLocation);
 //        this.locations.add(EPUBLocation.create(String.format("There are %1$s additional locations for this message.", additionalLocations),
 //            infoLocation.getLine(),infoLocation.getLine(),infoLocation.getContext().orNull()));
       }
@@ -93,18 +117,6 @@ public class CheckMessage implements Comparable<CheckMessage>
     return this.severity;
   }
 
-  private EPUBLocation findLocation(EPUBLocation location)
-  {
-    for (EPUBLocation l : this.locations)
-    {
-      if (l.equals(location))
-      {
-        return l;
-      }
-    }
-    return null;
-  }
-
   public String toString()
   {
     EPUBLocation location = this.locations.get(this.locations.size() - 1);
@@ -0,0 +1,73 @@
+package com.adobe.epubcheck.reporting;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.messages.Message;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
+
+/**
+ * A list of {@link CheckMessage}s, where reported messages with the same ID and
+ * text are aggregated in a single check message with multiple locations.
+ * <p>
+ * Check messages are indexed by ID and text, so that aggregating a message
+ * takes constant time regardless of the number of messages in the list. To
+ * keep the index in step, the list can only be modified by
+ * {@link #add(Message, EPUBLocation, Object...)} and sorted; other
+ * modifications throw an {@link UnsupportedOperationException}.
+ * </p>
+ */
+public final class CheckMessageList extends AbstractList<CheckMessage>
+{
+  private final List<CheckMessage> messages = new ArrayList<>();
+  private final Table<String, String, CheckMessage> index = HashBasedTable.create();
+
+  /**
+   * Adds a reported message to this list, either as a new check message or as
+   * a new location of an existing check message with the same ID and text.
+   *
+   * @return the check message the reported message was aggregated to
+   */
+  public CheckMessage add(Message message, EPUBLocation location, Object... args)
+  {
+    String id = message.getID().toString();
+    String text = message.getMessage(args);
+    CheckMessage result = index.get(id, text);
+    if (result == null)
+    {
+      result = new CheckMessage(message, text, location);
+      index.put(id, text, result);
+      messages.add(result);
+    }
+    else
+    {
+      result.addLocation(location);
+    }
+    return result;
+  }
+
+  @Override
+  public CheckMessage get(int index)
+  {
+    return messages.get(index);
+  }
+
+  /**
+   * Sorts the check messages. This doesn't change the index.
+   */
+  @Override
+  public void sort(Comparator<? super CheckMessage> comparator)
+  {
+    messages.sort(comparator);
+  }
+
+  @Override
+  public int size()
+  {
+    return messages.size();
+  }
+}
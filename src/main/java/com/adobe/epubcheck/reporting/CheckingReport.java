@@ -6,20 +6,24 @@ import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.EpubCheck;
 import com.adobe.epubcheck.api.MasterReport;
+import com.adobe.epubcheck.api.Timing;
+import com.adobe.epubcheck.api.TimingListener;
 import com.adobe.epubcheck.messages.Message;
 import com.adobe.epubcheck.util.FeatureEnum;
 import com.adobe.epubcheck.util.JsonWriter;
 import com.adobe.epubcheck.util.PathUtil;
 import com.adobe.epubcheck.util.outWriter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public class CheckingReport extends MasterReport
+public class CheckingReport extends MasterReport implements TimingListener
 {
   @JsonProperty
   final CheckerMetadata checker;
@@ -33,10 +37,19 @@ public class CheckingReport extends MasterReport
   List<ItemMetadata> items = null;
 
   @JsonProperty
-  final List<CheckMessage> messages = new ArrayList<CheckMessage>();
+  final List<CheckMessage> messages = new CheckMessageList();
+
+  // only set when timings are reported
+  Map<String, TimingMetadata> timingIndex = null;
+
+  @JsonProperty
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  List<TimingMetadata> timings = null;
 
   final PrintWriter out;
 
+  private boolean hashes = true;
+
   public CheckingReport(PrintWriter out, String epubName)
   {
     this.checker = new CheckerMetadata();
@@ -136,6 +149,14 @@ public class CheckingReport extends MasterReport
     {
       m.sortLocations();
     }
+    if (timingIndex != null)
+    {
+      synchronized (timingIndex)
+      {
+        timings = new ArrayList<TimingMetadata>(timingIndex.values());
+      }
+      Collections.sort(timings);
+    }
 
   }
 
@@ -171,6 +192,54 @@ public class CheckingReport extends MasterReport
     }
   }
 
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    return hashes || feature != FeatureEnum.SHA_256;
+  }
+
+  /**
+   * Sets whether the SHA-256 hash of the container entries is computed and
+   * included in the report (default is <code>true</code>).
+   */
+  public void setHashes(boolean hashes)
+  {
+    this.hashes = hashes;
+  }
+
+  /**
+   * Sets whether the time spent in the validation phases and checks is
+   * included in the report (default is <code>false</code>). The timings are
+   * recorded when this report is also used as the
+   * {@link TimingListener} of the validation.
+   */
+  public void setTimings(boolean timings)
+  {
+    this.timingIndex = timings ? new LinkedHashMap<String, TimingMetadata>() : null;
+  }
+
+  @Override
+  public void timing(Timing timing)
+  {
+    if (timingIndex == null)
+    {
+      return;
+    }
+    // timings may be reported concurrently when resources are checked in
+    // parallel
+    synchronized (timingIndex)
+    {
+      String key = TimingMetadata.key(timing);
+      TimingMetadata metadata = timingIndex.get(key);
+      if (metadata == null)
+      {
+        metadata = new TimingMetadata(timing);
+        timingIndex.put(key, metadata);
+      }
+      metadata.add(timing);
+    }
+  }
+
   List<ItemMetadata> getItems()
   {
     if (this.items == null)
@@ -0,0 +1,185 @@
+package com.adobe.epubcheck.reporting;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.EpubCheck;
+import com.adobe.epubcheck.api.MasterReport;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.adobe.epubcheck.util.JsonWriter;
+import com.adobe.epubcheck.util.PathUtil;
+import com.adobe.epubcheck.util.outWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+/**
+ * A report writing newline-delimited JSON (NDJSON) records as the messages and
+ * features are reported, instead of building the whole report in memory.
+ * <p>
+ * Each line is a JSON object with a <code>type</code> property:
+ * </p>
+ * <ul>
+ * <li><code>message</code>: a reported message, with its ID, severity, text,
+ * location, and suggestion. Unlike {@link CheckingReport}, messages are not
+ * aggregated by ID and text.</li>
+ * <li><code>info</code>: a reported feature, with the resource it applies to
+ * (if any), the feature name and its value.</li>
+ * <li><code>summary</code>: the last record, with the checker metadata and the
+ * number of reported messages by severity.</li>
+ * </ul>
+ * <p>
+ * Records are written in batches, as the output buffers fill up. The output is
+ * also flushed when a record is written at least
+ * {@link #FLUSH_INTERVAL_MILLIS} milliseconds after the last flush, so that
+ * records of a long check are visible as it goes, and when the report is
+ * generated.
+ * </p>
+ */
+public class StreamingJsonReport extends MasterReport
+{
+  private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat(
+      "MM-dd-yyyy HH:mm:ss");
+
+  /**
+   * The maximum time between two flushes of the output, in milliseconds, as
+   * long as records are written.
+   */
+  public static final long FLUSH_INTERVAL_MILLIS = 1000;
+
+  private final PrintWriter out;
+  private final JsonGenerator generator;
+  private long lastFlush = System.nanoTime();
+  private Date startDate = new Date();
+  private boolean hashes = true;
+
+  public StreamingJsonReport(PrintWriter out, String epubName)
+  {
+    this.out = (out != null) ? out : new PrintWriter(System.out);
+    this.setEpubFileName(PathUtil.removeWorkingDirectory(epubName));
+    try
+    {
+      this.generator = JsonWriter.createJsonWriter(false).createGenerator(this.out);
+    } catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+    // one record per line
+    this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+  }
+
+  @Override
+  public void initialize()
+  {
+    this.startDate = new Date();
+  }
+
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    return hashes || feature != FeatureEnum.SHA_256;
+  }
+
+  /**
+   * Sets whether the SHA-256 hash of the container entries is computed and
+   * reported (default is <code>true</code>).
+   */
+  public void setHashes(boolean hashes)
+  {
+    this.hashes = hashes;
+  }
+
+  @Override
+  public synchronized void message(Message message, EPUBLocation location, Object... args)
+  {
+    try
+    {
+      generator.writeStartObject();
+      generator.writeStringField("type", "message");
+      generator.writeStringField("ID", message.getID().toString());
+      generator.writeObjectField("severity", message.getSeverity());
+      generator.writeStringField("message", message.getMessage(args));
+      generator.writeObjectField("location", location);
+      if (!"".equals(message.getSuggestion()))
+      {
+        generator.writeStringField("suggestion", message.getSuggestion());
+      }
+      generator.writeEndObject();
+      flushPeriodically();
+    } catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public synchronized void info(String resource, FeatureEnum feature, String value)
+  {
+    try
+    {
+      generator.writeStartObject();
+      generator.writeStringField("type", "info");
+      if (resource != null && !resource.isEmpty())
+      {
+        generator.writeStringField("resource", resource);
+      }
+      generator.writeStringField("feature", feature.toString());
+      generator.writeStringField("value", value);
+      generator.writeEndObject();
+      flushPeriodically();
+    } catch (IOException e)
+    {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void flushPeriodically()
+    throws IOException
+  {
+    long now = System.nanoTime();
+    if (now - lastFlush >= TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS))
+    {
+      generator.flush();
+      lastFlush = now;
+    }
+  }
+
+  @Override
+  public synchronized int generate()
+  {
+    Date stopDate = new Date();
+    try
+    {
+      generator.writeStartObject();
+      generator.writeStringField("type", "summary");
+      generator.writeStringField("path", getEpubFileName());
+      generator.writeStringField("checkerVersion", EpubCheck.version());
+      synchronized (DATE_FORMAT)
+      {
+        generator.writeStringField("checkDate", DATE_FORMAT.format(startDate));
+      }
+      generator.writeNumberField("elapsedTime", stopDate.getTime() - startDate.getTime());
+      generator.writeNumberField("nFatal", getFatalErrorCount());
+      generator.writeNumberField("nError", getErrorCount());
+      generator.writeNumberField("nWarning", getWarningCount());
+      generator.writeNumberField("nUsage", getUsageCount());
+      generator.writeNumberField("nInfo", getInfoCount());
+      generator.writeEndObject();
+      generator.flush();
+      out.println();
+      return 0;
+    } catch (IOException e)
+    {
+      outWriter.println("Could not write the NDJSON report.");
+      return 1;
+    } finally
+    {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package com.adobe.epubcheck.reporting;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.adobe.epubcheck.api.Timing;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The time spent in a validation phase or check, summed over its runs on a
+ * resource. It is intended to be serialized into json.
+ */
+@SuppressWarnings("FieldCanBeLocal")
+class TimingMetadata implements Comparable<TimingMetadata>
+{
+  @JsonProperty
+  private final String category;
+  @JsonProperty
+  private final String name;
+  @JsonProperty
+  private final String path;
+  @JsonProperty
+  private int count = 0;
+  @JsonProperty
+  private double wallTime = 0; // Wall time in milliseconds
+  @JsonProperty
+  private double cpuTime = -1; // CPU time in milliseconds, -1 if not measured
+  @JsonProperty
+  private long bytesRead = 0;
+
+  private long wallNanos = 0;
+  private long cpuNanos = -1;
+
+  TimingMetadata(Timing timing)
+  {
+    this.category = timing.getCategory().name().toLowerCase(Locale.ROOT);
+    this.name = timing.getName();
+    this.path = timing.getPath();
+  }
+
+  static String key(Timing timing)
+  {
+    return timing.getCategory() + "\u0000" + timing.getName() + "\u0000" + timing.getPath();
+  }
+
+  void add(Timing timing)
+  {
+    count++;
+    wallNanos += timing.getWallTime(TimeUnit.NANOSECONDS);
+    long cpu = timing.getCpuTime(TimeUnit.NANOSECONDS);
+    if (cpu >= 0)
+    {
+      cpuNanos = Math.max(cpuNanos, 0) + cpu;
+    }
+    bytesRead += timing.getBytesRead();
+    wallTime = toMillis(wallNanos);
+    cpuTime = (cpuNanos < 0) ? -1 : toMillis(cpuNanos);
+  }
+
+  private static double toMillis(long nanos)
+  {
+    return Math.round(nanos / 1000.0) / 1000.0;
+  }
+
+  /**
+   * Orders by decreasing wall time, so that the most expensive checks come
+   * first.
+   */
+  @Override
+  public int compareTo(TimingMetadata o)
+  {
+    int result = Long.compare(o.wallNanos, this.wallNanos);
+    if (result == 0) result = category.compareTo(o.category);
+    if (result == 0) result = name.compareTo(o.name);
+    if (result == 0) result = path.compareTo(o.path);
+    return result;
+  }
+}
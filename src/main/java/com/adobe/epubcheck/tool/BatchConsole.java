@@ -0,0 +1,151 @@
+package com.adobe.epubcheck.tool;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Buffers the console output of the publications checked concurrently in a
+ * batch, so that the output of each publication is printed in one piece when
+ * its check completes, instead of being interleaved line by line with the
+ * output of the other publications.
+ * <p>
+ * While installed, {@link System#out} and {@link System#err} are replaced by
+ * streams that write to the buffer of the current thread, if it runs a task
+ * (see {@link #run(Callable)}), or to the original streams otherwise. The
+ * relative order of the standard output and error is kept.
+ * </p>
+ */
+final class BatchConsole implements AutoCloseable
+{
+
+  private final PrintStream out;
+  private final PrintStream err;
+  private final ThreadLocal<List<Chunk>> buffers = new ThreadLocal<>();
+
+  private BatchConsole(PrintStream out, PrintStream err)
+  {
+    this.out = out;
+    this.err = err;
+  }
+
+  /**
+   * Replaces the standard output and error streams until the returned console
+   * is closed.
+   */
+  static BatchConsole install()
+  {
+    BatchConsole console = new BatchConsole(System.out, System.err);
+    System.setOut(new PrintStream(console.new ThreadOutputStream(false), true));
+    System.setErr(new PrintStream(console.new ThreadOutputStream(true), true));
+    return console;
+  }
+
+  /**
+   * Runs the given task on the current thread, buffering its console output,
+   * and prints the output once the task completes.
+   */
+  <T> T run(Callable<T> task)
+    throws Exception
+  {
+    buffers.set(new ArrayList<>());
+    try
+    {
+      return task.call();
+    } finally
+    {
+      List<Chunk> buffer = buffers.get();
+      buffers.remove();
+      print(buffer);
+    }
+  }
+
+  private void print(List<Chunk> buffer)
+  {
+    // one task output at a time
+    synchronized (this)
+    {
+      for (Chunk chunk : buffer)
+      {
+        PrintStream stream = chunk.isError ? err : out;
+        stream.write(chunk.bytes.toByteArray(), 0, chunk.bytes.size());
+      }
+      out.flush();
+      err.flush();
+    }
+  }
+
+  /**
+   * Restores the original standard output and error streams.
+   */
+  @Override
+  public void close()
+  {
+    System.setOut(out);
+    System.setErr(err);
+  }
+
+  /**
+   * A sequence of bytes written to the same stream.
+   */
+  private static final class Chunk
+  {
+    private final boolean isError;
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    private Chunk(boolean isError)
+    {
+      this.isError = isError;
+    }
+  }
+
+  private final class ThreadOutputStream extends OutputStream
+  {
+    private final boolean isError;
+
+    private ThreadOutputStream(boolean isError)
+    {
+      this.isError = isError;
+    }
+
+    @Override
+    public void write(int b)
+      throws IOException
+    {
+      write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len)
+      throws IOException
+    {
+      List<Chunk> buffer = buffers.get();
+      if (buffer == null)
+      {
+        (isError ? err : out).write(bytes, off, len);
+        return;
+      }
+      Chunk last = buffer.isEmpty() ? null : buffer.get(buffer.size() - 1);
+      if (last == null || last.isError != isError)
+      {
+        last = new Chunk(isError);
+        buffer.add(last);
+      }
+      last.bytes.write(bytes, off, len);
+    }
+
+    @Override
+    public void flush()
+      throws IOException
+    {
+      if (buffers.get() == null)
+      {
+        (isError ? err : out).flush();
+      }
+    }
+  }
+}
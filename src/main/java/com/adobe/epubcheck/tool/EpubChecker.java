@@ -23,26 +23,52 @@
 
 package com.adobe.epubcheck.tool;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.w3c.epubcheck.core.Checker;
+import org.w3c.epubcheck.core.LimitedReport;
 import org.w3c.epubcheck.util.url.URLUtils;
 
+import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.EPUBProfile;
 import com.adobe.epubcheck.api.EpubCheck;
 import com.adobe.epubcheck.api.EpubCheckFactory;
 import com.adobe.epubcheck.api.LocalizableReport;
+import com.adobe.epubcheck.api.MessageLimits;
 import com.adobe.epubcheck.api.Report;
+import com.adobe.epubcheck.api.TimingListener;
 import com.adobe.epubcheck.messages.MessageDictionaryDumper;
+import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.nav.NavChecker;
 import com.adobe.epubcheck.opf.OPFChecker;
 import com.adobe.epubcheck.opf.OPFChecker30;
@@ -51,6 +77,7 @@ import com.adobe.epubcheck.opf.ValidationContext.ValidationContextBuilder;
 import com.adobe.epubcheck.ops.OPSChecker;
 import com.adobe.epubcheck.overlay.OverlayChecker;
 import com.adobe.epubcheck.reporting.CheckingReport;
+import com.adobe.epubcheck.reporting.StreamingJsonReport;
 import com.adobe.epubcheck.util.Archive;
 import com.adobe.epubcheck.util.DefaultReportImpl;
 import com.adobe.epubcheck.util.EPUBVersion;
@@ -88,6 +115,7 @@ public class EpubChecker
   boolean jsonOutput = false;
   boolean xmlOutput = false;
   boolean xmpOutput = false;
+  boolean ndjsonOutput = false;
   File fileOut;
   File listChecksOut;
   File customMessageFile;
@@ -96,6 +124,14 @@ public class EpubChecker
   boolean displayVersion = false;
   boolean useCustomMessageFile = false;
   boolean failOnWarnings = false;
+  int threads = 1;
+  boolean hashes = true;
+  boolean timings = false;
+  MessageLimits messageLimits = MessageLimits.NONE;
+  String batchSource = null;
+  int jobs = 1;
+  int serverPort = -1;
+  File serverRoot = null;
   private Messages messages = Messages.getInstance();
   private Locale locale = Locale.getDefault();
   
@@ -103,6 +139,8 @@ public class EpubChecker
 
   private static final HashMap<OPSType, String> modeMimeTypeMap;
   private static final String EPUBCHECK_CUSTOM_MESSAGE_FILE = "ePubCheckCustomMessageFile";
+  // number of jobs waiting in the validation server queue, per worker
+  private static final int SERVER_QUEUE_PER_WORKER = 16;
 
   static
   {
@@ -133,10 +171,18 @@ public class EpubChecker
     {
       if (processArguments(args))
       {
-        if (displayHelp || (displayVersion && path == null))
+        if (displayHelp || (displayVersion && path == null && batchSource == null && serverPort < 0))
         {
           return 0;
         }
+        if (serverPort >= 0)
+        {
+          return runServer();
+        }
+        if (batchSource != null && !listChecks)
+        {
+          return processBatch();
+        }
         report = createReport();
         report.initialize();
         if (listChecks)
@@ -144,16 +190,7 @@ public class EpubChecker
           dumpMessageDictionary(report);
           return 0;
         }
-        if (useCustomMessageFile)
-        {
-          report.setCustomMessageFile(customMessageFile.getAbsolutePath());
-        }
-        returnValue = processFile(report);
-        int returnValue2 = report.generate();
-        if (returnValue == 0)
-        {
-          returnValue = returnValue2;
-        }
+        returnValue = checkPublication(report);
       }
     } catch (Exception ignored)
     {
@@ -163,9 +200,357 @@ public class EpubChecker
       if (report != null) {
         printEpubCheckCompleted(report);
       }
+      outWriter.setQuiet(false);
     }
     return returnValue;  
   }
+
+  /**
+   * Checks the publication at {@link #path} and generates its report.
+   */
+  private int checkPublication(Report report)
+  {
+    if (useCustomMessageFile)
+    {
+      report.setCustomMessageFile(customMessageFile.getAbsolutePath());
+    }
+    int returnValue = processFile(report);
+    int returnValue2 = report.generate();
+    if (returnValue == 0)
+    {
+      returnValue = returnValue2;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Checks all the publications found from the {@link #batchSource}, using
+   * at most {@link #jobs} threads, and prints a summary at the end.
+   * <p>
+   * All the publications are checked in the same JVM, so that the schemas,
+   * localized messages and other static resources are only loaded once. The
+   * schemas are compiled up front when there are several publications.
+   * </p>
+   */
+  private int processBatch()
+  {
+    List<String> paths;
+    try
+    {
+      paths = listBatchPaths(batchSource);
+    } catch (IOException | RuntimeException e)
+    {
+      System.err.println(String.format(messages.get("batch_source_error"), batchSource));
+      return 1;
+    }
+
+    Map<String, File> reportFiles = null;
+    if (jsonOutput || xmlOutput || xmpOutput || ndjsonOutput)
+    {
+      try
+      {
+        reportFiles = getBatchReportFiles(paths, fileOut,
+            jsonOutput ? "check.json"
+                : xmlOutput ? "check.xml" : ndjsonOutput ? "check.ndjson" : "check.xmp");
+      } catch (IllegalArgumentException e)
+      {
+        System.err.println(String.format(messages.get("batch_report_conflict"), e.getMessage()));
+        return 1;
+      }
+    }
+
+    // schemas are compiled lazily, once per JVM, by the first check using them
+    ExecutorService executor = Executors.newFixedThreadPool(jobs);
+    // the console output of concurrent checks is printed per publication
+    BatchConsole console = (jobs > 1) ? BatchConsole.install() : null;
+    try
+    {
+      List<Future<Report>> results = new ArrayList<>();
+      for (final String publication : paths)
+      {
+        final EpubChecker checker = copyFor(publication,
+            (reportFiles != null) ? reportFiles.get(publication) : null);
+        results.add(executor.submit(() -> (console != null) ? console.run(checker::checkInBatch)
+            : checker.checkInBatch()));
+      }
+      int valid = 0, withWarnings = 0, withErrors = 0;
+      for (Future<Report> result : results)
+      {
+        Report report;
+        try
+        {
+          report = result.get();
+        } catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+          return 1;
+        } catch (ExecutionException e)
+        {
+          report = null;
+        }
+        if (report == null || report.getFatalErrorCount() + report.getErrorCount() > 0)
+        {
+          withErrors++;
+        }
+        else if (report.getWarningCount() > 0)
+        {
+          withWarnings++;
+        }
+        else
+        {
+          valid++;
+        }
+      }
+      outWriter.println(String.format(messages.get("batch_summary"), paths.size(), valid,
+          withWarnings, withErrors));
+      return (withErrors > 0 || failOnWarnings && withWarnings > 0) ? 1 : 0;
+    } finally
+    {
+      executor.shutdownNow();
+      if (console != null)
+      {
+        console.close();
+      }
+    }
+  }
+
+  /**
+   * Runs a validation server on the {@link #serverPort}, using {@link #jobs}
+   * workers, until the JVM is shut down.
+   */
+  private int runServer()
+  {
+    final ValidationServer server;
+    try
+    {
+      server = new ValidationServer(serverPort, jobs, SERVER_QUEUE_PER_WORKER * jobs);
+      server.setRootDirectory(serverRoot);
+    } catch (IOException e)
+    {
+      System.err.println(String.format(messages.get("server_error"), e.getMessage()));
+      return 1;
+    }
+    final CountDownLatch stopped = new CountDownLatch(1);
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.stop(1);
+      stopped.countDown();
+    }));
+    server.start();
+    outWriter.println(String.format(messages.get("server_started"), server.getPort()));
+    try
+    {
+      stopped.await();
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    return 0;
+  }
+
+  /**
+   * Checks the publication at {@link #path}, as one of the publications of a
+   * batch.
+   *
+   * @return the publication report, or <code>null</code> if the publication
+   *         could not be checked
+   */
+  private Report checkInBatch()
+  {
+    Report report = null;
+    try
+    {
+      report = createReport();
+      report.initialize();
+      if (checkPublication(report) != 0 && report.getFatalErrorCount()
+          + report.getErrorCount() + report.getWarningCount() == 0)
+      {
+        // the check failed without reporting messages (e.g. file not found)
+        return null;
+      }
+      return report;
+    } catch (Exception e)
+    {
+      return null;
+    } finally
+    {
+      if (report != null)
+      {
+        printEpubCheckCompleted(report);
+      }
+    }
+  }
+
+  /**
+   * Returns a copy of this checker's options, configured to check the given
+   * publication of a batch.
+   *
+   * @param reportFile
+   *          the report file of the publication, or <code>null</code> if
+   *          the report is printed to the console
+   */
+  private EpubChecker copyFor(String publication, File reportFile)
+  {
+    EpubChecker copy = new EpubChecker();
+    copy.path = publication.replace('\\', '/');
+    copy.mode = mode;
+    copy.expanded = expanded;
+    if (copy.path.matches(".+\\.[Ee][Pp][Uu][Bb]"))
+    {
+      copy.mode = null;
+      copy.expanded = false;
+    }
+    copy.profile = profile;
+    copy.version = version;
+    copy.keep = keep;
+    copy.jsonOutput = jsonOutput;
+    copy.xmlOutput = xmlOutput;
+    copy.xmpOutput = xmpOutput;
+    copy.ndjsonOutput = ndjsonOutput;
+    if (reportFile != null)
+    {
+      reportFile.getParentFile().mkdirs();
+      copy.fileOut = reportFile;
+    }
+    copy.customMessageFile = customMessageFile;
+    copy.useCustomMessageFile = useCustomMessageFile;
+    copy.failOnWarnings = failOnWarnings;
+    copy.threads = threads;
+    copy.hashes = hashes;
+    copy.timings = timings;
+    copy.messageLimits = messageLimits;
+    copy.messages = messages;
+    copy.locale = locale;
+    copy.reportingLevel = reportingLevel;
+    return copy;
+  }
+
+  /**
+   * Returns the report file of each publication of a batch. The reports are
+   * created next to the publications, or in the given directory, where they are
+   * named after the path of the publication relative to the closest common
+   * parent directory of the publications. This way, publications with the same
+   * name in different directories get different reports.
+   *
+   * @param publications
+   *          the paths of the publications
+   * @param directory
+   *          the directory of the reports, or <code>null</code> to create the
+   *          reports next to the publications
+   * @param suffix
+   *          the suffix appended to the publication name to get the report
+   *          name
+   * @throws IllegalArgumentException
+   *           if two publications would share the same report file (e.g. when
+   *           a publication is listed twice), with the file path as message
+   */
+  static Map<String, File> getBatchReportFiles(List<String> publications, File directory,
+      String suffix)
+  {
+    List<Path> absolutePaths = publications.stream()
+        .map(path -> Paths.get(path).toAbsolutePath().normalize()).collect(Collectors.toList());
+    Path root = null;
+    if (directory != null && !absolutePaths.isEmpty())
+    {
+      root = absolutePaths.get(0).getParent();
+      for (Path path : absolutePaths)
+      {
+        while (root != null && !path.startsWith(root))
+        {
+          root = root.getParent();
+        }
+      }
+      if (root == null)
+      {
+        // no common parent (e.g. on different drives)
+        throw new IllegalArgumentException(directory.getPath());
+      }
+    }
+    Map<String, File> reportFiles = new LinkedHashMap<>();
+    Set<File> created = new HashSet<>();
+    for (int i = 0; i < publications.size(); i++)
+    {
+      Path path = absolutePaths.get(i);
+      File reportFile = (directory == null)
+          ? new File(path.getParent().toFile(), path.getFileName() + suffix)
+          : new File(directory, root.relativize(path) + suffix);
+      if (!created.add(reportFile))
+      {
+        throw new IllegalArgumentException(reportFile.getPath());
+      }
+      reportFiles.put(publications.get(i), reportFile);
+    }
+    return reportFiles;
+  }
+
+  /**
+   * Lists the paths of the publications to check in batch mode.
+   *
+   * @param source
+   *          <code>-</code> to read paths from the standard input (one per
+   *          line), the path to a text file listing the paths (one per line),
+   *          the path to a directory containing EPUB files (searched
+   *          recursively), or a glob pattern matching the paths
+   */
+  static List<String> listBatchPaths(String source)
+    throws IOException
+  {
+    if ("-".equals(source))
+    {
+      BufferedReader reader = new BufferedReader(
+          new InputStreamReader(System.in, StandardCharsets.UTF_8));
+      return readBatchPaths(reader.lines());
+    }
+    Path sourcePath;
+    try
+    {
+      sourcePath = Paths.get(source);
+    } catch (InvalidPathException e)
+    {
+      sourcePath = null;
+    }
+    if (sourcePath != null && Files.isDirectory(sourcePath))
+    {
+      try (Stream<Path> files = Files.walk(sourcePath))
+      {
+        return files
+            .filter(file -> Files.isRegularFile(file)
+                && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".epub"))
+            .map(Path::toString).sorted().collect(Collectors.toList());
+      }
+    }
+    else if (sourcePath != null && Files.isRegularFile(sourcePath))
+    {
+      try (Stream<String> lines = Files.lines(sourcePath, StandardCharsets.UTF_8))
+      {
+        return readBatchPaths(lines);
+      }
+    }
+    else
+    {
+      // the source is a glob pattern, relative to its longest literal parent
+      Matcher globMatch = Pattern.compile("^((?:[^*?\\[{]*/)?)(.*)$").matcher(source);
+      globMatch.matches();
+      Path base = Paths.get(globMatch.group(1).isEmpty() ? "." : globMatch.group(1));
+      PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + globMatch.group(2));
+      if (!Files.isDirectory(base))
+      {
+        throw new IOException("Not found: " + source);
+      }
+      try (Stream<Path> files = Files.walk(base))
+      {
+        return files.filter(file -> matcher.matches(base.relativize(file)))
+            .map(file -> globMatch.group(1).isEmpty() ? base.relativize(file).toString()
+                : file.toString())
+            .sorted().collect(Collectors.toList());
+      }
+    }
+  }
+
+  private static List<String> readBatchPaths(Stream<String> lines)
+  {
+    return lines.map(String::trim).filter(line -> !line.isEmpty())
+        .collect(Collectors.toList());
+  }
   @Deprecated
   public int processEpubFile(String[] args)
   {
@@ -206,9 +591,13 @@ public class EpubChecker
 
     OPSType opsType = new OPSType(mode, version);
 
+    LimitedReport limitedReport = messageLimits.isEmpty() ? null
+        : new LimitedReport(report, messageLimits);
     ValidationContext context = new ValidationContextBuilder().url(url)
-        .report(report).resourceProvider(resourceProvider).mimetype(modeMimeTypeMap.get(opsType))
-        .version(version).profile(profile).build();
+        .report(report).limitedReport(limitedReport).resourceProvider(resourceProvider)
+        .mimetype(modeMimeTypeMap.get(opsType)).version(version).profile(profile).threads(threads)
+        .timingListener((timings && report instanceof TimingListener) ? (TimingListener) report : null)
+        .build();
     
     Checker checker = null;
     if (mode == null) {
@@ -251,9 +640,14 @@ public class EpubChecker
     if (checker.getClass() == EpubCheck.class)
     {
       int validationResult = ((EpubCheck) checker).doValidate();
+      if ((validationResult & 8) != 0)
+      {
+        System.err.println(messages.get("check_stopped"));
+        return 2;
+      }
       if (validationResult == 0)
       {
-        if (!((jsonOutput||xmlOutput||xmpOutput) && fileOut==null)) {
+        if (!((jsonOutput||xmlOutput||xmpOutput||ndjsonOutput) && fileOut==null)) {
           outWriter.println(messages.get("no_errors__or_warnings"));
         }
         return 0;
@@ -269,9 +663,15 @@ public class EpubChecker
     else
     {
       checker.check();
+      if (limitedReport != null && limitedReport.isLimitReached())
+      {
+        report.message(MessageId.CHK_009, EPUBLocation.of(context), limitedReport.getLimitReached());
+        System.err.println(messages.get("check_stopped"));
+        return 2;
+      }
       if (report.getWarningCount() == 0 && report.getFatalErrorCount() == 0 && report.getErrorCount() == 0)
       {
-        if (!((jsonOutput||xmlOutput||xmpOutput) && fileOut==null)) {
+        if (!((jsonOutput||xmlOutput||xmpOutput||ndjsonOutput) && fileOut==null)) {
           outWriter.println(messages.get("no_errors__or_warnings"));
         }
         return 0;
@@ -296,7 +696,7 @@ public class EpubChecker
     report.info(null, FeatureEnum.TOOL_VERSION, EpubCheck.version());
     report.info(null, FeatureEnum.TOOL_DATE, EpubCheck.buildDate());
     int result = 0;
-    Archive epub = null;
+    String expandedPath = null;
 
     try
     {
@@ -304,25 +704,14 @@ public class EpubChecker
       {
         // check existance of path (fix #525)
         File f = new File(path);
-        if (!f.exists())
+        if (!f.exists() || !f.isDirectory())
         {
           System.err.println(String.format(messages.get("directory_not_found"), path));
           return 1;
         }
-
-        try
-        {
-          epub = new Archive(path, true);
-          epub.createArchive();
-          report.setEpubFileName(epub.getEpubFile().getAbsolutePath());
-          path = epub.getEpubFile().getAbsolutePath();
-          mode = null;
-        } catch (RuntimeException ex)
-        {
-          System.err.println(messages.get("there_were_errors"));
-          return 1;
-        }
-
+        // the directory is validated in place, as an expanded container
+        expandedPath = path;
+        mode = null;
       }
     if (mode != null)
     {
@@ -330,16 +719,23 @@ public class EpubChecker
           String.format(messages.get("single_file"), mode, version.toString(), profile));
     }
     result = validateFile(path, version, report, profile);
-      if (expanded && epub!=null)
+      if (expanded && keep)
       {
-        if (!keep || (report.getErrorCount() > 0) || (report.getFatalErrorCount() > 0))
+        if ((report.getErrorCount() > 0) || (report.getFatalErrorCount() > 0))
+        {
+          // Notify that the archive is not created due to failures
+          System.err.println(messages.get("deleting_archive"));
+        }
+        else
         {
-          if (keep && ((report.getErrorCount() > 0) || (report.getFatalErrorCount() > 0)))
+          try
           {
-            // Notify if we are deleting for failures
-            System.err.println(messages.get("deleting_archive"));
+            new Archive(expandedPath, true).createArchive();
+          } catch (RuntimeException ex)
+          {
+            System.err.println(messages.get("there_were_errors"));
+            return 1;
           }
-          epub.deleteEpubFile();
         }
       }
 
@@ -394,7 +790,6 @@ public class EpubChecker
       }
     }
     outWriter.println(messages.get("epubcheck_completed"));
-    outWriter.setQuiet(false);
   }
 
   private void dumpMessageDictionary(Report report)
@@ -442,7 +837,7 @@ public class EpubChecker
     {
       report = new DefaultReportImpl("none");
     }
-    else if (jsonOutput | xmpOutput | xmlOutput)
+    else if (jsonOutput | xmpOutput | xmlOutput | ndjsonOutput)
     {
       PrintWriter pw = null;
       if (fileOut == null)
@@ -457,8 +852,15 @@ public class EpubChecker
         report = new XmlReportImpl(pw, path, EpubCheck.version());
       } else if (xmpOutput) {
         report = new XmpReportImpl(pw, path, EpubCheck.version());
+      } else if (ndjsonOutput) {
+        StreamingJsonReport streamingReport = new StreamingJsonReport(pw, path);
+        streamingReport.setHashes(hashes);
+        report = streamingReport;
       } else {
-        report = new CheckingReport(pw, path);
+        CheckingReport checkingReport = new CheckingReport(pw, path);
+        checkingReport.setHashes(hashes);
+        checkingReport.setTimings(timings);
+        report = checkingReport;
       }
     }
     else
@@ -578,6 +980,11 @@ public class EpubChecker
                 fileOut = null;
                 i++;
               }
+              else if (path == null)
+              {
+                // in batch mode, reports are created next to each publication
+                fileOut = null;
+              }
               else
               {
                 File pathFile = new File(path);
@@ -604,6 +1011,11 @@ public class EpubChecker
                 fileOut = null;
                 i++;
               }
+              else if (path == null)
+              {
+                // in batch mode, reports are created next to each publication
+                fileOut = null;
+              }
               else
               {
                 File pathFile = new File(path);
@@ -619,6 +1031,36 @@ public class EpubChecker
               }
               jsonOutput = true;
             break;
+          case "ndjson":
+              if ((args.length > (i + 1)) && !(args[i + 1].startsWith("-")))
+              {
+                fileOut = new File(args[++i]);
+              }
+              else if ((args.length > (i + 1)) && (args[i + 1].equalsIgnoreCase("-")))
+              {
+                fileOut = null;
+                i++;
+              }
+              else if (path == null)
+              {
+                // in batch mode, reports are created next to each publication
+                fileOut = null;
+              }
+              else
+              {
+                File pathFile = new File(path);
+                if (pathFile.isDirectory())
+                {
+                  fileOut = new File(pathFile.getAbsoluteFile().getParentFile(), pathFile.getName()
+                      + "check.ndjson");
+                }
+                else
+                {
+                  fileOut = new File(path + "check.ndjson");
+                }
+              }
+              ndjsonOutput = true;
+            break;
           case "x":
           case "xmp":
               if ((args.length > (i + 1)) && !(args[i + 1].startsWith("-")))
@@ -630,6 +1072,11 @@ public class EpubChecker
                 fileOut = null;
                 i++;
               }
+              else if (path == null)
+              {
+                // in batch mode, reports are created next to each publication
+                fileOut = null;
+              }
               else
               {
                 File pathFile = new File(path);
@@ -672,6 +1119,141 @@ public class EpubChecker
           case "failonwarnings":
               failOnWarnings = true;
             break;
+          case "batch":
+              if (i + 1 < args.length)
+              {
+                batchSource = args[++i];
+              }
+              else
+              {
+                System.err.println(messages.get("missing_batch"));
+                displayHelp();
+                return false;
+              }
+            break;
+          case "jobs":
+              if (i + 1 < args.length)
+              {
+                String jobsStr = args[++i];
+                try
+                {
+                  jobs = Integer.parseInt(jobsStr);
+                } catch (NumberFormatException e)
+                {
+                  jobs = 0;
+                }
+                if (jobs < 1)
+                {
+                  System.err.println(String.format(messages.get("incorrect_jobs"), jobsStr));
+                  displayHelp();
+                  return false;
+                }
+              }
+              else
+              {
+                System.err.println(messages.get("missing_jobs"));
+                displayHelp();
+                return false;
+              }
+            break;
+          case "server":
+              if (i + 1 < args.length)
+              {
+                String portStr = args[++i];
+                try
+                {
+                  serverPort = Integer.parseInt(portStr);
+                } catch (NumberFormatException e)
+                {
+                  serverPort = -1;
+                }
+                if (serverPort < 0 || serverPort > 65535)
+                {
+                  System.err.println(String.format(messages.get("incorrect_port"), portStr));
+                  displayHelp();
+                  return false;
+                }
+              }
+              else
+              {
+                System.err.println(messages.get("missing_port"));
+                displayHelp();
+                return false;
+              }
+            break;
+          case "server-root":
+              if (i + 1 < args.length)
+              {
+                serverRoot = new File(args[++i]);
+                if (!serverRoot.isDirectory())
+                {
+                  System.err.println(String.format(messages.get("incorrect_server_root"), args[i]));
+                  displayHelp();
+                  return false;
+                }
+              }
+              else
+              {
+                System.err.println(messages.get("missing_server_root"));
+                displayHelp();
+                return false;
+              }
+            break;
+          case "nohash":
+            hashes = false;
+            break;
+          case "timings":
+            timings = true;
+            break;
+          case "fail-fast":
+            messageLimits = MessageLimits.failFast();
+            break;
+          case "max-messages":
+              if (i + 1 < args.length)
+              {
+                String limitsStr = args[++i];
+                try
+                {
+                  messageLimits = MessageLimits.parse(limitsStr);
+                } catch (IllegalArgumentException e)
+                {
+                  System.err.println(String.format(messages.get("incorrect_max_messages"), limitsStr));
+                  displayHelp();
+                  return false;
+                }
+              }
+              else
+              {
+                System.err.println(messages.get("missing_max_messages"));
+                displayHelp();
+                return false;
+              }
+            break;
+          case "threads":
+              if (i + 1 < args.length)
+              {
+                String threadsStr = args[++i];
+                try
+                {
+                  threads = Integer.parseInt(threadsStr);
+                } catch (NumberFormatException e)
+                {
+                  threads = 0;
+                }
+                if (threads < 1)
+                {
+                  System.err.println(String.format(messages.get("incorrect_threads"), threadsStr));
+                  displayHelp();
+                  return false;
+                }
+              }
+              else
+              {
+                System.err.println(messages.get("missing_threads"));
+                displayHelp();
+                return false;
+              }
+            break;
           case "r":
           case "redir":
               if (i + 1 < args.length)
@@ -778,7 +1360,7 @@ public class EpubChecker
 
     }
 
-    if ((xmlOutput && xmpOutput) || (xmlOutput && jsonOutput) || (xmpOutput && jsonOutput))
+    if ((xmlOutput ? 1 : 0) + (xmpOutput ? 1 : 0) + (jsonOutput ? 1 : 0) + (ndjsonOutput ? 1 : 0) > 1)
     {
       System.err.println(messages.get("output_type_conflict"));
       return false;
@@ -800,7 +1382,20 @@ public class EpubChecker
       path = sb.toString();
     }
 
-    if (path == null)
+    if (serverPort >= 0)
+    {
+      return true;
+    }
+    else if (batchSource != null)
+    {
+      if (path != null)
+      {
+        System.err.println(messages.get("batch_path_conflict"));
+        return false;
+      }
+      return true;
+    }
+    else if (path == null)
     {
       if (listChecks || displayHelp || displayVersion)
       {
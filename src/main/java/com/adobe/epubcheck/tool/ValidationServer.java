@@ -0,0 +1,476 @@
+package com.adobe.epubcheck.tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.adobe.epubcheck.api.EpubCheck;
+import com.adobe.epubcheck.reporting.CheckingReport;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.adobe.epubcheck.util.JsonWriter;
+import com.adobe.epubcheck.xml.XMLValidators;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A long-running validation server, accepting validation jobs over HTTP on the
+ * loopback interface, and returning the JSON report of each job.
+ * <p>
+ * The server exposes the following endpoints:
+ * </p>
+ * <ul>
+ * <li><code>POST /check?path=&lt;file&gt;</code> checks the EPUB file (or
+ * expanded directory) at the given local path, relative to the root directory.
+ * Local paths are rejected with a <code>403</code> status code unless a root
+ * directory is set (see {@link #setRootDirectory(File)}).</li>
+ * <li><code>POST /check[?name=&lt;name&gt;]</code> checks the EPUB uploaded as
+ * the request body, in memory.</li>
+ * <li><code>GET /health</code> returns the server status.</li>
+ * <li><code>GET /metrics</code> returns the job counters.</li>
+ * </ul>
+ * <p>
+ * Jobs are run by a bounded pool of workers. When all the workers are busy,
+ * jobs are queued up to the queue capacity, and rejected with a
+ * <code>503</code> status code beyond that. Uploads larger than the maximum
+ * upload size (see {@link #setMaxUploadSize(long)}) are rejected with a
+ * <code>413</code> status code. A request whose body is not fully received
+ * within the read timeout is dropped, so that a slow upload does not hold a
+ * worker indefinitely; the timeout is set with the JDK HTTP server property
+ * <code>sun.net.httpserver.maxReqTime</code> (in seconds, defaulting to
+ * {@link #DEFAULT_READ_TIMEOUT}), when the server class is first loaded.
+ * </p>
+ */
+public final class ValidationServer
+{
+
+  /**
+   * The default maximum size of an uploaded EPUB, in bytes.
+   */
+  public static final long DEFAULT_MAX_UPLOAD_SIZE = 256L * 1024 * 1024;
+
+  /**
+   * The default time allowed to receive a request, in seconds.
+   */
+  public static final long DEFAULT_READ_TIMEOUT = 60;
+
+  // number of exchange threads in addition to those waiting for a job, to
+  // answer the health and metrics requests and to reject jobs
+  private static final int EXTRA_EXCHANGE_THREADS = 4;
+
+  static
+  {
+    // read by the JDK HTTP server when it is first used
+    if (System.getProperty("sun.net.httpserver.maxReqTime") == null)
+    {
+      System.setProperty("sun.net.httpserver.maxReqTime", Long.toString(DEFAULT_READ_TIMEOUT));
+    }
+  }
+
+  private final HttpServer server;
+  private final ThreadPoolExecutor workers;
+  private final ExecutorService exchanges;
+  private final int queueCapacity;
+  private volatile long maxUploadSize = DEFAULT_MAX_UPLOAD_SIZE;
+  private volatile File rootDirectory = null;
+
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong badRequests = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong totalTime = new AtomicLong();
+
+  /**
+   * Creates a validation server, which is not started yet.
+   *
+   * @param port
+   *          the port to listen to on the loopback interface, <code>0</code>
+   *          to use an ephemeral port
+   * @param workers
+   *          the number of jobs run concurrently
+   * @param queueCapacity
+   *          the maximum number of jobs waiting for a worker
+   * @throws IOException
+   *           if the server cannot be bound to the port
+   */
+  public ValidationServer(int port, int workers, int queueCapacity)
+    throws IOException
+  {
+    Preconditions.checkArgument(workers > 0, "workers must be positive");
+    Preconditions.checkArgument(queueCapacity >= 0, "queue capacity must not be negative");
+    this.queueCapacity = queueCapacity;
+    this.workers = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+        (queueCapacity > 0) ? new ArrayBlockingQueue<>(queueCapacity)
+            : new SynchronousQueue<>());
+    // each queued or running job holds an exchange thread until it completes
+    int exchangeThreads = workers + queueCapacity + EXTRA_EXCHANGE_THREADS;
+    ThreadPoolExecutor exchanges = new ThreadPoolExecutor(exchangeThreads, exchangeThreads, 1L,
+        TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+    exchanges.allowCoreThreadTimeOut(true);
+    this.exchanges = exchanges;
+    this.server = HttpServer
+        .create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+    this.server.setExecutor(exchanges);
+    this.server.createContext("/check", this::handleCheck);
+    this.server.createContext("/health", this::handleHealth);
+    this.server.createContext("/metrics", this::handleMetrics);
+  }
+
+  /**
+   * Sets the maximum size of an uploaded EPUB, in bytes. Uploads are checked in
+   * memory, so this bounds the memory used by each job.
+   */
+  public void setMaxUploadSize(long maxUploadSize)
+  {
+    Preconditions.checkArgument(maxUploadSize > 0, "max upload size must be positive");
+    this.maxUploadSize = maxUploadSize;
+  }
+
+  /**
+   * Sets the directory under which local files can be checked with the
+   * <code>path</code> parameter (relative paths are resolved against it), or
+   * <code>null</code> to reject local paths, which is the default. Any local
+   * process can send jobs to the server, so this should only give access to
+   * files they are allowed to check.
+   *
+   * @throws IOException
+   *           if the canonical path of the directory cannot be resolved
+   */
+  public void setRootDirectory(File rootDirectory)
+    throws IOException
+  {
+    Preconditions.checkArgument(rootDirectory == null || rootDirectory.isDirectory(),
+        "root is not a directory");
+    this.rootDirectory = (rootDirectory != null) ? rootDirectory.getCanonicalFile() : null;
+  }
+
+  /**
+   * Compiles all the schemas, so that the first jobs don't pay for it, and
+   * starts accepting jobs.
+   */
+  public void start()
+  {
+    XMLValidators.precompile();
+    server.start();
+  }
+
+  /**
+   * Stops accepting jobs, and waits at most the given delay (in seconds) for
+   * the current jobs to complete.
+   */
+  public void stop(int delay)
+  {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(delay);
+    server.stop(delay);
+    workers.shutdown();
+    exchanges.shutdown();
+    try
+    {
+      if (workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS))
+      {
+        exchanges.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    } finally
+    {
+      workers.shutdownNow();
+      exchanges.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns the port the server listens to.
+   */
+  public int getPort()
+  {
+    return server.getAddress().getPort();
+  }
+
+  private void handleCheck(HttpExchange exchange)
+    throws IOException
+  {
+    try
+    {
+      if (!"POST".equals(exchange.getRequestMethod()))
+      {
+        sendError(exchange, 405, "Method not allowed");
+        return;
+      }
+      Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+      final File file;
+      if (query.containsKey("path"))
+      {
+        File root = rootDirectory;
+        if (root == null)
+        {
+          badRequests.incrementAndGet();
+          sendError(exchange, 403, "Local paths are not allowed");
+          return;
+        }
+        file = resolve(root, query.get("path"));
+        if (file == null)
+        {
+          badRequests.incrementAndGet();
+          sendError(exchange, 403, "Path is outside of the root directory");
+          return;
+        }
+        if (!file.exists())
+        {
+          badRequests.incrementAndGet();
+          sendError(exchange, 400, "File not found: " + query.get("path"));
+          return;
+        }
+      }
+      else
+      {
+        file = null;
+        if (getContentLength(exchange) > maxUploadSize)
+        {
+          rejected.incrementAndGet();
+          sendError(exchange, 413, "Upload too large");
+          return;
+        }
+      }
+      Future<String> job;
+      try
+      {
+        job = workers.submit(() -> check(exchange, query, file));
+      } catch (RejectedExecutionException e)
+      {
+        rejected.incrementAndGet();
+        sendError(exchange, 503, "Too many jobs");
+        return;
+      }
+      try
+      {
+        sendJSON(exchange, 200, job.get());
+      } catch (ExecutionException e)
+      {
+        Throwable cause = e.getCause();
+        if (cause instanceof UploadTooLargeException)
+        {
+          rejected.incrementAndGet();
+          sendError(exchange, 413, "Upload too large");
+        }
+        else if (cause instanceof UploadFailedException)
+        {
+          // the connection was most likely closed by the read timeout
+          badRequests.incrementAndGet();
+          sendError(exchange, 400, "Upload failed");
+        }
+        else
+        {
+          failed.incrementAndGet();
+          sendError(exchange, 500, String.valueOf(cause));
+        }
+      } catch (InterruptedException e)
+      {
+        job.cancel(true);
+        Thread.currentThread().interrupt();
+        sendError(exchange, 503, "Server is stopping");
+      }
+    } finally
+    {
+      exchange.close();
+    }
+  }
+
+  /**
+   * Returns the canonical file at the given path, resolved against the root
+   * directory, or <code>null</code> if it is not in the root directory.
+   */
+  private static File resolve(File root, String path)
+    throws IOException
+  {
+    File file = new File(path);
+    if (!file.isAbsolute())
+    {
+      file = new File(root, path);
+    }
+    file = file.getCanonicalFile();
+    return (file.toPath().startsWith(root.toPath())) ? file : null;
+  }
+
+  private String check(HttpExchange exchange, Map<String, String> query, File file)
+    throws IOException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      StringWriter json = new StringWriter();
+      CheckingReport report;
+      EpubCheck checker;
+      if (file != null)
+      {
+        report = new CheckingReport(new PrintWriter(json),
+            query.containsKey("name") ? query.get("name") : query.get("path"));
+        checker = new EpubCheck(file, report);
+      }
+      else
+      {
+        // the upload is checked in memory
+        String name = query.containsKey("name") ? query.get("name") : "upload.epub";
+        byte[] upload;
+        try (InputStream in = exchange.getRequestBody())
+        {
+          // the content length may be missing (chunked uploads)
+          upload = ByteStreams.toByteArray(ByteStreams.limit(in, maxUploadSize + 1));
+        } catch (IOException e)
+        {
+          throw new UploadFailedException(e);
+        }
+        if (upload.length > maxUploadSize)
+        {
+          throw new UploadTooLargeException();
+        }
+        report = new CheckingReport(new PrintWriter(json), name);
+        checker = new EpubCheck(upload, report, name);
+      }
+      report.initialize();
+      report.info(null, FeatureEnum.TOOL_NAME, "epubcheck");
+      report.info(null, FeatureEnum.TOOL_VERSION, EpubCheck.version());
+      report.info(null, FeatureEnum.TOOL_DATE, EpubCheck.buildDate());
+      checker.doValidate();
+      report.generate();
+      completed.incrementAndGet();
+      return json.toString();
+    } finally
+    {
+      totalTime.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  private void handleHealth(HttpExchange exchange)
+    throws IOException
+  {
+    try
+    {
+      Map<String, Object> health = new LinkedHashMap<>();
+      health.put("status", "UP");
+      health.put("version", EpubCheck.version());
+      sendJSON(exchange, 200, toJSON(health));
+    } finally
+    {
+      exchange.close();
+    }
+  }
+
+  private void handleMetrics(HttpExchange exchange)
+    throws IOException
+  {
+    try
+    {
+      Map<String, Object> metrics = new LinkedHashMap<>();
+      metrics.put("workers", workers.getMaximumPoolSize());
+      metrics.put("queueCapacity", queueCapacity);
+      metrics.put("activeJobs", workers.getActiveCount());
+      metrics.put("queuedJobs", workers.getQueue().size());
+      metrics.put("completedJobs", completed.get());
+      metrics.put("failedJobs", failed.get());
+      metrics.put("badRequests", badRequests.get());
+      metrics.put("rejectedJobs", rejected.get());
+      metrics.put("totalJobTimeMillis", TimeUnit.NANOSECONDS.toMillis(totalTime.get()));
+      sendJSON(exchange, 200, toJSON(metrics));
+    } finally
+    {
+      exchange.close();
+    }
+  }
+
+  private static long getContentLength(HttpExchange exchange)
+  {
+    String length = exchange.getRequestHeaders().getFirst("Content-Length");
+    try
+    {
+      return (length != null) ? Long.parseLong(length.trim()) : -1;
+    } catch (NumberFormatException e)
+    {
+      return -1;
+    }
+  }
+
+  private static void sendError(HttpExchange exchange, int status, String message)
+    throws IOException
+  {
+    Map<String, Object> error = new LinkedHashMap<>();
+    error.put("status", status);
+    error.put("error", message);
+    sendJSON(exchange, status, toJSON(error));
+  }
+
+  private static void sendJSON(HttpExchange exchange, int status, String json)
+    throws IOException
+  {
+    byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody())
+    {
+      out.write(bytes);
+    }
+  }
+
+  private static String toJSON(Object object)
+    throws IOException
+  {
+    StringWriter json = new StringWriter();
+    JsonWriter.createJsonWriter(true).writeJson(object, new PrintWriter(json));
+    return json.toString();
+  }
+
+  private static Map<String, String> parseQuery(String query)
+    throws UnsupportedEncodingException
+  {
+    Map<String, String> result = new LinkedHashMap<>();
+    if (query != null)
+    {
+      for (String param : Splitter.on('&').omitEmptyStrings().split(query))
+      {
+        int eq = param.indexOf('=');
+        String name = (eq < 0) ? param : param.substring(0, eq);
+        String value = (eq < 0) ? "" : param.substring(eq + 1);
+        result.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+      }
+    }
+    return result;
+  }
+
+  private static final class UploadTooLargeException extends IOException
+  {
+    private static final long serialVersionUID = 1L;
+  }
+
+  private static final class UploadFailedException extends IOException
+  {
+    private static final long serialVersionUID = 1L;
+
+    public UploadFailedException(IOException cause)
+    {
+      super(cause);
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.adobe.epubcheck.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import com.google.common.base.Preconditions;
+
+import io.mola.galimatias.URL;
+
+/**
+ * Provides a resource held in memory, e.g. an EPUB received over the network.
+ */
+public class ByteArrayResourceProvider implements GenericResourceProvider
+{
+
+  private final byte[] data;
+
+  public ByteArrayResourceProvider(byte[] data)
+  {
+    this.data = Preconditions.checkNotNull(data);
+  }
+
+  public InputStream openStream(URL ignore)
+  {
+    return new ByteArrayInputStream(data);
+  }
+
+  /**
+   * Returns the resource data. The array is not copied and must not be
+   * modified.
+   */
+  public byte[] getData()
+  {
+    return data;
+  }
+
+}
@@ -134,6 +134,13 @@ public class DefaultReportImpl extends MasterReport
     }
   }
     
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    // only the version is used, other features are printed in debug mode
+    return DEBUG || feature == FeatureEnum.FORMAT_VERSION;
+  }
+
   public int generate()
   {
     return 0;
@@ -2,6 +2,7 @@ package com.adobe.epubcheck.util;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Writer;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -49,4 +50,13 @@ public class JsonWriter{
   public void writeJson(Object content, PrintWriter pw) throws IOException {
     this.objectMapper.writeValue(pw, content);
   }
+
+  /**
+   * Creates a generator to write JSON content incrementally to the given
+   * writer. Objects written with {@link JsonGenerator#writeObject(Object)} are
+   * serialized with the same configuration as {@link #writeJson}.
+   */
+  public JsonGenerator createGenerator(Writer writer) throws IOException {
+    return this.objectMapper.getFactory().createGenerator(writer);
+  }
 }
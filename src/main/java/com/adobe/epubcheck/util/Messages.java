@@ -82,26 +82,20 @@ public class Messages
    */
   public static Messages getInstance(Locale locale, Class<?> cls)
   {
-    Messages instance = null;
     locale = (locale == null) ? Locale.getDefault() : locale;
     
     String bundleKey = (cls==null)? BUNDLE_NAME : getBundleName(cls);   
-    if (messageTable.contains(bundleKey, locale)) {
-      instance = messageTable.get(bundleKey, locale);
-    } 
-    else 
+    // the table is not thread-safe, reads and writes are synchronized
+    synchronized (Messages.class) 
     {
-      synchronized (Messages.class) 
+      Messages instance = messageTable.get(bundleKey, locale);
+      if (instance == null) 
       {
-        if (instance == null) 
-        {
-          instance = new Messages(locale, bundleKey);
-          messageTable.put(bundleKey, locale, instance);
-        }
+        instance = new Messages(locale, bundleKey);
+        messageTable.put(bundleKey, locale, instance);
       }
+      return instance;
     }
-    
-    return instance;
  
   }
   
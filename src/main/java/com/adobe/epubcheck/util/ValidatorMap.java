@@ -3,14 +3,21 @@ package com.adobe.epubcheck.util;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.adobe.epubcheck.api.EPUBProfile;
+import com.adobe.epubcheck.opf.PublicationType;
 import com.adobe.epubcheck.opf.ValidationContext;
+import com.adobe.epubcheck.vocab.Property;
 import com.adobe.epubcheck.xml.XMLValidator;
 import com.adobe.epubcheck.xml.XMLValidators;
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.LinkedListMultimap;
 import com.google.common.collect.Maps;
@@ -30,12 +37,19 @@ public final class ValidatorMap
     return new Builder();
   }
 
+  // the maximum number of cached validator plans
+  private static final int MAX_CACHED_PLANS = 256;
+
   // internal immutable map of validators to predicates
   private Map<XMLValidators, Predicate<? super ValidationContext>> validators;
+  // resolved validator plans, or null if plans are not cached
+  private final Map<PlanKey, List<XMLValidator>> plans;
 
-  private ValidatorMap(Map<XMLValidators, Predicate<? super ValidationContext>> validators)
+  private ValidatorMap(Map<XMLValidators, Predicate<? super ValidationContext>> validators,
+      boolean cachePlans)
   {
     this.validators = validators;
+    this.plans = cachePlans ? new ConcurrentHashMap<PlanKey, List<XMLValidator>>() : null;
   }
 
   /**
@@ -45,7 +59,14 @@ public final class ValidatorMap
    * been added to the builder.
    * <p>
    * <code>XMLValidator</code> instances are built dynamically, only when the
-   * context satisfies the underlying predicate.
+   * context satisfies the underlying predicate. Their schema is compiled on
+   * first use, so that schemas never selected are never compiled.
+   * </p>
+   * <p>
+   * If this map was built with {@link Builder#cachePlans()}, the list resolved
+   * for a given media type, version, profile, set of publication types and set
+   * of properties is cached and returned for the next contexts having the same
+   * values.
    * </p>
    * 
    * @param context
@@ -53,6 +74,25 @@ public final class ValidatorMap
    * @return the list of validators applicable to <code>context</code>
    */
   public List<XMLValidator> getValidators(final ValidationContext context)
+  {
+    if (plans == null)
+    {
+      return resolve(context);
+    }
+    PlanKey key = new PlanKey(context);
+    List<XMLValidator> plan = plans.get(key);
+    if (plan == null)
+    {
+      plan = resolve(context);
+      if (plans.size() < MAX_CACHED_PLANS)
+      {
+        plans.put(key, plan);
+      }
+    }
+    return plan;
+  }
+
+  private ImmutableList<XMLValidator> resolve(final ValidationContext context)
   {
     return FluentIterable
         .from(validators.entrySet())
@@ -79,6 +119,7 @@ public final class ValidatorMap
     // (e.g. with different predicates)
     private LinkedListMultimap<XMLValidators, Predicate<? super ValidationContext>> validatorsBuilder = LinkedListMultimap
         .create();
+    private boolean cachePlans = false;
 
     /**
      * Puts the given validator in this map and determines its applicability to
@@ -122,6 +163,21 @@ public final class ValidatorMap
       return putAll(Predicates.<ValidationContext> alwaysTrue(), validators);
     }
 
+    /**
+     * Caches the validators resolved for a validation context, see
+     * {@link ValidatorMap#getValidators(ValidationContext)}.
+     * <p>
+     * Only use this option if the predicates of this map depend solely on the
+     * media type, version, profile, publication types, and properties of the
+     * validation context (and e.g. not on its path).
+     * </p>
+     */
+    public Builder cachePlans()
+    {
+      this.cachePlans = true;
+      return this;
+    }
+
     /**
      * Returns a newly created {@link ValidatorMap} from the validators added to
      * this builder.
@@ -142,7 +198,49 @@ public final class ValidatorMap
                 {
                   return Predicates.<ValidationContext> or(predicates);
                 }
-              })));
+              })), cachePlans);
+    }
+  }
+
+  /**
+   * The context values that validator predicates of a plan-caching map can
+   * depend on.
+   */
+  private static final class PlanKey
+  {
+    private final String mimeType;
+    private final EPUBVersion version;
+    private final EPUBProfile profile;
+    private final Set<PublicationType> pubTypes;
+    private final Set<Property> properties;
+    private final int hashCode;
+
+    public PlanKey(ValidationContext context)
+    {
+      this.mimeType = context.mimeType;
+      this.version = context.version;
+      this.profile = context.profile;
+      this.pubTypes = context.pubTypes;
+      this.properties = context.properties;
+      this.hashCode = Objects.hash(mimeType, version, profile, pubTypes, properties);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (this == obj) return true;
+      if (!(obj instanceof PlanKey)) return false;
+      PlanKey other = (PlanKey) obj;
+      return hashCode == other.hashCode && Objects.equals(mimeType, other.mimeType)
+          && version == other.version && profile == other.profile
+          && Objects.equals(pubTypes, other.pubTypes)
+          && Objects.equals(properties, other.properties);
     }
   }
 }
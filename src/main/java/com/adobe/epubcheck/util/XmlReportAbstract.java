@@ -5,7 +5,6 @@ import java.io.PrintWriter;
 import java.text.CharacterIterator;
 import java.text.SimpleDateFormat;
 import java.text.StringCharacterIterator;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -34,6 +33,7 @@ import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.messages.Message;
 import com.adobe.epubcheck.messages.Severity;
 import com.adobe.epubcheck.reporting.CheckMessage;
+import com.adobe.epubcheck.reporting.CheckMessageList;
 
 /**
  * Abstract class to generate a report in XML.
@@ -78,10 +78,10 @@ public abstract class XmlReportAbstract extends MasterReport {
 	protected boolean hasFixedLayout;
 	protected boolean hasScripts;
 
-	protected final List<CheckMessage> warns = new ArrayList<CheckMessage>();
-	protected final List<CheckMessage> errors = new ArrayList<CheckMessage>();
-	protected final List<CheckMessage> fatalErrors = new ArrayList<CheckMessage>();
-	protected final List<CheckMessage> hints = new ArrayList<CheckMessage>();
+	protected final List<CheckMessage> warns = new CheckMessageList();
+	protected final List<CheckMessage> errors = new CheckMessageList();
+	protected final List<CheckMessage> fatalErrors = new CheckMessageList();
+	protected final List<CheckMessage> hints = new CheckMessageList();
 
 	public XmlReportAbstract(PrintWriter out, String ePubName, String versionEpubCheck) {
 		this.out = out;
@@ -221,6 +221,12 @@ public abstract class XmlReportAbstract extends MasterReport {
 		}
 	}
 
+	@Override
+	public boolean usesFeature(FeatureEnum feature) {
+		// resource hashes are not part of the XML report
+		return feature != FeatureEnum.SHA_256;
+	}
+
 	protected String getNameFromPath(String path) {
 		if (path == null || path.length() == 0) {
 			return null;
@@ -0,0 +1,205 @@
+package com.adobe.epubcheck.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import org.apache.xerces.util.XMLGrammarPoolImpl;
+import org.apache.xerces.xni.grammars.Grammar;
+import org.apache.xerces.xni.grammars.XMLGrammarDescription;
+import org.apache.xerces.xni.grammars.XMLGrammarPool;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+/**
+ * A shared, thread-safe cache of the parsed grammars of the DTDs bundled with
+ * EPUBCheck, so that documents declaring these DTDs (typically in EPUB 2
+ * publications) don't each parse the DTD again.
+ * <p>
+ * When Xerces uses a cached DTD grammar, it does not scan the external DTD
+ * subset of the document anymore. Attribute defaults are still applied from
+ * the cached grammar, but entities declared in the DTD are not. The pool
+ * therefore only caches the DTDs that declare no general entities (as parsed
+ * by EPUBCheck, i.e. without loading external parameter entities). For the
+ * same reason, the pool must only be used for documents whose DOCTYPE has no
+ * internal subset, since Xerces would otherwise merge the internal subset into
+ * the cached grammar (see {@link #isApplicable(InputStream)}).
+ * </p>
+ */
+final class DTDGrammarPool implements XMLGrammarPool
+{
+  private static final String GRAMMAR_POOL_PROPERTY = "http://apache.org/xml/properties/internal/grammar-pool";
+
+  // the maximum length of the prolog inspected to find the DOCTYPE
+  private static final int PROLOG_MAX_LENGTH = 4096;
+
+  // the bundled DTDs (see DefaultResolver) which declare no general entities;
+  // the XHTML 1.1 DTD is resolved to an entity-only DTD and is not cacheable
+  private static final Set<String> CACHEABLE_DTDS = ImmutableSet.of(
+      "http://openebook.org/dtds/oeb-1.2/oebpkg12.dtd",
+      "http://http://idpf.org/dtds/oeb-1.2/oebpkg12.dtd",
+      "http://openebook.org/dtds/oeb-1.2/oebdoc12.dtd",
+      "http://www.idpf.org/dtds/2007/opf.dtd",
+      "http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd",
+      "http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd",
+      "http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd",
+      "http://www.daisy.org/z3986/2005/dtbook-2005-2.dtd",
+      "http://www.daisy.org/z3986/2005/ncx-2005-1.dtd");
+
+  private static final DTDGrammarPool INSTANCE = new DTDGrammarPool();
+
+  // the synchronized Xerces implementation
+  private final XMLGrammarPool grammars = new XMLGrammarPoolImpl();
+
+  private DTDGrammarPool()
+  {
+  }
+
+  /**
+   * Configures the given reader to use the shared grammar pool for the next
+   * parse. The reader must be used to parse a document for which
+   * {@link #isApplicable(InputStream)} returned <code>true</code>.
+   */
+  static void enable(XMLReader reader)
+  {
+    try
+    {
+      reader.setProperty(GRAMMAR_POOL_PROPERTY, INSTANCE);
+    } catch (SAXException e)
+    {
+      // not a Xerces parser, DTDs are not cached
+    }
+  }
+
+  /**
+   * Returns <code>true</code> if the given ASCII-compatible document declares a
+   * DOCTYPE with no internal subset. The stream is reset to its current
+   * position, it must support marks.
+   */
+  static boolean isApplicable(InputStream in)
+    throws IOException
+  {
+    byte[] buffer = new byte[PROLOG_MAX_LENGTH];
+    in.mark(buffer.length);
+    int len = ByteStreams.read(in, buffer, 0, buffer.length);
+    in.reset();
+    String prolog = new String(buffer, 0, len, StandardCharsets.ISO_8859_1);
+
+    int pos = prolog.startsWith("\u00EF\u00BB\u00BF") ? 3 : 0;
+    while (pos < prolog.length())
+    {
+      char c = prolog.charAt(pos);
+      if (c == ' ' || c == '\t' || c == '\r' || c == '\n')
+      {
+        pos++;
+      }
+      else if (prolog.startsWith("<?", pos))
+      {
+        pos = skipPast(prolog, "?>", pos);
+      }
+      else if (prolog.startsWith("<!--", pos))
+      {
+        pos = skipPast(prolog, "-->", pos);
+      }
+      else if (prolog.startsWith("<!DOCTYPE", pos))
+      {
+        return hasNoInternalSubset(prolog, pos);
+      }
+      else
+      {
+        // the root element, or a prolog we don't understand
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static int skipPast(String prolog, String end, int pos)
+  {
+    int index = prolog.indexOf(end, pos);
+    return (index < 0) ? prolog.length() : index + end.length();
+  }
+
+  private static boolean hasNoInternalSubset(String prolog, int pos)
+  {
+    char quote = 0;
+    for (int i = pos; i < prolog.length(); i++)
+    {
+      char c = prolog.charAt(i);
+      if (quote != 0)
+      {
+        if (c == quote) quote = 0;
+      }
+      else if (c == '"' || c == '\'')
+      {
+        quote = c;
+      }
+      else if (c == '[')
+      {
+        return false;
+      }
+      else if (c == '>')
+      {
+        return true;
+      }
+    }
+    // the DOCTYPE doesn't fit in the inspected prolog
+    return false;
+  }
+
+  private static boolean isCacheable(String grammarType, XMLGrammarDescription description)
+  {
+    return XMLGrammarDescription.XML_DTD.equals(grammarType) && description != null
+        && CACHEABLE_DTDS.contains(description.getLiteralSystemId());
+  }
+
+  @Override
+  public Grammar[] retrieveInitialGrammarSet(String grammarType)
+  {
+    // grammars are only retrieved by description
+    return new Grammar[0];
+  }
+
+  @Override
+  public void cacheGrammars(String grammarType, Grammar[] grammars)
+  {
+    for (Grammar grammar : grammars)
+    {
+      if (isCacheable(grammarType, grammar.getGrammarDescription()))
+      {
+        this.grammars.cacheGrammars(grammarType, new Grammar[] { grammar });
+      }
+    }
+  }
+
+  @Override
+  public Grammar retrieveGrammar(XMLGrammarDescription description)
+  {
+    if (!isCacheable(description.getGrammarType(), description))
+    {
+      return null;
+    }
+    return grammars.retrieveGrammar(description);
+  }
+
+  @Override
+  public void lockPool()
+  {
+    // the pool is always open for the bundled DTDs
+  }
+
+  @Override
+  public void unlockPool()
+  {
+  }
+
+  @Override
+  public void clear()
+  {
+    // the bundled DTDs don't change
+  }
+}
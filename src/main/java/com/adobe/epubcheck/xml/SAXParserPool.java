@@ -0,0 +1,125 @@
+package com.adobe.epubcheck.xml;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.SAXException;
+
+import com.adobe.epubcheck.util.EPUBVersion;
+
+/**
+ * A per-thread pool of configured SAX parsers, keyed by EPUB version.
+ * <p>
+ * Looking up and configuring a parser factory, and creating a parser, is
+ * costly compared to parsing the small documents found in most publications.
+ * The factories are created once, and the parsers are reset and reused for the
+ * next documents parsed by the same thread.
+ * </p>
+ * <p>
+ * A parser is borrowed with {@link #acquire(EPUBVersion)} and must only be
+ * given back with {@link #release(EPUBVersion, SAXParser)} once the parse is
+ * complete. Parsers that are never released are simply garbage collected.
+ * </p>
+ * <p>
+ * The pooled parsers of all the threads are discarded with {@link #clear()}.
+ * </p>
+ */
+final class SAXParserPool
+{
+  // the maximum number of idle parsers kept per thread and version
+  private static final int MAX_IDLE_PARSERS = 4;
+
+  private static final Map<EPUBVersion, SAXParserFactory> FACTORIES = new EnumMap<>(
+      EPUBVersion.class);
+
+  private static final ThreadLocalPool<EPUBVersion, SAXParser> IDLE_PARSERS = new ThreadLocalPool<>(
+      MAX_IDLE_PARSERS);
+
+  private SAXParserPool()
+  {
+    // static utility class
+  }
+
+  /**
+   * Returns a parser configured for the given version, either reused from the
+   * pool of the current thread or newly created.
+   */
+  static SAXParser acquire(EPUBVersion version)
+    throws ParserConfigurationException,
+    SAXException
+  {
+    SAXParser idle = IDLE_PARSERS.poll(version);
+    if (idle != null)
+    {
+      return idle;
+    }
+    SAXParserFactory factory = getFactory(version);
+    // factories are not guaranteed to be thread-safe
+    synchronized (factory)
+    {
+      return factory.newSAXParser();
+    }
+  }
+
+  /**
+   * Resets the given parser and returns it to the pool of the current thread.
+   * Parsers that cannot be reset are discarded.
+   */
+  static void release(EPUBVersion version, SAXParser parser)
+  {
+    try
+    {
+      parser.reset();
+    } catch (UnsupportedOperationException e)
+    {
+      return;
+    }
+    IDLE_PARSERS.offer(version, parser);
+  }
+
+  /**
+   * Discards the idle parsers of all the threads.
+   */
+  static void clear()
+  {
+    IDLE_PARSERS.clear();
+  }
+
+  private static SAXParserFactory getFactory(EPUBVersion version)
+  {
+    synchronized (FACTORIES)
+    {
+      SAXParserFactory factory = FACTORIES.get(version);
+      if (factory == null)
+      {
+        factory = newFactory(version);
+        FACTORIES.put(version, factory);
+      }
+      return factory;
+    }
+  }
+
+  private static SAXParserFactory newFactory(EPUBVersion version)
+  {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    try
+    {
+      factory.setNamespaceAware(true);
+      factory.setValidating(false);
+      factory.setFeature("http://xml.org/sax/features/validation", false);
+      factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+      factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+      if (version == EPUBVersion.VERSION_3)
+      {
+        factory.setXIncludeAware(false);
+      }
+    } catch (Exception ignored)
+    {
+    }
+    return factory;
+  }
+}
@@ -0,0 +1,92 @@
+package com.adobe.epubcheck.xml;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Per-thread pools of idle objects, keyed by the kind of object.
+ * <p>
+ * The pools are held by thread locals, which live as long as their thread. To
+ * let the classes of the pooled objects be unloaded while the threads outlive
+ * them (e.g. threads of an application server), the pools of all the threads
+ * can be emptied with {@link #clear()}. An emptied pool only references JDK
+ * classes.
+ * </p>
+ */
+final class ThreadLocalPool<K, V>
+{
+  private final int maxIdle;
+  // the pools of all the threads, so that they can be cleared
+  private final Set<Map<K, Deque<V>>> pools = Collections
+      .newSetFromMap(new MapMaker().weakKeys().<Map<K, Deque<V>>, Boolean> makeMap());
+  private final ThreadLocal<Map<K, Deque<V>>> pool = ThreadLocal.withInitial(this::newPool);
+
+  /**
+   * Creates pools keeping at most the given number of idle objects per thread
+   * and key.
+   */
+  ThreadLocalPool(int maxIdle)
+  {
+    this.maxIdle = maxIdle;
+  }
+
+  private Map<K, Deque<V>> newPool()
+  {
+    Map<K, Deque<V>> newPool = new HashMap<>();
+    pools.add(newPool);
+    return newPool;
+  }
+
+  /**
+   * Removes an idle object from the pool of the current thread, or returns
+   * <code>null</code> if there is none.
+   */
+  V poll(K key)
+  {
+    Map<K, Deque<V>> idle = pool.get();
+    // only contended when the pools are cleared
+    synchronized (idle)
+    {
+      Deque<V> objects = idle.get(key);
+      return (objects != null) ? objects.poll() : null;
+    }
+  }
+
+  /**
+   * Adds an idle object to the pool of the current thread, unless the pool is
+   * full.
+   */
+  void offer(K key, V object)
+  {
+    Map<K, Deque<V>> idle = pool.get();
+    synchronized (idle)
+    {
+      Deque<V> objects = idle.computeIfAbsent(key, k -> new ArrayDeque<>());
+      if (objects.size() < maxIdle)
+      {
+        objects.push(object);
+      }
+    }
+  }
+
+  /**
+   * Discards the idle objects of all the threads.
+   */
+  void clear()
+  {
+    pool.remove();
+    for (Map<K, Deque<V>> idle : pools)
+    {
+      synchronized (idle)
+      {
+        idle.clear();
+      }
+    }
+  }
+}
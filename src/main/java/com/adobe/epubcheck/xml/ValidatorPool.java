@@ -0,0 +1,142 @@
+package com.adobe.epubcheck.xml;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import com.thaiopensource.util.PropertyMapBuilder;
+import com.thaiopensource.validate.ValidateProperty;
+import com.thaiopensource.validate.Validator;
+
+/**
+ * A per-thread pool of schema validators, keyed by {@link XMLValidator}.
+ * <p>
+ * Creating a validator (in particular an NVDL validator, which dispatches to
+ * several child validators) is costly compared to validating the small
+ * documents found in most publications. Validators are reset and reused for the
+ * next documents validated by the same thread.
+ * </p>
+ * <p>
+ * A validator is bound to its error handler when it is created; pooled
+ * validators are created with an error handler that forwards the errors to
+ * the handler given to {@link #acquire(XMLValidator, ErrorHandler)}, so that
+ * each document is reported in its own context.
+ * </p>
+ * <p>
+ * A validator is borrowed with {@link #acquire(XMLValidator, ErrorHandler)} and
+ * must only be given back with {@link #release(PooledValidator)} once the
+ * document has been completely validated. Validators that are never released
+ * (e.g. when the parse failed) are simply garbage collected.
+ * </p>
+ * <p>
+ * The pooled validators of all the threads are discarded with
+ * {@link #clear()}.
+ * </p>
+ */
+final class ValidatorPool
+{
+  // the maximum number of idle validators kept per thread and schema
+  private static final int MAX_IDLE_VALIDATORS = 4;
+
+  private static final ThreadLocalPool<XMLValidator, PooledValidator> IDLE_VALIDATORS = new ThreadLocalPool<>(
+      MAX_IDLE_VALIDATORS);
+
+  private ValidatorPool()
+  {
+    // static utility class
+  }
+
+  /**
+   * Returns a validator for the given schema, reporting to the given error
+   * handler, either reused from the pool of the current thread or newly
+   * created.
+   */
+  static PooledValidator acquire(XMLValidator xv, ErrorHandler errorHandler)
+  {
+    PooledValidator result = IDLE_VALIDATORS.poll(xv);
+    if (result == null)
+    {
+      result = new PooledValidator(xv);
+    }
+    result.errorHandler.delegate = errorHandler;
+    return result;
+  }
+
+  /**
+   * Resets the given validator and returns it to the pool of the current
+   * thread. Validators that cannot be reset are discarded.
+   */
+  static void release(PooledValidator validator)
+  {
+    validator.errorHandler.delegate = null;
+    try
+    {
+      validator.validator.reset();
+    } catch (RuntimeException e)
+    {
+      return;
+    }
+    IDLE_VALIDATORS.offer(validator.xv, validator);
+  }
+
+  /**
+   * Discards the idle validators of all the threads.
+   */
+  static void clear()
+  {
+    IDLE_VALIDATORS.clear();
+  }
+
+  /**
+   * A validator borrowed from the pool.
+   */
+  static final class PooledValidator
+  {
+    private final XMLValidator xv;
+    private final SwitchingErrorHandler errorHandler = new SwitchingErrorHandler();
+    private final Validator validator;
+
+    private PooledValidator(XMLValidator xv)
+    {
+      this.xv = xv;
+      PropertyMapBuilder propertyMapBuilder = new PropertyMapBuilder();
+      propertyMapBuilder.put(ValidateProperty.ERROR_HANDLER, errorHandler);
+      this.validator = xv.getSchema().createValidator(propertyMapBuilder.toPropertyMap());
+    }
+
+    Validator getValidator()
+    {
+      return validator;
+    }
+  }
+
+  /**
+   * Forwards errors to the error handler of the current use, and ignores them
+   * while the validator is idle.
+   */
+  private static final class SwitchingErrorHandler implements ErrorHandler
+  {
+    private ErrorHandler delegate = null;
+
+    @Override
+    public void warning(SAXParseException exception)
+      throws SAXException
+    {
+      if (delegate != null) delegate.warning(exception);
+    }
+
+    @Override
+    public void error(SAXParseException exception)
+      throws SAXException
+    {
+      if (delegate != null) delegate.error(exception);
+    }
+
+    @Override
+    public void fatalError(SAXParseException exception)
+      throws SAXException
+    {
+      if (delegate != null) delegate.fatalError(exception);
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.adobe.epubcheck.xml;
+
+import java.nio.charset.StandardCharsets;
+
+import org.xml.sax.Attributes;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+
+/**
+ * The markup that must occur in a document for a validator to possibly report
+ * anything on it: either an element in a given namespace, or an attribute in a
+ * given namespace. Validators of a document where the markup doesn't occur
+ * can be skipped without changing the reported messages.
+ * <p>
+ * Triggers are tested on the parsed elements, see
+ * {@link #matches(String, Attributes)}, or ahead of parsing on the raw content
+ * of the document, see {@link #mayOccur(byte[])}.
+ * </p>
+ */
+public final class ValidatorTrigger
+{
+
+  private static final byte[] XMLNS = ascii("xmlns");
+  private static final byte[] DOCTYPE = ascii("<!DOCTYPE");
+
+  /**
+   * Returns a trigger matching any element in the given namespace.
+   */
+  public static ValidatorTrigger element(String namespace)
+  {
+    return new ValidatorTrigger(namespace, null, null);
+  }
+
+  /**
+   * Returns a trigger matching the elements having an attribute with the given
+   * namespace and local name, and a value satisfying the given predicate.
+   */
+  public static ValidatorTrigger attribute(String namespace, String localName,
+      Predicate<? super String> value)
+  {
+    return new ValidatorTrigger(namespace, Preconditions.checkNotNull(localName),
+        Preconditions.checkNotNull(value));
+  }
+
+  /**
+   * Returns a trigger matching the elements having an attribute with the given
+   * namespace and local name.
+   */
+  public static ValidatorTrigger attribute(String namespace, String localName)
+  {
+    return attribute(namespace, localName, Predicates.alwaysTrue());
+  }
+
+  private final String namespace;
+  private final byte[] namespaceBytes;
+  private final String attribute;
+  private final Predicate<? super String> value;
+
+  private ValidatorTrigger(String namespace, String attribute, Predicate<? super String> value)
+  {
+    Preconditions.checkArgument(namespace != null && !namespace.isEmpty(),
+        "namespace must be set");
+    this.namespace = namespace;
+    this.namespaceBytes = ascii(namespace);
+    this.attribute = attribute;
+    this.value = value;
+  }
+
+  /**
+   * Returns <code>true</code> if the given element matches this trigger.
+   *
+   * @param uri
+   *          the namespace URI of the element
+   * @param atts
+   *          the attributes of the element
+   */
+  public boolean matches(String uri, Attributes atts)
+  {
+    if (attribute == null)
+    {
+      return namespace.equals(uri);
+    }
+    String attValue = atts.getValue(namespace, attribute);
+    return attValue != null && value.apply(attValue);
+  }
+
+  /**
+   * Tells, by scanning the raw content of a UTF-8 (or ASCII) encoded document,
+   * whether the namespace of this trigger may be in scope anywhere in the
+   * document. Returns <code>false</code> only if the namespace URI doesn't
+   * appear literally in the document, and it cannot be declared otherwise:
+   * there is no document type declaration with an external identifier or an
+   * internal subset (which could default or build namespace declarations), and
+   * no namespace declaration with a reference in its value.
+   *
+   * @param data
+   *          the UTF-8 encoded content of the document
+   */
+  public boolean mayOccur(byte[] data)
+  {
+    // ASCII bytes never occur in multi-byte UTF-8 sequences
+    return indexOf(data, namespaceBytes, 0) >= 0 || hasDeclaredDoctype(data)
+        || hasNamespaceReference(data);
+  }
+
+  private static boolean hasDeclaredDoctype(byte[] data)
+  {
+    int start = indexOf(data, DOCTYPE, 0);
+    if (start < 0)
+    {
+      return false;
+    }
+    // an external identifier is made of quoted literals,
+    // and an internal subset starts with a bracket
+    for (int i = start + DOCTYPE.length; i < data.length; i++)
+    {
+      if (data[i] == '>')
+      {
+        return false;
+      }
+      if (data[i] == '"' || data[i] == '\'' || data[i] == '[')
+      {
+        return true;
+      }
+    }
+    return true;
+  }
+
+  private static boolean hasNamespaceReference(byte[] data)
+  {
+    int from = 0;
+    while (true)
+    {
+      int start = indexOf(data, XMLNS, from);
+      if (start < 0)
+      {
+        return false;
+      }
+      int i = start + XMLNS.length;
+      // skip the prefix and whitespace up to the equal sign
+      while (i < data.length && data[i] != '=' && data[i] != '<' && data[i] != '>')
+      {
+        i++;
+      }
+      if (i < data.length && data[i] == '=')
+      {
+        i++;
+        while (i < data.length && isWhitespace(data[i]))
+        {
+          i++;
+        }
+        if (i < data.length && (data[i] == '"' || data[i] == '\''))
+        {
+          byte quote = data[i++];
+          while (i < data.length && data[i] != quote)
+          {
+            if (data[i] == '&')
+            {
+              return true;
+            }
+            i++;
+          }
+        }
+      }
+      from = start + XMLNS.length;
+    }
+  }
+
+  private static int indexOf(byte[] data, byte[] target, int from)
+  {
+    outer: for (int i = from; i <= data.length - target.length; i++)
+    {
+      for (int j = 0; j < target.length; j++)
+      {
+        if (data[i + j] != target[j])
+        {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  private static boolean isWhitespace(byte b)
+  {
+    return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+  }
+
+  private static byte[] ascii(String string)
+  {
+    return string.getBytes(StandardCharsets.US_ASCII);
+  }
+}
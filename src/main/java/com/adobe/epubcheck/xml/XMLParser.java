@@ -23,33 +23,45 @@
 package com.adobe.epubcheck.xml;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.w3c.epubcheck.constants.MIMEType;
+import org.w3c.epubcheck.core.TimingScope;
+import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
-import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLFilterImpl;
 
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.Report;
+import com.adobe.epubcheck.api.Timing.Category;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.opf.ValidationContext;
 import com.adobe.epubcheck.util.EPUBVersion;
+import com.adobe.epubcheck.xml.ValidatorPool.PooledValidator;
 import com.adobe.epubcheck.xml.handlers.DeclarationHandler;
 import com.adobe.epubcheck.xml.handlers.DefaultResolver;
 import com.adobe.epubcheck.xml.handlers.DelegateDefaultHandler;
 import com.adobe.epubcheck.xml.handlers.PreprocessingDefaultHandler;
+import com.adobe.epubcheck.xml.handlers.ReplayingContentHandler;
 import com.adobe.epubcheck.xml.handlers.ReportingErrorHandler;
-import com.thaiopensource.util.PropertyMapBuilder;
-import com.thaiopensource.validate.ValidateProperty;
+import com.adobe.epubcheck.xml.handlers.TimingContentHandler;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
 import com.thaiopensource.validate.Validator;
 
 import io.mola.galimatias.URL;
@@ -57,12 +69,26 @@ import io.mola.galimatias.URL;
 public class XMLParser
 {
 
+  // the maximum length of a document scanned for the triggers of the deferred
+  // validators, which are all attached to longer documents
+  private static final int TRIGGER_SCAN_MAX_LENGTH = 512 * 1024;
+
   private final ValidationContext context;
   private final Report report;
   private final URL url;
   private final SAXParser parser;
   private final DelegateDefaultHandler.Builder handler = new DelegateDefaultHandler.Builder();
+  // Schematron validators, attached to their gate when the document is parsed
+  private final List<XMLValidator> schematronValidators = new ArrayList<>();
+  private XMLFilterImpl schematronGate = null;
+  // validator handlers measured when timings are reported
+  private final List<TimingContentHandler> timedHandlers = new ArrayList<>();
+  // validators borrowed from the pool, given back once the document is processed
+  private final List<PooledValidator> validators = new ArrayList<>();
+  // validators attached once the document content is known, by their gate
+  private final Map<XMLFilterImpl, XMLValidator> deferredValidators = new LinkedHashMap<>();
   private boolean reporting = true;
+  private boolean processed = false;
 
   public XMLParser(ValidationContext context)
   {
@@ -70,27 +96,16 @@ public class XMLParser
     this.report = context.report;
     this.url = context.url;
 
-    SAXParserFactory factory = SAXParserFactory.newInstance();
-
     try
     {
-      factory.setNamespaceAware(true);
-      factory.setValidating(false);
-      factory.setFeature("http://xml.org/sax/features/validation", false);
-      factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
-      factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
-      if (context.version == EPUBVersion.VERSION_3)
+      // the parser is given back to the pool once the document is processed
+      parser = SAXParserPool.acquire(context.version);
+      handler.setEntityResolver(new DefaultResolver(context.version));
+      if (context.limitedReport.isPresent())
       {
-        factory.setXIncludeAware(false);
+        // abort the parse as soon as a message limit is reached
+        handler.addContentHandler(new StoppingHandler());
       }
-    } catch (Exception ignored)
-    {
-    }
-
-    try
-    {
-      parser = factory.newSAXParser();
-      handler.setEntityResolver(new DefaultResolver(context.version));
 
       XMLReader reader = parser.getXMLReader();
       DeclarationHandler docTypeHandler = new DeclarationHandler(context, parser);
@@ -106,6 +121,21 @@ public class XMLParser
     }
   }
 
+  /**
+   * Discards the SAX parsers and schema validators pooled by all the threads.
+   * <p>
+   * The pools are held by thread locals: an application loading EPUBCheck in
+   * its own class loader, and running it on threads that outlive the class
+   * loader (e.g. a web application), should call this method before the class
+   * loader is discarded, so that it can be garbage collected.
+   * </p>
+   */
+  public static void clearPools()
+  {
+    SAXParserPool.clear();
+    ValidatorPool.clear();
+  }
+
   public void setReporting(boolean reporting)
   {
     this.reporting = reporting;
@@ -116,27 +146,146 @@ public class XMLParser
     handler.addContentHandler(contentHandler);
   }
 
+  /**
+   * Adds a validator of the document. Validators having a
+   * {@link XMLValidator#getTrigger() trigger} are skipped when the trigger
+   * doesn't occur in the document.
+   */
   public void addValidator(XMLValidator xv)
   {
-    PropertyMapBuilder propertyMapBuilder = new PropertyMapBuilder();
-    ErrorHandler eh = new ReportingErrorHandler(context, xv.isNormative());
-    propertyMapBuilder.put(ValidateProperty.ERROR_HANDLER, eh);
-    Validator validator = xv.getSchema().createValidator(propertyMapBuilder.toPropertyMap());
-    handler.addContentHandler(validator.getContentHandler());
-    handler.addDTDHandler(validator.getDTDHandler());
+    if (xv.isSchematron())
+    {
+      // how Schematron validators are attached depends on their number,
+      // known once all the validators are added
+      if (schematronGate == null)
+      {
+        schematronGate = new XMLFilterImpl();
+        handler.addContentHandler(schematronGate);
+        handler.addDTDHandler(schematronGate);
+      }
+      schematronValidators.add(xv);
+    }
+    else if (xv.getTrigger().isPresent())
+    {
+      // streaming validators are attached before parsing, when a scan of the
+      // document shows that their trigger may occur
+      XMLFilterImpl gate = new XMLFilterImpl();
+      handler.addContentHandler(gate);
+      handler.addDTDHandler(gate);
+      deferredValidators.put(gate, xv);
+    }
+    else
+    {
+      Validator validator = acquire(xv);
+      handler.addContentHandler(getContentHandler(xv, validator));
+      handler.addDTDHandler(validator.getDTDHandler());
+    }
+  }
+
+  private Validator acquire(XMLValidator xv)
+  {
+    PooledValidator pooled = ValidatorPool.acquire(xv,
+        new ReportingErrorHandler(context, xv.isNormative()));
+    validators.add(pooled);
+    return pooled.getValidator();
+  }
+
+  private ContentHandler getContentHandler(XMLValidator xv, Validator validator)
+  {
+    ContentHandler contentHandler = validator.getContentHandler();
+    if (contentHandler != null && context.timingListener.isPresent())
+    {
+      TimingContentHandler timedHandler = new TimingContentHandler(contentHandler,
+          xv.getSchemaName());
+      timedHandlers.add(timedHandler);
+      contentHandler = timedHandler;
+    }
+    return contentHandler;
   }
 
+  /**
+   * Attaches the Schematron validators. Each of them builds a tree of the whole
+   * document: when there are several of them, the document is recorded once
+   * and replayed to one validator at a time (if its trigger occurred), so that
+   * only one tree is held in memory (the recording itself takes less memory
+   * than a tree, so this pays off from two validators). A single validator is
+   * attached directly, or deferred if it has a trigger.
+   */
+  private void attachSchematronValidators()
+  {
+    if (schematronValidators.size() == 1)
+    {
+      XMLValidator xv = schematronValidators.get(0);
+      if (xv.getTrigger().isPresent())
+      {
+        deferredValidators.put(schematronGate, xv);
+      }
+      else
+      {
+        Validator validator = acquire(xv);
+        schematronGate.setContentHandler(getContentHandler(xv, validator));
+        schematronGate.setDTDHandler(validator.getDTDHandler());
+      }
+    }
+    else if (schematronValidators.size() > 1)
+    {
+      ReplayingContentHandler replaying = new ReplayingContentHandler();
+      for (XMLValidator xv : schematronValidators)
+      {
+        Validator validator = acquire(xv);
+        replaying.addDelegate(getContentHandler(xv, validator), validator.getDTDHandler(),
+            xv.getTrigger().orNull());
+      }
+      schematronGate.setContentHandler(replaying);
+      schematronGate.setDTDHandler(replaying);
+    }
+  }
+
+  /**
+   * Attaches the deferred validators whose trigger may occur in the given
+   * UTF-8 encoded document, or all of them if the document is
+   * <code>null</code> (i.e. not scanned).
+   */
+  private void attachDeferredValidators(byte[] data)
+  {
+    for (Map.Entry<XMLFilterImpl, XMLValidator> deferred : deferredValidators.entrySet())
+    {
+      XMLValidator xv = deferred.getValue();
+      if (data == null || xv.getTrigger().get().mayOccur(data))
+      {
+        Validator validator = acquire(xv);
+        deferred.getKey().setContentHandler(getContentHandler(xv, validator));
+        deferred.getKey().setDTDHandler(validator.getDTDHandler());
+      }
+    }
+  }
+
+  /**
+   * Parses the document. A parser processes a single document: its underlying
+   * SAX parser and schema validators are then reused for other documents.
+   */
   public void process()
   {
-    try (InputStream in = context.resourceProvider.openStream(context.url);
+    Preconditions.checkState(!processed, "the document was already processed");
+    processed = true;
+    // validators are only reused when they validated a complete document
+    boolean completed = false;
+    // the report may be shared with other documents (or be a buffer local to
+    // this one, when resources are checked concurrently), so only the fatal
+    // errors reported while parsing this document are counted
+    int fatalErrorCount = report.getFatalErrorCount();
+    try (InputStream in = TimingScope.countBytes(context,
+        context.resourceProvider.openStream(context.url));
         InputStream buffered = new BufferedInputStream(in))
     {
       if (in == null)
       {
         // Abort processing.
         // Missing required files are reported elsewhere.
+        completed = true;
         return;
       }
+      attachSchematronValidators();
 
       // Create the InputSource based on the encoding
       final InputSource source;
@@ -165,10 +314,18 @@ public class XMLParser
         // apply its own encoding-sniffing logic, as it can report useful errors
         // (for instance a mismatch between a BOM and the XML declaration)
         source = new InputSource(buffered);
+        attachDeferredValidators(null);
 
       }
       else
       {
+        // Reuse the cached grammar of bundled DTDs (external DTDs are not
+        // resolved in EPUB 3)
+        if (context.version != EPUBVersion.VERSION_3 && DTDGrammarPool.isApplicable(buffered))
+        {
+          DTDGrammarPool.enable(parser.getXMLReader());
+        }
+
         // Decode the UTF-8 stream with java.io instead of letting Xerces
         // do it, to work around Xerces issue #1668
         // (see https://issues.apache.org/jira/browse/XERCESJ-1668),
@@ -177,7 +334,17 @@ public class XMLParser
         {
           buffered.skip(3);
         }
-        source = new InputSource(new InputStreamReader(buffered, StandardCharsets.UTF_8));
+        InputStream content = buffered;
+        if (!deferredValidators.isEmpty())
+        {
+          // the scanned bytes are parsed before the rest of the stream, so
+          // that at most the scan length is held in memory
+          byte[] head = ByteStreams
+              .toByteArray(ByteStreams.limit(buffered, TRIGGER_SCAN_MAX_LENGTH + 1));
+          attachDeferredValidators((head.length <= TRIGGER_SCAN_MAX_LENGTH) ? head : null);
+          content = new SequenceInputStream(new ByteArrayInputStream(head), buffered);
+        }
+        source = new InputSource(new InputStreamReader(content, StandardCharsets.UTF_8));
       }
 
       // Set the source's system ID
@@ -191,6 +358,7 @@ public class XMLParser
 
       // Parse
       parser.parse(source, new PreprocessingDefaultHandler(handler.build(), context));
+      completed = true;
 
     } catch (SAXAbortException e)
     {
@@ -201,11 +369,55 @@ public class XMLParser
     } catch (SAXException e)
     {
       // All errors should have already been reported by the error handler
-      if (report.getFatalErrorCount() == 0)
+      if (report.getFatalErrorCount() == fatalErrorCount)
       {
         report.message(MessageId.RSC_016, EPUBLocation.of(context), e.getMessage());
       }
+    } finally
+    {
+      SAXParserPool.release(context.version, parser);
+      if (completed)
+      {
+        for (PooledValidator validator : validators)
+        {
+          ValidatorPool.release(validator);
+        }
+      }
+      for (TimingContentHandler timedHandler : timedHandlers)
+      {
+        TimingScope.record(context, Category.VALIDATOR, timedHandler.getName(),
+            timedHandler.getTime());
+      }
     }
   }
 
+  /**
+   * Aborts the parse when the check is stopped.
+   */
+  private final class StoppingHandler extends DefaultHandler
+  {
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts)
+      throws SAXException
+    {
+      checkStopped();
+    }
+
+    @Override
+    public void endDocument()
+      throws SAXException
+    {
+      // before the recorded document is replayed to Schematron validators
+      checkStopped();
+    }
+
+    private void checkStopped()
+      throws SAXAbortException
+    {
+      if (context.isStopped())
+      {
+        throw new SAXAbortException();
+      }
+    }
+  }
 }
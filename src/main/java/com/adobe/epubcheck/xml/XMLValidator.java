@@ -27,6 +27,7 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.concurrent.TimeUnit;
 
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.InputSource;
@@ -34,6 +35,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
 import com.adobe.epubcheck.util.ResourceUtil;
+import com.google.common.base.Optional;
 import com.thaiopensource.resolver.Identifier;
 import com.thaiopensource.resolver.Input;
 import com.thaiopensource.resolver.Resolver;
@@ -48,8 +50,12 @@ import com.thaiopensource.validate.rng.CompactSchemaReader;
 public class XMLValidator
 {
 
-  private final Schema schema;
+  private final String schemaName;
   private final boolean isNormative;
+  private final Optional<ValidatorTrigger> trigger;
+  // the schema is compiled lazily, on first access
+  private volatile Schema schema;
+  private volatile long compilationTime = -1L;
 
   /**
    * Basic Resolver from Jing modified to add support for resolving zip and
@@ -174,7 +180,46 @@ public class XMLValidator
 
   public XMLValidator(String schemaName, boolean isNormative)
   {
+    this(schemaName, isNormative, null);
+  }
+
+  /**
+   * Creates a validator that can only report messages on documents where the
+   * given trigger occurs, and is skipped on other documents.
+   */
+  public XMLValidator(String schemaName, boolean isNormative, ValidatorTrigger trigger)
+  {
+    this.schemaName = schemaName;
     this.isNormative = isNormative;
+    this.trigger = Optional.fromNullable(trigger);
+  }
+
+  /**
+   * Returns the compiled schema, compiling it on the first call. This method is
+   * safe to call concurrently; the schema is compiled only once.
+   */
+  public Schema getSchema()
+  {
+    Schema result = schema;
+    if (result == null)
+    {
+      synchronized (this)
+      {
+        result = schema;
+        if (result == null)
+        {
+          long start = System.nanoTime();
+          result = compile();
+          compilationTime = System.nanoTime() - start;
+          schema = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  private Schema compile()
+  {
     try
     {
       String resourcePath = ResourceUtil.getResourcePath(schemaName);
@@ -202,7 +247,7 @@ public class XMLValidator
         schemaReader = new AutoSchemaReader();
       }
 
-      schema = schemaReader.createSchema(schemaSource,
+      return schemaReader.createSchema(schemaSource,
           mapBuilder.toPropertyMap());
     } catch (RuntimeException e)
     {
@@ -214,13 +259,48 @@ public class XMLValidator
     }
   }
 
-  public Schema getSchema()
+  public String getSchemaName()
   {
-    return schema;
+    return schemaName;
+  }
+
+  /**
+   * Returns <code>true</code> if the schema has already been compiled.
+   */
+  public boolean isCompiled()
+  {
+    return schema != null;
+  }
+
+  /**
+   * Returns the time it took to compile the schema, in the given unit, or
+   * <code>-1</code> if the schema has not been compiled yet.
+   */
+  public long getCompilationTime(TimeUnit unit)
+  {
+    long time = compilationTime;
+    return (time < 0) ? -1L : unit.convert(time, TimeUnit.NANOSECONDS);
   }
 
   public boolean isNormative()
   {
     return isNormative;
   }
+
+  /**
+   * Returns the markup that must occur in a document for this validator to
+   * report anything on it, if any.
+   */
+  public Optional<ValidatorTrigger> getTrigger()
+  {
+    return trigger;
+  }
+
+  /**
+   * Returns <code>true</code> if the schema is a Schematron schema.
+   */
+  public boolean isSchematron()
+  {
+    return schemaName.endsWith(".sch");
+  }
 }
@@ -1,5 +1,9 @@
 package com.adobe.epubcheck.xml;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 public enum XMLValidators
 {
   CONTAINER_20_RNG("schema/20/rng/container.rng"),
@@ -39,7 +43,9 @@ public enum XMLValidators
   SVG_20_NVDL("schema/20/rng/ops20-svg.nvdl"),
   SVG_30_RNC("schema/30/epub-svg-30.rnc"),
   SVG_30_NVDL("schema/30/epub-svg-30.nvdl"),
-  SVG_30_INFORMATIVE_NVDL("schema/30/epub-svg-30-informative.nvdl", false),
+  // only validates SVG elements
+  SVG_30_INFORMATIVE_NVDL("schema/30/epub-svg-30-informative.nvdl", false,
+      ValidatorTrigger.element(Namespaces.SVG)),
   SVG_30_SCH("schema/30/epub-svg-30.sch"),
   XHTML_20_NVDL("schema/20/rng/ops20.nvdl"),
   XHTML_20_SCH("schema/20/sch/xhtml.sch"),
@@ -47,10 +53,14 @@ public enum XMLValidators
   XHTML_30_RNC("schema/30/epub-xhtml-30.rnc"),
   XHTML_30_NVDL("schema/30/epub-xhtml-30.nvdl"),
   XHTML_EDUPUB_STRUCTURE_SCH("schema/30/edupub/edu-structure.sch"),
-  XHTML_EDUPUB_SEMANTICS_SCH("schema/30/edupub/edu-semantics.sch"),
+  // all the rules apply to elements with an 'epub:type' attribute
+  XHTML_EDUPUB_SEMANTICS_SCH("schema/30/edupub/edu-semantics.sch",
+      ValidatorTrigger.attribute(Namespaces.OPS, "type")),
   XHTML_DATANAV_SCH("schema/30/datanav/datanav-xhtml.sch"),
   XHTML_DICT_SCH("schema/30/dict/dict-xhtml.sch"),
-  XHTML_IDX_SCH("schema/30/idx/idx-xhtml.sch"),
+  // all the rules apply to elements with an 'index*' semantic
+  XHTML_IDX_SCH("schema/30/idx/idx-xhtml.sch",
+      ValidatorTrigger.attribute(Namespaces.OPS, "type", value -> value.contains("index"))),
   XHTML_IDX_INDEX_SCH("schema/30/idx/idx-xhtml-index.sch");
 
   private final XMLValidator val;
@@ -62,12 +72,57 @@ public enum XMLValidators
 
   private XMLValidators(String schemaName, boolean isNormative)
   {
-    this.val = new XMLValidator(schemaName, isNormative);
+    this(schemaName, isNormative, null);
+  }
+
+  private XMLValidators(String schemaName, ValidatorTrigger trigger)
+  {
+    this(schemaName, true, trigger);
+  }
+
+  private XMLValidators(String schemaName, boolean isNormative, ValidatorTrigger trigger)
+  {
+    this.val = new XMLValidator(schemaName, isNormative, trigger);
   }
 
+  /**
+   * Returns the validator for this schema. The underlying schema is only
+   * compiled when first used, see {@link XMLValidator#getSchema()}.
+   */
   public XMLValidator get()
   {
     return val;
   }
 
+  /**
+   * Compiles the schemas of the given validators ahead of time, or the schemas
+   * of all the validators if none is given. This can be used to warm up a
+   * process that will run many validations.
+   */
+  public static void precompile(XMLValidators... validators)
+  {
+    for (XMLValidators validator : (validators.length == 0) ? values() : validators)
+    {
+      validator.val.getSchema();
+    }
+  }
+
+  /**
+   * Returns the compilation time of all the schemas compiled so far in this
+   * JVM, in the given unit.
+   */
+  public static Map<XMLValidators, Long> getCompilationTimes(TimeUnit unit)
+  {
+    Map<XMLValidators, Long> times = new EnumMap<>(XMLValidators.class);
+    for (XMLValidators validator : values())
+    {
+      long time = validator.val.getCompilationTime(unit);
+      if (time >= 0)
+      {
+        times.put(validator, time);
+      }
+    }
+    return times;
+  }
+
 }
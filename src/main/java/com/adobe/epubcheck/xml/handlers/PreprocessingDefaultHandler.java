@@ -2,7 +2,9 @@ package com.adobe.epubcheck.xml.handlers;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.Locator;
@@ -15,10 +17,23 @@ import com.adobe.epubcheck.opf.ValidationContext;
 import com.adobe.epubcheck.util.EPUBVersion;
 import com.adobe.epubcheck.xml.HTMLUtils;
 import com.adobe.epubcheck.xml.Namespaces;
+import com.google.common.base.Strings;
 
 public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
 {
 
+  /**
+   * The pre-processing applied to an attribute.
+   */
+  private enum Action
+  {
+    NONE,
+    REMOVE_DATA,
+    REMOVE_ITS,
+    REMOVE_CUSTOM_NAMESPACE,
+    NORMALIZE_CASE
+  }
+
   private static String findReservedStringInHTMLCustomNamespace(String namespace)
   {
     if (namespace != null)
@@ -26,8 +41,10 @@ public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
       try
       {
         URI uri = new URI(namespace);
-        if (uri.getHost().contains("w3.org")) return "w3.org";
-        if (uri.getHost().contains("idpf.org")) return "idpf.org";
+        String host = uri.getHost();
+        if (host == null) return null;
+        if (host.contains("w3.org")) return "w3.org";
+        if (host.contains("idpf.org")) return "idpf.org";
       } catch (URISyntaxException e)
       {
         // ignore
@@ -37,12 +54,18 @@ public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
   }
 
   private final ValidationContext context;
+  private final boolean isEPUB3;
+  private final boolean isXHTML;
+  // reserved strings found in custom namespaces (empty when none was found)
+  private final Map<String, String> reservedStrings = new HashMap<>();
   private Locator locator;
 
   public PreprocessingDefaultHandler(DefaultHandler handler, ValidationContext context)
   {
     super(handler);
     this.context = context;
+    this.isEPUB3 = context.version == EPUBVersion.VERSION_3;
+    this.isXHTML = "application/xhtml+xml".equals(context.mimeType);
   }
 
   @Override
@@ -62,8 +85,7 @@ public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
 
   private String preprocessNamespace(String uri, String localName)
   {
-    if (context.version == EPUBVersion.VERSION_3 && "application/xhtml+xml".equals(context.mimeType)
-        && HTMLUtils.isCustomElement(uri, localName))
+    if (isEPUB3 && isXHTML && HTMLUtils.isCustomElement(uri, localName))
     {
       // Pre-process HTML custom elements to set them in the proprietary
       // namespace supported by the Nu Html Checker
@@ -72,8 +94,68 @@ public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
     return uri;
   }
 
+  private Action actionFor(String elemNamespace, String namespace, String name)
+  {
+    if (!isEPUB3)
+    {
+      return Action.NONE;
+    }
+    // Remove data-* attributes in both XHTML and SVG
+    else if (HTMLUtils.isDataAttribute(namespace, name))
+    {
+      return Action.REMOVE_DATA;
+    }
+    // Filter its-* attributes
+    else if (HTMLUtils.isITSAttribute(namespace, name))
+    {
+      return Action.REMOVE_ITS;
+    }
+    // Remove custom namespace attributes in XHTML
+    else if (isXHTML && HTMLUtils.isCustomNamespace(namespace))
+    {
+      return Action.REMOVE_CUSTOM_NAMESPACE;
+    }
+    // Normalize case of case-insensitive attributes in XHTML
+    else if (isXHTML && Namespaces.XHTML.equals(elemNamespace)
+        && HTMLUtils.isCaseInsensitiveAttribute(namespace, name))
+    {
+      return Action.NORMALIZE_CASE;
+    }
+    return Action.NONE;
+  }
+
+  /**
+   * Returns whether the given attributes need to be pre-processed, so that
+   * the (common) attribute lists that don't are passed as is without copy.
+   */
+  private boolean needsPreprocessing(String elemNamespace, Attributes atts)
+  {
+    for (int i = 0; i < atts.getLength(); i++)
+    {
+      switch (actionFor(elemNamespace, atts.getURI(i), atts.getLocalName(i)))
+      {
+      case NONE:
+        break;
+      case NORMALIZE_CASE:
+        String value = atts.getValue(i);
+        if (!value.equals(value.toLowerCase(Locale.ENGLISH)))
+        {
+          return true;
+        }
+        break;
+      default:
+        return true;
+      }
+    }
+    return false;
+  }
+
   private Attributes preprocessAttributes(String elemNamespace, Attributes atts)
   {
+    if (!needsPreprocessing(elemNamespace, atts))
+    {
+      return atts;
+    }
     AttributesImpl attributes = new AttributesImpl(atts);
     try
     {
@@ -81,42 +163,34 @@ public final class PreprocessingDefaultHandler extends WrappingDefaultHandler
       {
         String namespace = attributes.getURI(i);
         String name = attributes.getLocalName(i);
-        if (context.version == EPUBVersion.VERSION_3)
+        switch (actionFor(elemNamespace, namespace, name))
         {
-          // Remove data-* attributes in both XHTML and SVG
-          if (HTMLUtils.isDataAttribute(namespace, name))
-          {
-            if (!HTMLUtils.isValidDataAttribute(name))
-            {
-              context.report.message(MessageId.HTM_061, LocationHandler.location(context, locator),
-                  name);
-            }
-            attributes.removeAttribute(i);
-          }
-          // Filter its-* attributes
-          else if (HTMLUtils.isITSAttribute(namespace, name))
-          {
-            attributes.removeAttribute(i);
-          }
-          // Remove custom namespace attributes in XHTML
-          else if ("application/xhtml+xml".equals(context.mimeType)
-              && HTMLUtils.isCustomNamespace(namespace))
+        case REMOVE_DATA:
+          if (!HTMLUtils.isValidDataAttribute(name))
           {
-            String reserved = findReservedStringInHTMLCustomNamespace(namespace);
-            if (reserved != null)
-            {
-              context.report.message(MessageId.HTM_054, LocationHandler.location(context, locator),
-                  namespace, reserved);
-            }
-            attributes.removeAttribute(i);
+            context.report.message(MessageId.HTM_061, LocationHandler.location(context, locator),
+                name);
           }
-          // Normalize case of case-insensitive attributes in XHTML
-          else if ("application/xhtml+xml".equals(context.mimeType)
-              && Namespaces.XHTML.equals(elemNamespace)
-              && HTMLUtils.isCaseInsensitiveAttribute(namespace, name))
+          attributes.removeAttribute(i);
+          break;
+        case REMOVE_ITS:
+          attributes.removeAttribute(i);
+          break;
+        case REMOVE_CUSTOM_NAMESPACE:
+          String reserved = reservedStrings.computeIfAbsent(namespace,
+              ns -> Strings.nullToEmpty(findReservedStringInHTMLCustomNamespace(ns)));
+          if (!reserved.isEmpty())
           {
-            attributes.setValue(i, attributes.getValue(i).toLowerCase(Locale.ENGLISH));
+            context.report.message(MessageId.HTM_054, LocationHandler.location(context, locator),
+                namespace, reserved);
           }
+          attributes.removeAttribute(i);
+          break;
+        case NORMALIZE_CASE:
+          attributes.setValue(i, attributes.getValue(i).toLowerCase(Locale.ENGLISH));
+          break;
+        default:
+          break;
         }
       }
     } catch (Exception e)
@@ -0,0 +1,529 @@
+package com.adobe.epubcheck.xml.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.DTDHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import com.adobe.epubcheck.xml.ValidatorTrigger;
+import com.google.common.base.Preconditions;
+
+/**
+ * A content handler recording the SAX events of a document once, and replaying
+ * them to each of its delegates in turn when the document ends. DTD events
+ * (notation and unparsed entity declarations) are recorded in document order
+ * along with the content events.
+ * <p>
+ * This is used for tree-building handlers like Schematron validators: instead
+ * of building one tree per handler concurrently while the document is parsed,
+ * only one handler at a time holds its tree in memory. Each event is replayed
+ * with the location it was recorded at, so that errors reported by the
+ * delegates are located as if they were attached to the parser directly.
+ * </p>
+ * <p>
+ * The recording is compact: events are encoded in an array of integers, names
+ * are shared in a table of strings, and text (character data and attribute
+ * values) is appended to a single character buffer. It takes about half the
+ * memory of the tree built by a Schematron validator for the same document.
+ * </p>
+ * <p>
+ * A delegate can be added with a {@link ValidatorTrigger}, in which case the
+ * document is only replayed to it if one of its elements matches the trigger.
+ * </p>
+ */
+public final class ReplayingContentHandler implements ContentHandler, DTDHandler
+{
+
+  // event codes, each followed by the event location (the line number if it
+  // changed, then the column number) and by its operands in the events array;
+  // text operands are lengths, as text is read back in the order it was
+  // recorded
+  private static final int START_PREFIX_MAPPING = 0; // prefix, uri
+  private static final int END_PREFIX_MAPPING = 1; // prefix
+  private static final int START_ELEMENT = 2; // name, count, count * (name, text)
+  private static final int END_ELEMENT = 3; // name
+  private static final int CHARACTERS = 4; // text
+  private static final int IGNORABLE_WHITESPACE = 5; // text
+  private static final int PROCESSING_INSTRUCTION = 6; // target, text
+  private static final int SKIPPED_ENTITY = 7; // name
+  private static final int NOTATION_DECL = 8; // name, publicId, systemId
+  private static final int UNPARSED_ENTITY_DECL = 9; // name, publicId, systemId,
+                                                     // notationName
+  private static final int CODE_MASK = 0xF;
+  // flags an event code followed by a new line number
+  private static final int NEW_LINE = 0x10;
+
+  private final List<ContentHandler> delegates = new ArrayList<>();
+  // the DTD handler of each delegate, or null
+  private final List<DTDHandler> dtdHandlers = new ArrayList<>();
+  // the trigger of each delegate, or null
+  private final List<ValidatorTrigger> triggers = new ArrayList<>();
+  // whether the trigger of each delegate matched the current document
+  private boolean[] triggered = new boolean[0];
+
+  // the recorded events
+  private int[] events = new int[0];
+  private int eventsLength = 0;
+  private int eventCount = 0;
+  private int lastLine = -1;
+  // the element and attribute names referenced by the events
+  private final List<Name> names = new ArrayList<>();
+  private final Map<Name, Integer> nameIndexes = new HashMap<>();
+  private final Name probe = new Name();
+  // the other strings referenced by the events (prefixes, identifiers)
+  private final List<String> strings = new ArrayList<>();
+  private final Map<String, Integer> stringIndexes = new HashMap<>();
+  // the character data, attribute values and processing instruction data
+  // (a string builder stores Latin-1 text with one byte per character)
+  private final StringBuilder text = new StringBuilder();
+  private Locator locator;
+
+  public void addDelegate(ContentHandler handler, DTDHandler dtdHandler)
+  {
+    addDelegate(handler, dtdHandler, null);
+  }
+
+  /**
+   * Adds a delegate to which the document is only replayed if one of its
+   * elements matches the given trigger (if not <code>null</code>).
+   */
+  public void addDelegate(ContentHandler handler, DTDHandler dtdHandler,
+      ValidatorTrigger trigger)
+  {
+    Preconditions.checkState(eventCount == 0, "cannot add a delegate while recording");
+    if (handler != null)
+    {
+      delegates.add(handler);
+      dtdHandlers.add(dtdHandler);
+      triggers.add(trigger);
+    }
+  }
+
+  /**
+   * Starts recording an event at the current location.
+   */
+  private void startEvent(int code)
+  {
+    int line = (locator != null) ? locator.getLineNumber() : -1;
+    int column = (locator != null) ? locator.getColumnNumber() : -1;
+    eventCount++;
+    if (line != lastLine)
+    {
+      add(code | NEW_LINE);
+      add(line);
+      lastLine = line;
+    }
+    else
+    {
+      add(code);
+    }
+    add(column);
+  }
+
+  private void add(int operand)
+  {
+    if (eventsLength == events.length)
+    {
+      events = Arrays.copyOf(events, Math.max(4096, eventsLength * 2));
+    }
+    events[eventsLength++] = operand;
+  }
+
+  private void addName(String uri, String localName, String qName, String type)
+  {
+    probe.set(uri, localName, qName, type);
+    Integer index = nameIndexes.get(probe);
+    if (index == null)
+    {
+      Name name = new Name();
+      name.set(uri, localName, qName, type);
+      index = names.size();
+      names.add(name);
+      nameIndexes.put(name, index);
+    }
+    add(index);
+  }
+
+  private void addString(String string)
+  {
+    if (string == null)
+    {
+      add(-1);
+      return;
+    }
+    Integer index = stringIndexes.get(string);
+    if (index == null)
+    {
+      index = strings.size();
+      strings.add(string);
+      stringIndexes.put(string, index);
+    }
+    add(index);
+  }
+
+  private String getString(int index)
+  {
+    return (index < 0) ? null : strings.get(index);
+  }
+
+  @Override
+  public void setDocumentLocator(Locator locator)
+  {
+    this.locator = locator;
+  }
+
+  @Override
+  public void startDocument()
+    throws SAXException
+  {
+    clear();
+    triggered = new boolean[delegates.size()];
+    for (int i = 0; i < triggered.length; i++)
+    {
+      triggered[i] = triggers.get(i) == null;
+    }
+  }
+
+  private void clear()
+  {
+    events = new int[0];
+    eventsLength = 0;
+    eventCount = 0;
+    lastLine = -1;
+    names.clear();
+    nameIndexes.clear();
+    strings.clear();
+    stringIndexes.clear();
+    text.setLength(0);
+    text.trimToSize();
+  }
+
+  @Override
+  public void endDocument()
+    throws SAXException
+  {
+    ReplayLocator replayLocator = new ReplayLocator(locator);
+    try
+    {
+      for (int d = 0; d < delegates.size(); d++)
+      {
+        if (!triggered[d])
+        {
+          // the delegate cannot report anything on this document
+          continue;
+        }
+        ContentHandler delegate = delegates.get(d);
+        delegate.setDocumentLocator(replayLocator);
+        replayLocator.moveTo(-1, -1);
+        delegate.startDocument();
+        replay(delegate, dtdHandlers.get(d), replayLocator);
+        delegate.endDocument();
+      }
+    } finally
+    {
+      clear();
+    }
+  }
+
+  private void replay(ContentHandler handler, DTDHandler dtdHandler, ReplayLocator replayLocator)
+    throws SAXException
+  {
+    // attributes and characters are reused from one event to the next, as SAX
+    // allows
+    AttributesImpl atts = new AttributesImpl();
+    char[] chars = new char[1024];
+    int i = 0;
+    int textOffset = 0;
+    int line = -1;
+    for (int event = 0; event < eventCount; event++)
+    {
+      int code = events[i++];
+      if ((code & NEW_LINE) != 0)
+      {
+        line = events[i++];
+      }
+      replayLocator.moveTo(line, events[i++]);
+      switch (code & CODE_MASK)
+      {
+      case START_PREFIX_MAPPING:
+        handler.startPrefixMapping(getString(events[i]), getString(events[i + 1]));
+        i += 2;
+        break;
+      case END_PREFIX_MAPPING:
+        handler.endPrefixMapping(getString(events[i++]));
+        break;
+      case START_ELEMENT:
+      {
+        Name name = names.get(events[i++]);
+        int count = events[i++];
+        atts.clear();
+        for (int a = 0; a < count; a++)
+        {
+          Name attName = names.get(events[i++]);
+          int length = events[i++];
+          atts.addAttribute(attName.uri, attName.localName, attName.qName, attName.type,
+              text.substring(textOffset, textOffset + length));
+          textOffset += length;
+        }
+        handler.startElement(name.uri, name.localName, name.qName, atts);
+        break;
+      }
+      case END_ELEMENT:
+      {
+        Name name = names.get(events[i++]);
+        handler.endElement(name.uri, name.localName, name.qName);
+        break;
+      }
+      case CHARACTERS:
+      case IGNORABLE_WHITESPACE:
+      {
+        int length = events[i++];
+        if (chars.length < length)
+        {
+          chars = new char[length];
+        }
+        text.getChars(textOffset, textOffset + length, chars, 0);
+        textOffset += length;
+        if ((code & CODE_MASK) == CHARACTERS)
+        {
+          handler.characters(chars, 0, length);
+        }
+        else
+        {
+          handler.ignorableWhitespace(chars, 0, length);
+        }
+        break;
+      }
+      case PROCESSING_INSTRUCTION:
+      {
+        String target = getString(events[i++]);
+        int length = events[i++];
+        handler.processingInstruction(target,
+            text.substring(textOffset, textOffset + length));
+        textOffset += length;
+        break;
+      }
+      case SKIPPED_ENTITY:
+        handler.skippedEntity(getString(events[i++]));
+        break;
+      case NOTATION_DECL:
+        if (dtdHandler != null)
+        {
+          dtdHandler.notationDecl(getString(events[i]), getString(events[i + 1]),
+              getString(events[i + 2]));
+        }
+        i += 3;
+        break;
+      case UNPARSED_ENTITY_DECL:
+        if (dtdHandler != null)
+        {
+          dtdHandler.unparsedEntityDecl(getString(events[i]), getString(events[i + 1]),
+              getString(events[i + 2]), getString(events[i + 3]));
+        }
+        i += 4;
+        break;
+      default:
+        throw new AssertionError("unknown event code");
+      }
+    }
+  }
+
+  @Override
+  public void startPrefixMapping(String prefix, String uri)
+    throws SAXException
+  {
+    startEvent(START_PREFIX_MAPPING);
+    addString(prefix);
+    addString(uri);
+  }
+
+  @Override
+  public void endPrefixMapping(String prefix)
+    throws SAXException
+  {
+    startEvent(END_PREFIX_MAPPING);
+    addString(prefix);
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes atts)
+    throws SAXException
+  {
+    for (int i = 0; i < triggered.length; i++)
+    {
+      if (!triggered[i] && triggers.get(i).matches(uri, atts))
+      {
+        triggered[i] = true;
+      }
+    }
+    startEvent(START_ELEMENT);
+    addName(uri, localName, qName, null);
+    int count = atts.getLength();
+    add(count);
+    for (int i = 0; i < count; i++)
+    {
+      addName(atts.getURI(i), atts.getLocalName(i), atts.getQName(i), atts.getType(i));
+      String value = atts.getValue(i);
+      add(value.length());
+      text.append(value);
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName)
+    throws SAXException
+  {
+    startEvent(END_ELEMENT);
+    addName(uri, localName, qName, null);
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length)
+    throws SAXException
+  {
+    startEvent(CHARACTERS);
+    add(length);
+    text.append(ch, start, length);
+  }
+
+  @Override
+  public void ignorableWhitespace(char[] ch, int start, int length)
+    throws SAXException
+  {
+    startEvent(IGNORABLE_WHITESPACE);
+    add(length);
+    text.append(ch, start, length);
+  }
+
+  @Override
+  public void processingInstruction(String target, String data)
+    throws SAXException
+  {
+    startEvent(PROCESSING_INSTRUCTION);
+    addString(target);
+    add(data.length());
+    text.append(data);
+  }
+
+  @Override
+  public void skippedEntity(String name)
+    throws SAXException
+  {
+    startEvent(SKIPPED_ENTITY);
+    addString(name);
+  }
+
+  @Override
+  public void notationDecl(String name, String publicId, String systemId)
+    throws SAXException
+  {
+    startEvent(NOTATION_DECL);
+    addString(name);
+    addString(publicId);
+    addString(systemId);
+  }
+
+  @Override
+  public void unparsedEntityDecl(String name, String publicId, String systemId,
+      String notationName)
+    throws SAXException
+  {
+    startEvent(UNPARSED_ENTITY_DECL);
+    addString(name);
+    addString(publicId);
+    addString(systemId);
+    addString(notationName);
+  }
+
+  /**
+   * The name of a recorded element or attribute, shared by all the events
+   * using it.
+   */
+  private static final class Name
+  {
+    private String uri;
+    private String localName;
+    private String qName;
+    private String type;
+
+    private void set(String uri, String localName, String qName, String type)
+    {
+      this.uri = uri;
+      this.localName = localName;
+      this.qName = qName;
+      this.type = type;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return Objects.hash(uri, localName, qName, type);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if (!(obj instanceof Name)) return false;
+      Name other = (Name) obj;
+      return Objects.equals(uri, other.uri) && Objects.equals(localName, other.localName)
+          && Objects.equals(qName, other.qName) && Objects.equals(type, other.type);
+    }
+  }
+
+  /**
+   * A locator returning the recorded position of the replayed event, and the
+   * identifiers of the parsed document.
+   */
+  private static final class ReplayLocator implements Locator
+  {
+    private final String publicId;
+    private final String systemId;
+    private int line = -1;
+    private int column = -1;
+
+    public ReplayLocator(Locator locator)
+    {
+      this.publicId = (locator != null) ? locator.getPublicId() : null;
+      this.systemId = (locator != null) ? locator.getSystemId() : null;
+    }
+
+    public void moveTo(int line, int column)
+    {
+      this.line = line;
+      this.column = column;
+    }
+
+    @Override
+    public String getPublicId()
+    {
+      return publicId;
+    }
+
+    @Override
+    public String getSystemId()
+    {
+      return systemId;
+    }
+
+    @Override
+    public int getLineNumber()
+    {
+      return line;
+    }
+
+    @Override
+    public int getColumnNumber()
+    {
+      return column;
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package com.adobe.epubcheck.xml.handlers;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A content handler forwarding the SAX events to a delegate, and accumulating
+ * the wall time spent in the delegate.
+ * <p>
+ * This is used to measure the time spent in each schema validator while a
+ * document is parsed, since the validators don't run in a phase of their own.
+ * </p>
+ */
+public final class TimingContentHandler implements ContentHandler
+{
+
+  private final ContentHandler delegate;
+  private final String name;
+  private long time = 0L;
+
+  public TimingContentHandler(ContentHandler delegate, String name)
+  {
+    this.delegate = Preconditions.checkNotNull(delegate);
+    this.name = Preconditions.checkNotNull(name);
+  }
+
+  /**
+   * Returns the name of the measured handler.
+   */
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * Returns the wall time spent in the delegate, in nanoseconds.
+   */
+  public long getTime()
+  {
+    return time;
+  }
+
+  @Override
+  public void setDocumentLocator(Locator locator)
+  {
+    delegate.setDocumentLocator(locator);
+  }
+
+  @Override
+  public void startDocument()
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.startDocument();
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void endDocument()
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.endDocument();
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void startPrefixMapping(String prefix, String uri)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.startPrefixMapping(prefix, uri);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void endPrefixMapping(String prefix)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.endPrefixMapping(prefix);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void startElement(String uri, String localName, String qName, Attributes atts)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.startElement(uri, localName, qName, atts);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void endElement(String uri, String localName, String qName)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.endElement(uri, localName, qName);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void characters(char[] ch, int start, int length)
+    throws SAXException
+  {
+    long begin = System.nanoTime();
+    try
+    {
+      delegate.characters(ch, start, length);
+    } finally
+    {
+      time += System.nanoTime() - begin;
+    }
+  }
+
+  @Override
+  public void ignorableWhitespace(char[] ch, int start, int length)
+    throws SAXException
+  {
+    long begin = System.nanoTime();
+    try
+    {
+      delegate.ignorableWhitespace(ch, start, length);
+    } finally
+    {
+      time += System.nanoTime() - begin;
+    }
+  }
+
+  @Override
+  public void processingInstruction(String target, String data)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.processingInstruction(target, data);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+
+  @Override
+  public void skippedEntity(String name)
+    throws SAXException
+  {
+    long start = System.nanoTime();
+    try
+    {
+      delegate.skippedEntity(name);
+    } finally
+    {
+      time += System.nanoTime() - start;
+    }
+  }
+}
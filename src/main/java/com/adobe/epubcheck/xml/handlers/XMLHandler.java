@@ -31,13 +31,14 @@ import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.api.Report;
 import com.adobe.epubcheck.messages.MessageId;
 import com.adobe.epubcheck.opf.ValidationContext;
-import com.adobe.epubcheck.xml.model.XMLAttribute;
 import com.adobe.epubcheck.xml.model.XMLElement;
+import com.adobe.epubcheck.xml.model.XMLElementStack;
 
 import io.mola.galimatias.URL;
 
 public abstract class XMLHandler extends BaseURLHandler
 {
+  private final XMLElementStack elements = new XMLElementStack();
   private XMLElement currentElement = null;
   private Locator2 locator;
   protected final ValidationContext context;
@@ -76,42 +77,7 @@ public abstract class XMLHandler extends BaseURLHandler
     }
 
     // Build the XML model
-    int index = qName.indexOf(':');
-    String prefix;
-    String name;
-    if (index < 0)
-    {
-      prefix = null;
-      name = qName;
-    }
-    else
-    {
-      prefix = qName.substring(0, index);
-      name = qName.substring(index + 1);
-    }
-    int count = attribs.getLength();
-    XMLAttribute[] attributes = count == 0 ? null : new XMLAttribute[count];
-    for (int i = 0; i < count; i++)
-    {
-      String attName = attribs.getLocalName(i);
-      String attNamespace = attribs.getURI(i);
-      String attQName = attribs.getQName(i);
-      int attIndex = attQName.indexOf(':');
-      String attPrefix;
-      if (attIndex < 0)
-      {
-        attPrefix = null;
-        attNamespace = null;
-      }
-      else
-      {
-        attPrefix = attQName.substring(0, attIndex);
-      }
-      String attValue = attribs.getValue(i);
-      assert attributes != null;
-      attributes[i] = new XMLAttribute(attNamespace, attPrefix, attName, attValue);
-    }
-    currentElement = new XMLElement(uri, prefix, name, attributes, currentElement);
+    currentElement = elements.push(uri, localName, qName, attribs);
     startElement();
   }
 
@@ -123,7 +89,7 @@ public abstract class XMLHandler extends BaseURLHandler
   public final void endElement(String uri, String localName, String qName)
   {
     endElement();
-    currentElement = currentElement.getParent();
+    currentElement = elements.pop();
   }
 
   protected void endElement()
@@ -133,6 +99,10 @@ public abstract class XMLHandler extends BaseURLHandler
   /**
    * Return the currently parsed element, or <code>null</code> if the parser is
    * not yet parsing an element.
+   * <p>
+   * Element objects are reused once their end tag has been parsed, they must
+   * not be kept beyond the {@link #endElement()} call of that element.
+   * </p>
    * 
    * @return the currently parsed element, or <code>null</code>.
    */
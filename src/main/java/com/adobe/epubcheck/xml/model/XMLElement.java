@@ -25,34 +25,105 @@ package com.adobe.epubcheck.xml.model;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.xml.sax.Attributes;
+
 public class XMLElement extends XMLNode
 {
 
-  private final XMLAttribute[] attributes;
+  private static final String[] NO_ATTRIBUTES = new String[0];
+
+  // attribute namespaces, prefixes, names and values, by groups of 4
+  private String[] attributeData = NO_ATTRIBUTES;
+  private int attributeCount = 0;
+
+  // attribute nodes, created on demand
+  private XMLAttribute[] attributes = null;
 
-  private final XMLElement parent;
+  private XMLElement parent;
 
-  private final Map<String, Object> privateData = new HashMap<>();
+  // created on demand, most elements don't have private data
+  private Map<String, Object> privateData = null;
 
   public XMLElement(String namespace, String prefix, String name,
       XMLAttribute[] attributes, XMLElement parent)
   {
     super(namespace, prefix, name);
-    this.attributes = attributes;
     this.parent = parent;
+    if (attributes != null)
+    {
+      this.attributeCount = attributes.length;
+      this.attributeData = new String[4 * attributes.length];
+      for (int i = 0; i < attributes.length; i++)
+      {
+        setAttribute(i, attributes[i].getNamespace(), attributes[i].getPrefix(),
+            attributes[i].getName(), attributes[i].getValue());
+      }
+      this.attributes = attributes.clone();
+    }
   }
 
-  public int getAttributeCount()
+  /**
+   * Sets this element to the given name, attributes and parent, discarding its
+   * previous state, so that it can be reused by an {@link XMLElementStack}.
+   */
+  void reset(String namespace, String prefix, String name, Attributes attribs,
+      XMLElementStack.NameTable names, XMLElement parent)
   {
-    if (attributes == null)
+    setName(namespace, prefix, name);
+    this.parent = parent;
+    if (privateData != null)
+    {
+      privateData.clear();
+    }
+    attributes = null;
+    int count = attribs.getLength();
+    if (attributeData.length < 4 * count)
+    {
+      attributeData = new String[Math.max(4 * count, 2 * attributeData.length)];
+    }
+    for (int i = 0; i < count; i++)
     {
-      return 0;
+      String attPrefix = names.prefix(attribs.getQName(i));
+      // unprefixed attributes are in no namespace
+      setAttribute(i, attPrefix == null ? null : attribs.getURI(i), attPrefix,
+          attribs.getLocalName(i), attribs.getValue(i));
     }
-    return attributes.length;
+    // release the values of the previous (longer) attribute list
+    for (int i = 4 * count; i < 4 * attributeCount; i++)
+    {
+      attributeData[i] = null;
+    }
+    this.attributeCount = count;
+  }
+
+  private void setAttribute(int i, String namespace, String prefix, String name, String value)
+  {
+    attributeData[4 * i] = namespace;
+    attributeData[4 * i + 1] = prefix;
+    attributeData[4 * i + 2] = name;
+    attributeData[4 * i + 3] = value;
+  }
+
+  public int getAttributeCount()
+  {
+    return attributeCount;
   }
 
   public XMLAttribute getAttribute(int i)
   {
+    if (i < 0 || i >= attributeCount)
+    {
+      throw new ArrayIndexOutOfBoundsException(i);
+    }
+    if (attributes == null)
+    {
+      attributes = new XMLAttribute[attributeCount];
+    }
+    if (attributes[i] == null)
+    {
+      attributes[i] = new XMLAttribute(attributeData[4 * i], attributeData[4 * i + 1],
+          attributeData[4 * i + 2], attributeData[4 * i + 3]);
+    }
     return attributes[i];
   }
 
@@ -63,17 +134,13 @@ public class XMLElement extends XMLNode
 
   public String getAttributeNS(String ns, String name)
   {
-    if (attributes == null)
+    for (int i = 0; i < attributeCount; i++)
     {
-      return null;
-    }
-    for (XMLAttribute attr : attributes)
-    {
-      String ans = attr.getNamespace();
-      if (attr.getName().equals(name)
+      String ans = attributeData[4 * i];
+      if (attributeData[4 * i + 2].equals(name)
           && (ans == null ? ns == null : ns != null && ans.equals(ns)))
       {
-        return attr.getValue();
+        return attributeData[4 * i + 3];
       }
     }
     return null;
@@ -86,18 +153,22 @@ public class XMLElement extends XMLNode
 
   public final Object getPrivateData(String key)
   {
-    return privateData.get(key);
+    return (privateData == null) ? null : privateData.get(key);
   }
 
   public final Map<String, Object> getPrivateData()
   {
+    if (privateData == null)
+    {
+      privateData = new HashMap<>();
+    }
     return privateData;
   }
 
   public final void setPrivateData(String key, Object privateData)
   {
     if (key != null)
-    this.privateData.put(key, privateData);
+    getPrivateData().put(key, privateData);
   }
 
 }
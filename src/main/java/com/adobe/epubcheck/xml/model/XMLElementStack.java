@@ -0,0 +1,122 @@
+package com.adobe.epubcheck.xml.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xml.sax.Attributes;
+
+/**
+ * The stack of the currently open elements of a parsed XML document.
+ * <p>
+ * Element objects are reused: when an element is popped, its object is kept
+ * and reset for the next element pushed at the same depth. As a consequence, an
+ * element returned by this stack must not be used after it has been popped.
+ * </p>
+ * <p>
+ * The attributes of pushed elements are copied from the SAX {@link Attributes}
+ * without creating attribute nodes (they are created on demand), and the
+ * prefixes of qualified names are shared across the document.
+ * </p>
+ */
+public final class XMLElementStack
+{
+
+  private final List<XMLElement> frames = new ArrayList<>();
+  private final NameTable names = new NameTable();
+  private int depth = 0;
+
+  /**
+   * Pushes a new element on the stack, built from the given SAX event data.
+   * 
+   * @return the new current element
+   */
+  public XMLElement push(String uri, String localName, String qName, Attributes attribs)
+  {
+    String prefix = names.prefix(qName);
+    String name = localName.isEmpty() ? names.localName(qName) : localName;
+    XMLElement parent = peek();
+    if (depth == frames.size())
+    {
+      frames.add(new XMLElement(null, null, null, null, null));
+    }
+    XMLElement element = frames.get(depth);
+    element.reset(uri, prefix, name, attribs, names, parent);
+    depth++;
+    return element;
+  }
+
+  /**
+   * Pops the current element.
+   * 
+   * @return the new current element (i.e. the parent of the popped element),
+   *         or <code>null</code> if the stack is empty
+   */
+  public XMLElement pop()
+  {
+    if (depth == 0)
+    {
+      throw new IllegalStateException("no element to pop");
+    }
+    depth--;
+    return peek();
+  }
+
+  /**
+   * Returns the current element, or <code>null</code> if the stack is empty.
+   */
+  public XMLElement peek()
+  {
+    return (depth == 0) ? null : frames.get(depth - 1);
+  }
+
+  /**
+   * Shares the prefixes and local names extracted from qualified names, to
+   * avoid creating new strings for every element and attribute.
+   */
+  static final class NameTable
+  {
+    private final Map<String, String> prefixes = new HashMap<>();
+    private final Map<String, String> localNames = new HashMap<>();
+
+    /**
+     * Returns the prefix of the given qualified name, or <code>null</code> if
+     * it has none.
+     */
+    String prefix(String qName)
+    {
+      int index = qName.indexOf(':');
+      if (index < 0)
+      {
+        return null;
+      }
+      return share(prefixes, qName, 0, index);
+    }
+
+    /**
+     * Returns the local part of the given qualified name.
+     */
+    String localName(String qName)
+    {
+      int index = qName.indexOf(':');
+      if (index < 0)
+      {
+        return qName;
+      }
+      return share(localNames, qName, index + 1, qName.length());
+    }
+
+    private static String share(Map<String, String> table, String qName, int start, int end)
+    {
+      // not using computeIfAbsent, which would allocate a capturing lambda
+      String result = table.get(qName);
+      if (result == null)
+      {
+        result = qName.substring(start, end);
+        table.put(qName, result);
+      }
+      return result;
+    }
+  }
+}
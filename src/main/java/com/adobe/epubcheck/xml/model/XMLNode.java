@@ -25,11 +25,16 @@ package com.adobe.epubcheck.xml.model;
 public abstract class XMLNode
 {
 
-  private final String namespace;
-  private final String name;
-  private final String prefix;
+  private String namespace;
+  private String name;
+  private String prefix;
 
   public XMLNode(String namespace, String prefix, String name)
+  {
+    setName(namespace, prefix, name);
+  }
+
+  void setName(String namespace, String prefix, String name)
   {
     this.namespace = namespace;
     this.prefix = prefix;
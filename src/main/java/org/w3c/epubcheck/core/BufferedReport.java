@@ -0,0 +1,233 @@
+package org.w3c.epubcheck.core;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.LocalizableReport;
+import com.adobe.epubcheck.api.Report;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.messages.MessageDictionary;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.adobe.epubcheck.util.ReportingLevel;
+import com.google.common.base.Preconditions;
+
+/**
+ * A report that records messages and features in memory, and replays them to
+ * a delegate report, in the same order, when {@link #flush()} is called.
+ * <p>
+ * This is used to check publication resources concurrently while keeping a
+ * deterministic output: each resource is checked with its own buffered report,
+ * and the buffers are flushed in the order of the resources.
+ * </p>
+ * <p>
+ * The message counts returned by this report only account for the messages
+ * recorded in this buffer, not for the messages already reported to the
+ * delegate: a check depending on a count must compare it to the count when it
+ * started, rather than expect a publication-wide count. The report
+ * configuration (file name, reporting level, locale, custom messages) is
+ * shared with the delegate report.
+ * </p>
+ */
+public final class BufferedReport implements LocalizableReport
+{
+
+  private static interface Entry
+  {
+    void replay(Report report);
+  }
+
+  private final Report delegate;
+  private final List<Entry> entries = new ArrayList<>();
+  private int errorCount, warningCount, fatalErrorCount, usageCount, infoCount = 0;
+
+  public BufferedReport(Report delegate)
+  {
+    this.delegate = Preconditions.checkNotNull(delegate);
+  }
+
+  /**
+   * Replays all the recorded messages and features to the delegate report, and
+   * clears this buffer.
+   */
+  public void flush()
+  {
+    for (Entry entry : entries)
+    {
+      entry.replay(delegate);
+    }
+    entries.clear();
+  }
+
+  @Override
+  public void message(final MessageId id, final EPUBLocation location, final Object... args)
+  {
+    count(delegate.getDictionary().getMessage(id).getSeverity());
+    entries.add(report -> report.message(id, location, args));
+  }
+
+  @Override
+  public void message(final Message message, final EPUBLocation location, final Object... args)
+  {
+    count(message.getSeverity());
+    entries.add(report -> report.message(message, location, args));
+  }
+
+  private void count(Severity severity)
+  {
+    if (ReportingLevel.getReportingLevel(severity) >= getReportingLevel())
+    {
+      switch (severity)
+      {
+      case FATAL:
+        fatalErrorCount++;
+        break;
+      case ERROR:
+        errorCount++;
+        break;
+      case WARNING:
+        warningCount++;
+        break;
+      case USAGE:
+        usageCount++;
+        break;
+      case INFO:
+        infoCount++;
+        break;
+      default:
+        break;
+      }
+    }
+  }
+
+  @Override
+  public void info(final String resource, final FeatureEnum feature, final String value)
+  {
+    entries.add(report -> report.info(resource, feature, value));
+  }
+
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    return delegate.usesFeature(feature);
+  }
+
+  @Override
+  public int getErrorCount()
+  {
+    return errorCount;
+  }
+
+  @Override
+  public int getWarningCount()
+  {
+    return warningCount;
+  }
+
+  @Override
+  public int getFatalErrorCount()
+  {
+    return fatalErrorCount;
+  }
+
+  @Override
+  public int getInfoCount()
+  {
+    return infoCount;
+  }
+
+  @Override
+  public int getUsageCount()
+  {
+    return usageCount;
+  }
+
+  /**
+   * Does nothing and returns <code>0</code>: the buffer doesn't own an output,
+   * the delegate report is generated by its owner once all the buffers are
+   * flushed (generating it here would produce a partial report).
+   */
+  @Override
+  public int generate()
+  {
+    return 0;
+  }
+
+  @Override
+  public void initialize()
+  {
+  }
+
+  @Override
+  public void setEpubFileName(String value)
+  {
+    delegate.setEpubFileName(value);
+  }
+
+  @Override
+  public String getEpubFileName()
+  {
+    return delegate.getEpubFileName();
+  }
+
+  @Override
+  public void setCustomMessageFile(String customMessageFileName)
+  {
+    delegate.setCustomMessageFile(customMessageFileName);
+  }
+
+  @Override
+  public String getCustomMessageFile()
+  {
+    return delegate.getCustomMessageFile();
+  }
+
+  @Override
+  public int getReportingLevel()
+  {
+    return delegate.getReportingLevel();
+  }
+
+  @Override
+  public void setReportingLevel(int level)
+  {
+    delegate.setReportingLevel(level);
+  }
+
+  @Override
+  public void close()
+  {
+  }
+
+  @Override
+  public void setOverrideFile(File customMessageFile)
+  {
+    delegate.setOverrideFile(customMessageFile);
+  }
+
+  @Override
+  public MessageDictionary getDictionary()
+  {
+    return delegate.getDictionary();
+  }
+
+  @Override
+  public void setLocale(Locale locale)
+  {
+    if (delegate instanceof LocalizableReport)
+    {
+      ((LocalizableReport) delegate).setLocale(locale);
+    }
+  }
+
+  @Override
+  public Locale getLocale()
+  {
+    return (delegate instanceof LocalizableReport) ? ((LocalizableReport) delegate).getLocale()
+        : null;
+  }
+}
@@ -0,0 +1,123 @@
+package org.w3c.epubcheck.core;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Executors running the concurrent parts of the checks on a pool of threads
+ * shared by all the checks of the JVM.
+ * <p>
+ * Threads are long-lived, so that the per-thread resources (SAX parsers,
+ * schema validators) they pool are reused from one publication to the next,
+ * e.g. in batch or server mode. Idle threads are discarded after a few
+ * minutes.
+ * </p>
+ * <p>
+ * The number of shared threads is capped (to twice the number of processors,
+ * unless set with the <code>epubcheck.maxThreads</code> system property):
+ * tasks submitted when all the threads are busy wait in a queue.
+ * </p>
+ */
+public final class CheckExecutors
+{
+
+  private static final long KEEP_ALIVE_MINUTES = 5;
+
+  static final int MAX_THREADS = Math.max(1, Integer.getInteger("epubcheck.maxThreads",
+      2 * Runtime.getRuntime().availableProcessors()));
+
+  private static final ThreadPoolExecutor SHARED = new ThreadPoolExecutor(MAX_THREADS,
+      MAX_THREADS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+      new ThreadFactory()
+      {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+          Thread thread = new Thread(runnable, "epubcheck-worker-" + count.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+
+  static
+  {
+    // threads are only started when needed, and discarded when idle
+    SHARED.allowCoreThreadTimeOut(true);
+  }
+
+  private CheckExecutors()
+  {
+  }
+
+  /**
+   * Returns an executor running at most the given number of tasks at once on
+   * the shared threads. Tasks are started in submission order.
+   */
+  public static Executor bounded(int threads)
+  {
+    Preconditions.checkArgument(threads > 0, "threads must be positive");
+    return new BoundedExecutor(threads);
+  }
+
+  private static final class BoundedExecutor implements Executor
+  {
+    private final int maxRunning;
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+    private int running = 0;
+
+    private BoundedExecutor(int maxRunning)
+    {
+      this.maxRunning = maxRunning;
+    }
+
+    @Override
+    public void execute(Runnable task)
+    {
+      Preconditions.checkNotNull(task);
+      synchronized (this)
+      {
+        queue.add(task);
+        if (running == maxRunning)
+        {
+          return;
+        }
+        running++;
+      }
+      SHARED.execute(this::drain);
+    }
+
+    private void drain()
+    {
+      while (true)
+      {
+        Runnable task;
+        synchronized (this)
+        {
+          task = queue.poll();
+          if (task == null)
+          {
+            running--;
+            return;
+          }
+        }
+        try
+        {
+          task.run();
+        } catch (RuntimeException e)
+        {
+          // the task is responsible for reporting its own failure
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package org.w3c.epubcheck.core;
+
+import java.io.File;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.LocalizableReport;
+import com.adobe.epubcheck.api.MessageLimits;
+import com.adobe.epubcheck.api.Report;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.messages.MessageDictionary;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.adobe.epubcheck.util.ReportingLevel;
+import com.google.common.base.Preconditions;
+
+/**
+ * A report forwarding messages and features to a delegate report, until one of
+ * the given {@link MessageLimits} is reached. The messages reported after that
+ * are dropped, and checkers are expected to stop as soon as possible, see
+ * {@link #isLimitReached()}.
+ * <p>
+ * The limit status can be read from any thread.
+ * </p>
+ */
+public final class LimitedReport implements LocalizableReport
+{
+
+  private final Report delegate;
+  private final MessageLimits limits;
+  private final Map<Severity, Integer> severityCounts = new EnumMap<>(Severity.class);
+  private final Map<MessageId, Integer> idCounts = new EnumMap<>(MessageId.class);
+  private volatile String limitReached = null;
+
+  public LimitedReport(Report delegate, MessageLimits limits)
+  {
+    this.delegate = Preconditions.checkNotNull(delegate);
+    this.limits = Preconditions.checkNotNull(limits);
+  }
+
+  /**
+   * Returns the report messages are forwarded to.
+   */
+  public Report getDelegate()
+  {
+    return delegate;
+  }
+
+  /**
+   * Returns the limits applied by this report.
+   */
+  public MessageLimits getLimits()
+  {
+    return limits;
+  }
+
+  /**
+   * Returns <code>true</code> if a limit was reached, in which case the check
+   * must stop.
+   */
+  public boolean isLimitReached()
+  {
+    return limitReached != null;
+  }
+
+  /**
+   * Returns the first limit reached, as a <code>KEY=N</code> pair, or
+   * <code>null</code> if no limit was reached.
+   */
+  public String getLimitReached()
+  {
+    return limitReached;
+  }
+
+  @Override
+  public void message(MessageId id, EPUBLocation location, Object... args)
+  {
+    if (isLimitReached()) return;
+    delegate.message(id, location, args);
+    count(id, delegate.getDictionary().getMessage(id).getSeverity());
+  }
+
+  @Override
+  public void message(Message message, EPUBLocation location, Object... args)
+  {
+    if (isLimitReached()) return;
+    delegate.message(message, location, args);
+    count(message.getID(), message.getSeverity());
+  }
+
+  private synchronized void count(MessageId id, Severity severity)
+  {
+    if (severity == Severity.SUPPRESSED
+        || ReportingLevel.getReportingLevel(severity) < delegate.getReportingLevel())
+    {
+      return;
+    }
+    int severityCount = severityCounts.merge(severity, 1, Integer::sum);
+    int idCount = idCounts.merge(id, 1, Integer::sum);
+    if (limitReached == null)
+    {
+      if (severityCount == limits.getLimit(severity))
+      {
+        limitReached = severity + "=" + severityCount;
+      }
+      else if (idCount == limits.getLimit(id))
+      {
+        limitReached = id + "=" + idCount;
+      }
+    }
+  }
+
+  @Override
+  public void info(String resource, FeatureEnum feature, String value)
+  {
+    delegate.info(resource, feature, value);
+  }
+
+  @Override
+  public boolean usesFeature(FeatureEnum feature)
+  {
+    return delegate.usesFeature(feature);
+  }
+
+  @Override
+  public int getErrorCount()
+  {
+    return delegate.getErrorCount();
+  }
+
+  @Override
+  public int getWarningCount()
+  {
+    return delegate.getWarningCount();
+  }
+
+  @Override
+  public int getFatalErrorCount()
+  {
+    return delegate.getFatalErrorCount();
+  }
+
+  @Override
+  public int getInfoCount()
+  {
+    return delegate.getInfoCount();
+  }
+
+  @Override
+  public int getUsageCount()
+  {
+    return delegate.getUsageCount();
+  }
+
+  @Override
+  public int generate()
+  {
+    return delegate.generate();
+  }
+
+  @Override
+  public void initialize()
+  {
+    delegate.initialize();
+  }
+
+  @Override
+  public void setEpubFileName(String value)
+  {
+    delegate.setEpubFileName(value);
+  }
+
+  @Override
+  public String getEpubFileName()
+  {
+    return delegate.getEpubFileName();
+  }
+
+  @Override
+  public void setCustomMessageFile(String customMessageFileName)
+  {
+    delegate.setCustomMessageFile(customMessageFileName);
+  }
+
+  @Override
+  public String getCustomMessageFile()
+  {
+    return delegate.getCustomMessageFile();
+  }
+
+  @Override
+  public int getReportingLevel()
+  {
+    return delegate.getReportingLevel();
+  }
+
+  @Override
+  public void setReportingLevel(int level)
+  {
+    delegate.setReportingLevel(level);
+  }
+
+  @Override
+  public void close()
+  {
+    delegate.close();
+  }
+
+  @Override
+  public void setOverrideFile(File customMessageFile)
+  {
+    delegate.setOverrideFile(customMessageFile);
+  }
+
+  @Override
+  public MessageDictionary getDictionary()
+  {
+    return delegate.getDictionary();
+  }
+
+  @Override
+  public void setLocale(Locale locale)
+  {
+    if (delegate instanceof LocalizableReport)
+    {
+      ((LocalizableReport) delegate).setLocale(locale);
+    }
+  }
+
+  @Override
+  public Locale getLocale()
+  {
+    return (delegate instanceof LocalizableReport) ? ((LocalizableReport) delegate).getLocale()
+        : null;
+  }
+}
@@ -0,0 +1,198 @@
+package org.w3c.epubcheck.core;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import com.adobe.epubcheck.api.Timing;
+import com.adobe.epubcheck.api.Timing.Category;
+import com.adobe.epubcheck.api.TimingListener;
+import com.adobe.epubcheck.opf.ValidationContext;
+
+/**
+ * Measures the wall time, the CPU time and the number of bytes read by the
+ * current thread between its creation and its closing, and sends the measure
+ * to the timing listener of the validation context.
+ * <p>
+ * Scopes are meant to be used in try-with-resources statements. When the
+ * context has no timing listener, a no-op scope is returned and nothing is
+ * measured.
+ * </p>
+ * <p>
+ * Bytes are only counted on streams wrapped with
+ * {@link #countBytes(ValidationContext, InputStream)}.
+ * </p>
+ */
+public class TimingScope implements AutoCloseable
+{
+
+  private static final TimingScope NONE = new TimingScope();
+
+  private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+  private static final boolean CPU_TIME_SUPPORTED = isCpuTimeSupported();
+
+  // the number of bytes read by the current thread on counted streams
+  private static final ThreadLocal<long[]> BYTES_READ = ThreadLocal.withInitial(() -> new long[1]);
+
+  private final TimingListener listener;
+  private final Category category;
+  private final String name;
+  private final String path;
+  private final long startWall;
+  private final long startCpu;
+  private final long startBytes;
+
+  private TimingScope()
+  {
+    this.listener = null;
+    this.category = null;
+    this.name = null;
+    this.path = null;
+    this.startWall = 0;
+    this.startCpu = 0;
+    this.startBytes = 0;
+  }
+
+  private TimingScope(TimingListener listener, Category category, String name, String path)
+  {
+    this.listener = listener;
+    this.category = category;
+    this.name = name;
+    this.path = path;
+    this.startBytes = BYTES_READ.get()[0];
+    this.startCpu = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+    this.startWall = System.nanoTime();
+  }
+
+  /**
+   * Starts measuring a phase or check.
+   *
+   * @param context
+   *          the validation context, whose path is recorded
+   * @param category
+   *          the kind of phase or check
+   * @param name
+   *          the name of the phase or check
+   * @return a scope to close when the phase or check is complete
+   */
+  public static TimingScope start(ValidationContext context, Category category, String name)
+  {
+    if (!context.timingListener.isPresent())
+    {
+      return NONE;
+    }
+    return new TimingScope(context.timingListener.get(), category, name, context.path);
+  }
+
+  /**
+   * Reports a measure accumulated by the caller, with no CPU time and no bytes
+   * read.
+   */
+  public static void record(ValidationContext context, Category category, String name,
+      long wallTime)
+  {
+    if (context.timingListener.isPresent())
+    {
+      context.timingListener.get()
+          .timing(new Timing(category, name, context.path, wallTime, -1, 0));
+    }
+  }
+
+  /**
+   * Wraps a stream to count the bytes read by the current thread, if the
+   * context has a timing listener.
+   *
+   * @return the counting stream, the given stream if nothing is measured, or
+   *         <code>null</code> if the given stream is <code>null</code>
+   */
+  public static InputStream countBytes(ValidationContext context, InputStream in)
+  {
+    if (in == null || !context.timingListener.isPresent())
+    {
+      return in;
+    }
+    return new CountingInputStream(in);
+  }
+
+  @Override
+  public void close()
+  {
+    if (listener == null)
+    {
+      return;
+    }
+    long wallTime = System.nanoTime() - startWall;
+    long cpuTime = CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() - startCpu : -1;
+    long bytesRead = BYTES_READ.get()[0] - startBytes;
+    listener.timing(new Timing(category, name, path, wallTime, cpuTime, bytesRead));
+  }
+
+  private static boolean isCpuTimeSupported()
+  {
+    try
+    {
+      return THREAD_BEAN.isCurrentThreadCpuTimeSupported() && THREAD_BEAN.isThreadCpuTimeEnabled();
+    } catch (UnsupportedOperationException e)
+    {
+      return false;
+    }
+  }
+
+  /**
+   * Adds the bytes read from the underlying stream to the count of the reading
+   * thread.
+   */
+  private static final class CountingInputStream extends FilterInputStream
+  {
+
+    public CountingInputStream(InputStream in)
+    {
+      super(in);
+    }
+
+    @Override
+    public int read()
+      throws IOException
+    {
+      int b = super.read();
+      if (b != -1)
+      {
+        BYTES_READ.get()[0]++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+      throws IOException
+    {
+      int read = super.read(b, off, len);
+      if (read > 0)
+      {
+        BYTES_READ.get()[0] += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n)
+      throws IOException
+    {
+      long skipped = super.skip(n);
+      if (skipped > 0)
+      {
+        BYTES_READ.get()[0] += skipped;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+      // a reset would count the same bytes twice
+      return false;
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.w3c.epubcheck.core.references;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.w3c.epubcheck.core.references.Reference.Type;
@@ -8,7 +10,9 @@ import org.w3c.epubcheck.util.url.URLUtils;
 import com.adobe.epubcheck.api.EPUBLocation;
 import com.adobe.epubcheck.ocf.OCFContainer;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
 
 import io.mola.galimatias.GalimatiasParseException;
 import io.mola.galimatias.URL;
@@ -17,8 +21,12 @@ public final class ReferenceRegistry
 {
 
   private final OCFContainer container;
-  private final ImmutableList.Builder<Reference> references = ImmutableList.builder();
   private final ResourceRegistry resourceRegistry;
+  // append-only list of references, in registration order
+  private final List<Reference> references = new ArrayList<>();
+  // indexes of the references, by URL and target resource URL
+  private final ListMultimap<URL, Reference> referencesByURL = ArrayListMultimap.create();
+  private final ListMultimap<URL, Reference> referencesByTarget = ArrayListMultimap.create();
 
   public ReferenceRegistry(OCFContainer container, ResourceRegistry resourceRegistry)
   {
@@ -28,14 +36,48 @@ public final class ReferenceRegistry
     this.resourceRegistry = resourceRegistry;
   }
 
+  /**
+   * Returns a snapshot of all the registered references, in registration
+   * order.
+   */
   public List<Reference> asList()
   {
-    return references.build();
+    return ImmutableList.copyOf(references);
+  }
+
+  /**
+   * Returns the references to the given resource (ignoring fragment
+   * identifiers), in registration order.
+   * 
+   * @param resource
+   *        the URL to a publication resource
+   * @return the (possibly empty) list of references to the given resource
+   */
+  public List<Reference> getReferencesTo(URL resource)
+  {
+    return (resource == null) ? Collections.emptyList()
+        : Collections.unmodifiableList(referencesByTarget.get(resource));
   }
 
   public boolean isReferenced(URL resource)
   {
-    return references.build().stream().anyMatch(ref -> ref.url.equals(resource));
+    return resource != null && referencesByURL.containsKey(resource);
+  }
+
+  /**
+   * Registers all the references of another registry, in the order they were
+   * registered there.
+   * 
+   * @param registry
+   *        another reference registry
+   */
+  public void registerReferences(ReferenceRegistry registry)
+  {
+    Preconditions.checkArgument(registry != null);
+    for (Reference reference : registry.references)
+    {
+      add(reference);
+    }
   }
 
   public void registerReference(URL url, Type type, EPUBLocation location)
@@ -65,7 +107,7 @@ public final class ReferenceRegistry
 
     // Create and register a new reference
     Reference xref = new Reference(url, type, location, hasIntrinsicFallback);
-    references.add(xref);
+    add(xref);
 
     // If it is a data URL, also register a new resource
     // as the URL may not have been listed in the manifest
@@ -84,8 +126,30 @@ public final class ReferenceRegistry
    */
   public boolean hasReferencesTo(URL resource)
   {
-    return (resource != null)
-        && references.build().stream().anyMatch(ref -> resource.equals(ref.targetResource));
+    return (resource != null) && referencesByTarget.containsKey(resource);
+  }
+
+  /**
+   * Returns if any references of the given type to the given resources were
+   * registered.
+   * 
+   * @param resource
+   *        the URL to a publication resource
+   * @param type
+   *        a reference type
+   * @return <code>true</code> iff a reference of the given type to the given
+   *         resource was found
+   */
+  public boolean hasReferencesTo(URL resource, Type type)
+  {
+    return getReferencesTo(resource).stream().anyMatch(ref -> ref.type == type);
+  }
+
+  private void add(Reference reference)
+  {
+    references.add(reference);
+    referencesByURL.put(reference.url, reference);
+    referencesByTarget.put(reference.targetResource, reference);
   }
 
 }
@@ -5,6 +5,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.w3c.epubcheck.core.references.Reference.Type;
 
@@ -19,7 +20,9 @@ import io.mola.galimatias.URL;
 public final class ResourceRegistry
 {
 
-  private Map<URL, Resource> resources = new HashMap<>();
+  // resources can be registered concurrently when publication resources
+  // are checked in parallel (e.g. data URLs)
+  private Map<URL, Resource> resources = new ConcurrentHashMap<>();
   private Map<URL, List<String>> ids = new HashMap<>();
   private Table<URL, String, Type> idTypes = HashBasedTable.create();
 
@@ -70,25 +73,19 @@ public final class ResourceRegistry
   {
     Preconditions.checkArgument(item != null);
     // Note: Duplicate manifest items are already checked in OPFChecker.
-    if (!resources.containsKey(item.getURL()))
-    {
-
-      resources.put(item.getURL(), Resource.fromItem(item));
-    }
+    resources.computeIfAbsent(item.getURL(), url -> Resource.fromItem(item));
   }
 
   public void registerResource(URL url, String mimetype)
   {
     Preconditions.checkArgument(url != null);
-    if (!resources.containsKey(url))
-    {
-      resources.put(url, Resource.fromURL(url, mimetype));
-    }
+    resources.computeIfAbsent(url, u -> Resource.fromURL(u, mimetype));
   }
 
   public String getMimeType(URL resource)
   {
-    return resources.containsKey(resource) ? resources.get(resource).getMimeType() : null;
+    Resource result = (resource != null) ? resources.get(resource) : null;
+    return (result != null) ? result.getMimeType() : null;
   }
 
   /**
@@ -98,7 +95,7 @@ public final class ResourceRegistry
    */
   public Optional<OPFItem> getOPFItem(URL url)
   {
-    return Optional.ofNullable(resources.get(url)).map(r -> r.getItem());
+    return Optional.ofNullable((url != null) ? resources.get(url) : null).map(r -> r.getItem());
   }
 
   /**
@@ -108,6 +105,6 @@ public final class ResourceRegistry
    */
   public Optional<Resource> getResource(URL url)
   {
-    return Optional.ofNullable(resources.get(url));
+    return Optional.ofNullable((url != null) ? resources.get(url) : null);
   }
 }
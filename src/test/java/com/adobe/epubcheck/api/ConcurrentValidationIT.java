@@ -0,0 +1,157 @@
+package com.adobe.epubcheck.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.util.FeatureEnum;
+
+/**
+ * Checks the publications of the test fixture corpus concurrently, in a single
+ * JVM, and verifies that the reports are the same as when they are checked one
+ * after the other.
+ */
+public class ConcurrentValidationIT
+{
+
+  private static final int THREADS = 8;
+  private static final Locale[] LOCALES = { Locale.ENGLISH, Locale.FRENCH, Locale.JAPANESE };
+
+  @Test
+  public void testConcurrentReportsMatchSerialReports()
+    throws Exception
+  {
+    List<File> publications = listPublications();
+    assertFalse("no test publications found", publications.isEmpty());
+
+    List<List<String>> expected = new ArrayList<>();
+    for (int i = 0; i < publications.size(); i++)
+    {
+      expected.add(check(publications.get(i), LOCALES[i % LOCALES.length]));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try
+    {
+      List<Future<List<String>>> actual = new ArrayList<>();
+      for (int i = 0; i < publications.size(); i++)
+      {
+        final File publication = publications.get(i);
+        final Locale locale = LOCALES[i % LOCALES.length];
+        actual.add(executor.submit(() -> check(publication, locale)));
+      }
+      for (int i = 0; i < publications.size(); i++)
+      {
+        assertEquals("report of " + publications.get(i), expected.get(i), actual.get(i).get());
+      }
+    } finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<String> check(File publication, Locale locale)
+  {
+    RecordingReport report = new RecordingReport();
+    report.setLocale(locale);
+    new EpubCheck(publication, report).doValidate();
+    return report.getRecords();
+  }
+
+  private static List<File> listPublications()
+    throws Exception
+  {
+    Path root = Paths.get(ConcurrentValidationIT.class.getResource("/").toURI());
+    try (Stream<Path> paths = Files.walk(root))
+    {
+      return paths.filter(path -> root.relativize(path).toString().startsWith("epub"))
+          .filter(path -> isPackagedPublication(path) || isExpandedPublication(path)).sorted()
+          .map(Path::toFile).collect(Collectors.toList());
+    }
+  }
+
+  private static boolean isPackagedPublication(Path path)
+  {
+    return Files.isRegularFile(path) && path.getFileName().toString().endsWith(".epub");
+  }
+
+  private static boolean isExpandedPublication(Path path)
+  {
+    return Files.isDirectory(path) && Files.isRegularFile(path.resolve("mimetype"))
+        && Files.isDirectory(path.resolve("META-INF"));
+  }
+
+  /**
+   * A report recording the messages and features as strings, sorted by
+   * {@link #getRecords()}.
+   */
+  private static final class RecordingReport extends MasterReport
+  {
+    // expanded publications get a random container root URL, which can occur
+    // in the message text
+    private static final Pattern CONTAINER_ROOT = Pattern
+        .compile("https://[0-9a-f-]{36}\\.epubcheck\\.w3c\\.org");
+
+    private final List<String> records = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public void message(Message message, EPUBLocation location, Object... args)
+    {
+      records.add(stripContainerRoot(message.getID() + " " + message.getSeverity() + " "
+          + location.getPath() + ":" + location.getLine() + ":" + location.getColumn() + " "
+          + message.getMessage(args)));
+    }
+
+    @Override
+    public void info(String resource, FeatureEnum feature, String value)
+    {
+      if (feature != FeatureEnum.TOOL_DATE)
+      {
+        records.add(stripContainerRoot(feature + " " + resource + " " + value));
+      }
+    }
+
+    @Override
+    public int generate()
+    {
+      return 0;
+    }
+
+    @Override
+    public void initialize()
+    {
+    }
+
+    private static String stripContainerRoot(String record)
+    {
+      return CONTAINER_ROOT.matcher(record).replaceAll("https://container");
+    }
+
+    public List<String> getRecords()
+    {
+      synchronized (records)
+      {
+        List<String> result = new ArrayList<>(records);
+        Collections.sort(result);
+        return result;
+      }
+    }
+  }
+}
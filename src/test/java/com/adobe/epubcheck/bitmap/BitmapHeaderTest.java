@@ -0,0 +1,185 @@
+package com.adobe.epubcheck.bitmap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.bitmap.BitmapHeader.Format;
+
+public class BitmapHeaderTest
+{
+
+  private static BitmapHeader read(int... bytes)
+    throws IOException
+  {
+    byte[] data = new byte[bytes.length];
+    for (int i = 0; i < bytes.length; i++)
+    {
+      data[i] = (byte) bytes[i];
+    }
+    return BitmapHeader.read(new ByteArrayInputStream(data));
+  }
+
+  private static void assertHeader(Format format, int width, int height, BitmapHeader header)
+  {
+    assertEquals(format, header.format);
+    assertEquals(width, header.width);
+    assertEquals(height, header.height);
+  }
+
+  private static int[] jpeg(int sofMarker)
+  {
+    return new int[] { 0xFF, 0xD8,
+        // APP0 segment, length 16
+        0xFF, 0xE0, 0x00, 0x10, 'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0,
+        // frame header: precision 8, height 300, width 400
+        0xFF, sofMarker, 0x00, 0x11, 0x08, 0x01, 0x2C, 0x01, 0x90 };
+  }
+
+  @Test
+  public void testJPEGBaseline()
+    throws IOException
+  {
+    assertHeader(Format.JPEG, 400, 300, read(jpeg(0xC0)));
+  }
+
+  @Test
+  public void testJPEGFrameVariants()
+    throws IOException
+  {
+    for (int marker : new int[] { 0xC1, 0xC2, 0xC3, 0xC5, 0xC7, 0xC9, 0xCB, 0xCD, 0xCF })
+    {
+      assertHeader(Format.JPEG, 400, 300, read(jpeg(marker)));
+    }
+  }
+
+  @Test
+  public void testJPEGSkipsNonFrameSegments()
+    throws IOException
+  {
+    // DHT, JPG and DAC segments use SOF-like markers but are not frame headers
+    assertHeader(Format.JPEG, 64, 32,
+        read(0xFF, 0xD8, 0xFF, 0xC4, 0x00, 0x04, 0x00, 0x00, 0xFF, 0xCC, 0x00, 0x02, 0xFF, 0xC0,
+            0x00, 0x11, 0x08, 0x00, 0x20, 0x00, 0x40));
+  }
+
+  @Test
+  public void testJPEGFillBytes()
+    throws IOException
+  {
+    assertHeader(Format.JPEG, 64, 32,
+        read(0xFF, 0xD8, 0xFF, 0xFF, 0xFF, 0xC0, 0x00, 0x11, 0x08, 0x00, 0x20, 0x00, 0x40));
+  }
+
+  @Test
+  public void testJPEGStandaloneMarkers()
+    throws IOException
+  {
+    assertHeader(Format.JPEG, 64, 32,
+        read(0xFF, 0xD8, 0xFF, 0x01, 0xFF, 0xD0, 0xFF, 0xC0, 0x00, 0x11, 0x08, 0x00, 0x20, 0x00,
+            0x40));
+  }
+
+  @Test
+  public void testJPEGTruncatedSegment()
+    throws IOException
+  {
+    int[] jpeg = jpeg(0xC0);
+    assertNull(read(Arrays.copyOf(jpeg, 12)));
+    assertNull(read(Arrays.copyOf(jpeg, jpeg.length - 1)));
+  }
+
+  @Test
+  public void testJPEGScanBeforeFrame()
+    throws IOException
+  {
+    assertNull(read(0xFF, 0xD8, 0xFF, 0xDA, 0x00, 0x02));
+  }
+
+  @Test
+  public void testJPEGCorruptSegments()
+    throws IOException
+  {
+    // not a marker
+    assertNull(read(0xFF, 0xD8, 0x00, 0xC0, 0x00, 0x11));
+    // invalid segment length
+    assertNull(read(0xFF, 0xD8, 0xFF, 0xE0, 0x00, 0x01));
+  }
+
+  @Test
+  public void testPNG()
+    throws IOException
+  {
+    assertHeader(Format.PNG, 1024, 768,
+        read(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0x00, 0x00, 0x00, 0x0D, 'I', 'H', 'D',
+            'R', 0x00, 0x00, 0x04, 0x00, 0x00, 0x00, 0x03, 0x00));
+  }
+
+  @Test
+  public void testPNGWithoutIHDR()
+    throws IOException
+  {
+    assertNull(read(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0x00, 0x00, 0x00, 0x0D, 'I',
+        'D', 'A', 'T', 0x00, 0x00, 0x04, 0x00, 0x00, 0x00, 0x03, 0x00));
+  }
+
+  @Test
+  public void testPNGTruncated()
+    throws IOException
+  {
+    assertNull(read(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0x00, 0x00, 0x00, 0x0D, 'I',
+        'H', 'D', 'R', 0x00, 0x00, 0x04));
+  }
+
+  @Test
+  public void testGIF()
+    throws IOException
+  {
+    assertHeader(Format.GIF, 300, 2, read('G', 'I', 'F', '8', '9', 'a', 0x2C, 0x01, 0x02, 0x00));
+    assertHeader(Format.GIF, 1, 1, read('G', 'I', 'F', '8', '7', 'a', 0x01, 0x00, 0x01, 0x00));
+  }
+
+  @Test
+  public void testGIFTruncated()
+    throws IOException
+  {
+    assertNull(read('G', 'I', 'F', '8', '9', 'a', 0x2C));
+  }
+
+  @Test
+  public void testGIFUnknownVersion()
+    throws IOException
+  {
+    assertNull(read('G', 'I', 'F', '8', '8', 'a', 0x01, 0x00, 0x01, 0x00));
+    assertNull(read('G', 'I', 'F', '8', '9', 'b', 0x01, 0x00, 0x01, 0x00));
+  }
+
+  @Test
+  public void testUnknownOrEmpty()
+    throws IOException
+  {
+    assertNull(read('B', 'M', 0x00, 0x00));
+    assertNull(read('G', 'I', 'X', '8', '9', 'a', 0x01, 0x00, 0x01, 0x00));
+    assertNull(read(0xFF));
+    assertNull(read());
+  }
+
+  @Test
+  public void testSuffixesFollowImageIO()
+  {
+    assertTrue(Format.JPEG.hasSuffix("jpg"));
+    assertTrue(Format.JPEG.hasSuffix("jpeg"));
+    assertFalse(Format.JPEG.hasSuffix("png"));
+    assertTrue(Format.PNG.hasSuffix("png"));
+    assertTrue(Format.GIF.hasSuffix("gif"));
+    assertFalse(Format.isKnownSuffix("svg"));
+    assertFalse(Format.isKnownSuffix("unknown"));
+  }
+}
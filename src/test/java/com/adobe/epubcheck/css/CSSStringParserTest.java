@@ -0,0 +1,122 @@
+package com.adobe.epubcheck.css;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.idpf.epubcheck.util.css.CssContentHandler;
+import org.idpf.epubcheck.util.css.CssErrorHandler;
+import org.idpf.epubcheck.util.css.CssExceptions.CssException;
+import org.idpf.epubcheck.util.css.CssGrammar.CssAtRule;
+import org.idpf.epubcheck.util.css.CssGrammar.CssDeclaration;
+import org.idpf.epubcheck.util.css.CssGrammar.CssSelector;
+import org.junit.Test;
+
+public class CSSStringParserTest
+{
+
+  private static final class EventList implements CssContentHandler, CssErrorHandler
+  {
+    private final List<Object> events = new ArrayList<>();
+
+    @Override
+    public void error(CssException e)
+    {
+      events.add(e);
+    }
+
+    @Override
+    public void startDocument()
+    {
+      events.add("startDocument");
+    }
+
+    @Override
+    public void endDocument()
+    {
+      events.add("endDocument");
+    }
+
+    @Override
+    public void startAtRule(CssAtRule atRule)
+    {
+      events.add(atRule);
+    }
+
+    @Override
+    public void endAtRule(String name)
+    {
+      events.add("endAtRule " + name);
+    }
+
+    @Override
+    public void selectors(List<CssSelector> selectors)
+    {
+      events.add(selectors);
+    }
+
+    @Override
+    public void endSelectors(List<CssSelector> selectors)
+    {
+      events.add("endSelectors");
+    }
+
+    @Override
+    public void declaration(CssDeclaration declaration)
+    {
+      events.add(declaration);
+    }
+  }
+
+  private static List<Object> parse(CSSStringParser parser, String value,
+      boolean isStyleAttribute)
+    throws Exception
+  {
+    EventList handler = new EventList();
+    parser.parse(value, isStyleAttribute, "test.xhtml", handler, handler);
+    return handler.events;
+  }
+
+  @Test
+  public void testStyleAttributeIsReplayed()
+    throws Exception
+  {
+    CSSStringParser parser = new CSSStringParser(Locale.ENGLISH);
+    List<Object> first = parse(parser, "color: red; position: fixed", true);
+    List<Object> second = parse(parser, "color: red; position: fixed", true);
+    assertEquals(4, first.size());
+    assertEquals(first.size(), second.size());
+    // replayed events carry the constructs of the first parse
+    for (int i = 0; i < first.size(); i++)
+    {
+      assertSame(first.get(i), second.get(i));
+    }
+  }
+
+  @Test
+  public void testErrorsAreReplayed()
+    throws Exception
+  {
+    CSSStringParser parser = new CSSStringParser(Locale.ENGLISH);
+    List<Object> first = parse(parser, "color: ;", true);
+    List<Object> second = parse(parser, "color: ;", true);
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void testStyleAttributeAndElementAreDistinct()
+    throws Exception
+  {
+    CSSStringParser parser = new CSSStringParser(Locale.ENGLISH);
+    String value = "p { color: red }";
+    List<Object> element = parse(parser, value, false);
+    List<Object> attribute = parse(parser, value, true);
+    assertEquals("startDocument", element.get(0));
+    assertEquals(5, element.size());
+    assertFalse(attribute.equals(element));
+  }
+}
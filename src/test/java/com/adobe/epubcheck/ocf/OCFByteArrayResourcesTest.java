@@ -0,0 +1,160 @@
+package com.adobe.epubcheck.ocf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.w3c.epubcheck.util.url.URLUtils;
+
+import com.adobe.epubcheck.api.EpubCheck;
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.adobe.epubcheck.util.ValidationReport;
+import com.google.common.io.ByteStreams;
+
+public class OCFByteArrayResourcesTest
+{
+
+  private static File getFile(String name)
+    throws Exception
+  {
+    return new File(OCFByteArrayResourcesTest.class.getResource("/cli/files/" + name).toURI());
+  }
+
+  @Test
+  public void testSameResourcesAsZipFile()
+    throws Exception
+  {
+    File file = getFile("valid.epub");
+    OCFZipResources expected = new OCFZipResources(URLUtils.toURL(file));
+    OCFByteArrayResources actual = new OCFByteArrayResources(Files.readAllBytes(file.toPath()));
+    try
+    {
+      Iterator<OCFResource> actualIterator = actual.iterator();
+      for (OCFResource expectedResource : expected)
+      {
+        assertTrue(actualIterator.hasNext());
+        OCFResource actualResource = actualIterator.next();
+        assertEquals(expectedResource.getPath(), actualResource.getPath());
+        assertEquals(expectedResource.isDirectory(), actualResource.isDirectory());
+        for (FeatureEnum feature : expectedResource.getProperties().keySet())
+        {
+          assertEquals(expectedResource.getPath() + " " + feature,
+              expectedResource.getProperties().get(feature),
+              actualResource.getProperties().get(feature));
+        }
+        if (expectedResource.isFile())
+        {
+          assertArrayEquals(read(expectedResource), read(actualResource));
+        }
+      }
+      assertFalse(actualIterator.hasNext());
+    } finally
+    {
+      expected.close();
+      actual.close();
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotAZipFile()
+    throws IOException
+  {
+    new OCFByteArrayResources("not a zip file".getBytes());
+  }
+
+  @Test
+  public void testCheckInMemory()
+    throws Exception
+  {
+    File file = getFile("valid.epub");
+    ValidationReport report = new ValidationReport("valid.epub");
+    int result = new EpubCheck(Files.readAllBytes(file.toPath()), report, "valid.epub")
+        .doValidate();
+    assertEquals(report.toString(), 0, result);
+  }
+
+  @Test
+  public void testSameErrorsAsZipFile()
+    throws Exception
+  {
+    // bad CEN signature
+    assertSameError(zip -> zip.putInt(zip.getInt(zip.limit() - 6), 0));
+    // central directory offset out of the file
+    assertSameError(zip -> zip.putInt(zip.limit() - 6, 0x7FFFFFFF));
+    // unsupported compression method
+    assertSameError(zip -> zip.putShort(zip.getInt(zip.limit() - 6) + 10, (short) 99));
+    // encrypted entry
+    assertSameError(zip -> zip.putShort(zip.getInt(zip.limit() - 6) + 8, (short) 1));
+    // bad LOC signature, reported when the entry is read
+    assertSameError(zip -> zip.putInt(0, 0));
+  }
+
+  /**
+   * Checks that a ZIP file with one entry, corrupted by the given function,
+   * fails with the same message with ZipFile and in memory.
+   */
+  private static void assertSameError(Consumer<ByteBuffer> corruption)
+    throws Exception
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(bytes))
+    {
+      zip.putNextEntry(new ZipEntry("mimetype"));
+      zip.write("application/epub+zip".getBytes(StandardCharsets.US_ASCII));
+    }
+    byte[] data = bytes.toByteArray();
+    corruption.accept(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN));
+
+    String expected = null;
+    Path file = Files.write(Files.createTempFile("corrupted", ".zip"), data);
+    try
+    {
+      try (ZipFile zipFile = new ZipFile(file.toFile()))
+      {
+        ByteStreams.toByteArray(zipFile.getInputStream(zipFile.entries().nextElement()));
+      } catch (IOException e)
+      {
+        expected = e.getMessage();
+      }
+    } finally
+    {
+      Files.delete(file);
+    }
+    String actual = null;
+    try
+    {
+      read(new OCFByteArrayResources(data).iterator().next());
+    } catch (IOException e)
+    {
+      actual = e.getMessage();
+    }
+    assertTrue(expected != null);
+    assertEquals(expected, actual);
+  }
+
+  private static byte[] read(OCFResource resource)
+    throws IOException
+  {
+    try (InputStream in = resource.openStream())
+    {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.adobe.epubcheck.ocf;
+
+/**
+ * Factory of containers for unit tests outside of this package.
+ */
+public final class OCFContainers
+{
+
+  private OCFContainers()
+  {
+  }
+
+  /**
+   * Returns a new container without any resource.
+   */
+  public static OCFContainer empty()
+  {
+    return new OCFContainer.Builder().build();
+  }
+}
@@ -0,0 +1,59 @@
+package com.adobe.epubcheck.ocf;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.mola.galimatias.URL;
+
+public class OCFDirectoryResourcesTest
+{
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testIgnoredFilesAndDirectories()
+    throws Exception
+  {
+    Path root = folder.getRoot().toPath();
+    write(root.resolve("mimetype"));
+    write(root.resolve(".DS_Store"));
+    Files.createDirectories(root.resolve(".git/objects"));
+    write(root.resolve(".git/HEAD"));
+    Files.createDirectories(root.resolve("EPUB/sub"));
+    // a worktree pointer is a regular file, not a repository
+    write(root.resolve("EPUB/sub/.git"));
+    assertEquals(Arrays.asList("EPUB", "EPUB/sub", "EPUB/sub/.git", "mimetype"),
+        list(folder.getRoot()));
+  }
+
+  private static void write(Path path)
+    throws IOException
+  {
+    Files.write(path, "test".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<String> list(File directory)
+    throws Exception
+  {
+    List<String> paths = new ArrayList<>();
+    for (OCFResource resource : new OCFDirectoryResources(URL.fromJavaURI(directory.toURI())))
+    {
+      paths.add(resource.getPath());
+    }
+    paths.sort(null);
+    return paths;
+  }
+}
@@ -0,0 +1,141 @@
+package com.adobe.epubcheck.ocf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.util.FeatureEnum;
+import com.google.common.io.ByteStreams;
+
+import io.mola.galimatias.URL;
+
+public class OCFEntryCacheTest
+{
+
+  private static final class CountingResource implements OCFResource
+  {
+    private final byte[] content;
+    private int opened = 0;
+
+    public CountingResource(int size)
+    {
+      this.content = new byte[size];
+      for (int i = 0; i < size; i++)
+      {
+        content[i] = (byte) i;
+      }
+    }
+
+    @Override
+    public InputStream openStream()
+    {
+      opened++;
+      return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public boolean isFile()
+    {
+      return true;
+    }
+
+    @Override
+    public boolean isDirectory()
+    {
+      return false;
+    }
+
+    @Override
+    public Map<FeatureEnum, String> getProperties()
+    {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public String getPath()
+    {
+      return "resource";
+    }
+  }
+
+  private static URL url(String path)
+    throws Exception
+  {
+    return URL.parse("https://example.org/" + path);
+  }
+
+  private static byte[] read(OCFEntryCache cache, URL url, CountingResource resource)
+    throws IOException
+  {
+    try (InputStream in = cache.openStream(url, resource, resource.content.length))
+    {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  @Test
+  public void testFullyReadResourceIsCached()
+    throws Exception
+  {
+    OCFEntryCache cache = new OCFEntryCache(1000, 100);
+    CountingResource resource = new CountingResource(50);
+    assertArrayEquals(resource.content, read(cache, url("a"), resource));
+    assertArrayEquals(resource.content, read(cache, url("a"), resource));
+    assertEquals(1, resource.opened);
+    assertEquals(1, cache.stats().hitCount());
+    assertEquals(1, cache.stats().missCount());
+  }
+
+  @Test
+  public void testPartiallyReadResourceIsNotCached()
+    throws Exception
+  {
+    OCFEntryCache cache = new OCFEntryCache(1000, 100);
+    CountingResource resource = new CountingResource(50);
+    try (InputStream in = cache.openStream(url("a"), resource, 50))
+    {
+      in.read(new byte[10]);
+    }
+    assertEquals(0, cache.size());
+    read(cache, url("a"), resource);
+    assertEquals(2, resource.opened);
+  }
+
+  @Test
+  public void testLargeResourceIsNotCached()
+    throws Exception
+  {
+    OCFEntryCache cache = new OCFEntryCache(1000, 100);
+    CountingResource resource = new CountingResource(200);
+    assertArrayEquals(resource.content, read(cache, url("a"), resource));
+    read(cache, url("a"), resource);
+    assertEquals(2, resource.opened);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted()
+    throws Exception
+  {
+    OCFEntryCache cache = new OCFEntryCache(100, 100);
+    CountingResource a = new CountingResource(40);
+    CountingResource b = new CountingResource(40);
+    CountingResource c = new CountingResource(40);
+    read(cache, url("a"), a);
+    read(cache, url("b"), b);
+    read(cache, url("a"), a);
+    read(cache, url("c"), c);
+    // "b" was the least recently used
+    read(cache, url("a"), a);
+    read(cache, url("b"), b);
+    assertEquals(1, a.opened);
+    assertEquals(2, b.opened);
+  }
+}
@@ -0,0 +1,107 @@
+package com.adobe.epubcheck.reporting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+
+public class CheckMessageListTest
+{
+
+  private static final Message MESSAGE = new Message(MessageId.RSC_005, Severity.ERROR,
+      "Error: %1$s", "");
+  private static final EPUBLocation LOCATION = EPUBLocation.of(new File("test.epub"));
+
+  @Test
+  public void testAggregateSameIdAndText()
+  {
+    CheckMessageList list = new CheckMessageList();
+    CheckMessage first = list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    CheckMessage second = list.add(MESSAGE, LOCATION.at(2, 1), "a");
+    assertSame(first, second);
+    assertEquals(1, list.size());
+    assertEquals(2, first.getLocations().size());
+  }
+
+  @Test
+  public void testDistinctText()
+  {
+    CheckMessageList list = new CheckMessageList();
+    list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    list.add(MESSAGE, LOCATION.at(1, 1), "b");
+    assertEquals(2, list.size());
+    assertEquals("Error: a", list.get(0).getMessage());
+    assertEquals("Error: b", list.get(1).getMessage());
+  }
+
+  @Test
+  public void testDuplicateLocation()
+  {
+    CheckMessageList list = new CheckMessageList();
+    CheckMessage message = list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    assertEquals(1, message.getLocations().size());
+    assertEquals(0, message.getAdditionalLocations());
+  }
+
+  @Test
+  public void testMaxLocations()
+  {
+    CheckMessageList list = new CheckMessageList();
+    CheckMessage message = null;
+    for (int i = 1; i <= 30; i++)
+    {
+      message = list.add(MESSAGE, LOCATION.at(i, 1), "a");
+    }
+    assertEquals(25, message.getLocations().size());
+    assertEquals(5, message.getAdditionalLocations());
+  }
+
+  @Test
+  public void testSortKeepsAggregation()
+  {
+    CheckMessageList list = new CheckMessageList();
+    list.add(MESSAGE, LOCATION.at(1, 1), "b");
+    list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    Collections.sort(list);
+    assertEquals("Error: a", list.get(0).getMessage());
+    assertEquals("Error: b", list.get(1).getMessage());
+    CheckMessage message = list.add(MESSAGE, LOCATION.at(2, 1), "b");
+    assertSame(list.get(1), message);
+    assertEquals(2, list.size());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetIsUnsupported()
+  {
+    CheckMessageList list = new CheckMessageList();
+    CheckMessage message = list.add(MESSAGE, LOCATION.at(1, 1), "a");
+    list.set(0, message);
+  }
+
+  @Test
+  public void testAggregateManyMessages()
+  {
+    CheckMessageList list = new CheckMessageList();
+    for (int i = 0; i < 1000; i++)
+    {
+      // each distinct message is reported twice
+      list.add(MESSAGE, LOCATION.at(i, 1), String.valueOf(i));
+      list.add(MESSAGE, LOCATION.at(i, 2), String.valueOf(i));
+    }
+    assertEquals(1000, list.size());
+    for (int i = 0; i < 1000; i++)
+    {
+      assertEquals("Error: " + i, list.get(i).getMessage());
+      assertEquals(2, list.get(i).getLocations().size());
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package com.adobe.epubcheck.reporting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.api.Timing;
+import com.adobe.epubcheck.api.Timing.Category;
+
+public class CheckingReportTimingsTest
+{
+
+  private static CheckingReport newReport()
+  {
+    return new CheckingReport(new PrintWriter(new StringWriter()), "test.epub");
+  }
+
+  @Test
+  public void testTimingsAreIgnoredByDefault()
+  {
+    CheckingReport report = newReport();
+    report.timing(new Timing(Category.PHASE, "opf", "", 1000, 1000, 0));
+    report.sortCollections();
+    assertNull(report.timings);
+  }
+
+  @Test
+  public void testTimingsAreAggregatedByResource()
+  {
+    CheckingReport report = newReport();
+    report.setTimings(true);
+    report.timing(new Timing(Category.CSS, "style attribute", "a.xhtml", 1000, 1000, 0));
+    report.timing(new Timing(Category.CSS, "style attribute", "a.xhtml", 1000, 1000, 0));
+    report.timing(new Timing(Category.CSS, "style attribute", "b.xhtml", 1000, 1000, 0));
+    report.sortCollections();
+    assertEquals(2, report.timings.size());
+  }
+
+  @Test
+  public void testTimingsAreSortedByDecreasingTime()
+  {
+    CheckingReport report = newReport();
+    report.setTimings(true);
+    report.timing(new Timing(Category.PHASE, "opf", "", 1000, -1, 0));
+    report.timing(new Timing(Category.PHASE, "content", "", 5000, -1, 0));
+    report.sortCollections();
+    assertEquals(2, report.timings.size());
+    assertEquals(-1, Integer.signum(report.timings.get(0).compareTo(report.timings.get(1))));
+  }
+}
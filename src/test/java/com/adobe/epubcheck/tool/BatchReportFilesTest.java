@@ -0,0 +1,49 @@
+package com.adobe.epubcheck.tool;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class BatchReportFilesTest
+{
+
+  private static final File OUT = new File("reports");
+
+  @Test
+  public void testReportsNextToPublications()
+  {
+    Map<String, File> files = EpubChecker.getBatchReportFiles(
+        Arrays.asList("a/book.epub", "b/book.epub"), null, "check.json");
+    assertEquals(new File("a/book.epubcheck.json").getAbsoluteFile(), files.get("a/book.epub"));
+    assertEquals(new File("b/book.epubcheck.json").getAbsoluteFile(), files.get("b/book.epub"));
+  }
+
+  @Test
+  public void testReportsRelativeToCommonParent()
+  {
+    Map<String, File> files = EpubChecker.getBatchReportFiles(
+        Arrays.asList("in/a/book.epub", "in/b/book.epub", "in/other.epub"), OUT, "check.json");
+    assertEquals(new File(OUT, "a/book.epubcheck.json"), files.get("in/a/book.epub"));
+    assertEquals(new File(OUT, "b/book.epubcheck.json"), files.get("in/b/book.epub"));
+    assertEquals(new File(OUT, "other.epubcheck.json"), files.get("in/other.epub"));
+  }
+
+  @Test
+  public void testSinglePublication()
+  {
+    Map<String, File> files = EpubChecker
+        .getBatchReportFiles(Arrays.asList("in/a/book.epub"), OUT, "check.xml");
+    assertEquals(new File(OUT, "book.epubcheck.xml"), files.get("in/a/book.epub"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSamePublicationTwice()
+  {
+    EpubChecker.getBatchReportFiles(Arrays.asList("in/book.epub", "in/../in/book.epub"), OUT,
+        "check.json");
+  }
+}
@@ -0,0 +1,172 @@
+package com.adobe.epubcheck.tool;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class ValidationServerTest
+{
+
+  private ValidationServer server;
+
+  @Before
+  public void before()
+    throws IOException
+  {
+    server = new ValidationServer(0, 2, 4);
+    server.start();
+  }
+
+  @After
+  public void after()
+  {
+    server.stop(0);
+  }
+
+  @Test
+  public void testHealth()
+    throws IOException
+  {
+    HttpURLConnection connection = open("/health", "GET");
+    assertEquals(200, connection.getResponseCode());
+    assertThat(read(connection), containsString("\"status\" : \"UP\""));
+  }
+
+  @Test
+  public void testCheckPath()
+    throws Exception
+  {
+    File epub = new File(ValidationServerTest.class.getResource("/cli/files/valid.epub").toURI());
+    server.setRootDirectory(epub.getParentFile());
+    HttpURLConnection connection = open("/check?path=valid.epub", "POST");
+    assertEquals(200, connection.getResponseCode());
+    assertThat(read(connection), containsString("\"title\" : \"Minimal EPUB 3.0\""));
+  }
+
+  @Test
+  public void testCheckPathNotAllowed()
+    throws Exception
+  {
+    File epub = new File(ValidationServerTest.class.getResource("/cli/files/valid.epub").toURI());
+    HttpURLConnection connection = open(
+        "/check?path=" + URLEncoder.encode(epub.getPath(), "UTF-8"), "POST");
+    assertEquals(403, connection.getResponseCode());
+  }
+
+  @Test
+  public void testCheckPathOutsideOfRoot()
+    throws Exception
+  {
+    File epub = new File(ValidationServerTest.class.getResource("/cli/files/valid.epub").toURI());
+    server.setRootDirectory(epub.getParentFile());
+    HttpURLConnection connection = open("/check?path=../cli.feature", "POST");
+    assertEquals(403, connection.getResponseCode());
+  }
+
+  @Test
+  public void testCheckUpload()
+    throws IOException
+  {
+    HttpURLConnection connection = open("/check?name=valid.epub", "POST");
+    connection.setDoOutput(true);
+    upload(connection);
+    assertEquals(200, connection.getResponseCode());
+    assertThat(read(connection), containsString("\"title\" : \"Minimal EPUB 3.0\""));
+  }
+
+  @Test
+  public void testCheckUploadTooLarge()
+    throws IOException
+  {
+    server.setMaxUploadSize(100);
+    HttpURLConnection connection = open("/check?name=valid.epub", "POST");
+    connection.setDoOutput(true);
+    upload(connection);
+    assertEquals(413, connection.getResponseCode());
+  }
+
+  @Test
+  public void testCheckChunkedUploadTooLarge()
+    throws IOException
+  {
+    server.setMaxUploadSize(100);
+    HttpURLConnection connection = open("/check?name=valid.epub", "POST");
+    connection.setDoOutput(true);
+    connection.setChunkedStreamingMode(64);
+    upload(connection);
+    assertEquals(413, connection.getResponseCode());
+  }
+
+  @Test
+  public void testCheckPathNotFound()
+    throws Exception
+  {
+    server.setRootDirectory(
+        new File(ValidationServerTest.class.getResource("/cli/files").toURI()));
+    HttpURLConnection connection = open("/check?path=notfound.epub", "POST");
+    assertEquals(400, connection.getResponseCode());
+  }
+
+  @Test
+  public void testCheckMethodNotAllowed()
+    throws IOException
+  {
+    HttpURLConnection connection = open("/check", "GET");
+    assertEquals(405, connection.getResponseCode());
+  }
+
+  @Test
+  public void testMetrics()
+    throws IOException
+  {
+    open("/check?path=notfound.epub", "POST").getResponseCode();
+    HttpURLConnection connection = open("/metrics", "GET");
+    assertEquals(200, connection.getResponseCode());
+    String metrics = read(connection);
+    assertThat(metrics, containsString("\"failedJobs\" : 0"));
+    assertThat(metrics, containsString("\"badRequests\" : 1"));
+  }
+
+  private HttpURLConnection open(String path, String method)
+    throws IOException
+  {
+    HttpURLConnection connection = (HttpURLConnection) new URL(
+        "http://127.0.0.1:" + server.getPort() + path).openConnection();
+    connection.setRequestMethod(method);
+    return connection;
+  }
+
+  private static void upload(HttpURLConnection connection)
+    throws IOException
+  {
+    try (InputStream in = ValidationServerTest.class.getResourceAsStream("/cli/files/valid.epub");
+        OutputStream out = connection.getOutputStream())
+    {
+      ByteStreams.copy(in, out);
+    }
+  }
+
+  private static String read(HttpURLConnection connection)
+    throws IOException
+  {
+    try (InputStream in = connection.getInputStream())
+    {
+      return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.adobe.epubcheck.util;
+
+import static com.adobe.epubcheck.opf.ValidationContext.ValidationContextPredicates.hasProp;
+import static com.adobe.epubcheck.opf.ValidationContext.ValidationContextPredicates.version;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.opf.ValidationContext;
+import com.adobe.epubcheck.vocab.EpubCheckVocab;
+import com.adobe.epubcheck.vocab.Property;
+import com.adobe.epubcheck.xml.XMLValidator;
+import com.adobe.epubcheck.xml.XMLValidators;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+public class ValidatorMapTest
+{
+
+  private static final Property FIXED_LAYOUT = EpubCheckVocab.VOCAB
+      .get(EpubCheckVocab.PROPERTIES.FIXED_LAYOUT);
+
+  private static ValidatorMap.Builder builder()
+  {
+    return ValidatorMap.builder().put(version(EPUBVersion.VERSION_2), XMLValidators.OPF_20_RNG)
+        .put(version(EPUBVersion.VERSION_3), XMLValidators.OPF_30_RNC)
+        .put(hasProp(FIXED_LAYOUT), XMLValidators.OPF_30_SCH);
+  }
+
+  private static ValidationContext context(EPUBVersion version, Property... properties)
+  {
+    return ValidationContext.test().report(new ValidationReport("test")).version(version)
+        .properties(ImmutableSet.copyOf(properties)).build();
+  }
+
+  @Test
+  public void testCachedPlanIsReused()
+  {
+    ValidatorMap map = builder().cachePlans().build();
+    List<XMLValidator> first = map.getValidators(context(EPUBVersion.VERSION_3));
+    List<XMLValidator> second = map.getValidators(context(EPUBVersion.VERSION_3));
+    assertEquals(ImmutableList.of(XMLValidators.OPF_30_RNC.get()), first);
+    assertSame(first, second);
+  }
+
+  @Test
+  public void testCachedPlansDependOnContext()
+  {
+    ValidatorMap map = builder().cachePlans().build();
+    assertEquals(ImmutableList.of(XMLValidators.OPF_20_RNG.get()),
+        map.getValidators(context(EPUBVersion.VERSION_2)));
+    assertEquals(ImmutableList.of(XMLValidators.OPF_30_RNC.get(), XMLValidators.OPF_30_SCH.get()),
+        map.getValidators(context(EPUBVersion.VERSION_3, FIXED_LAYOUT)));
+    assertEquals(ImmutableList.of(XMLValidators.OPF_30_RNC.get()),
+        map.getValidators(context(EPUBVersion.VERSION_3)));
+  }
+
+  @Test
+  public void testPlansAreNotCachedByDefault()
+  {
+    ValidatorMap map = builder().build();
+    List<XMLValidator> first = map.getValidators(context(EPUBVersion.VERSION_3));
+    List<XMLValidator> second = map.getValidators(context(EPUBVersion.VERSION_3));
+    assertEquals(first, second);
+    assertNotSame(first, second);
+  }
+}
@@ -0,0 +1,257 @@
+package com.adobe.epubcheck.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParser;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import com.adobe.epubcheck.util.EPUBVersion;
+import com.adobe.epubcheck.xml.handlers.DefaultResolver;
+
+public class DTDGrammarPoolTest
+{
+
+  private static final String DOCTYPE = "<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Strict//EN\" "
+      + "\"http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd\"";
+
+  private static final String XHTML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + DOCTYPE
+      + ">\n<html xmlns=\"http://www.w3.org/1999/xhtml\"><head><title>t</title></head>"
+      + "<body><p>caf&#233; &amp; <a href=\"#t\">&nbsp;</a></p>"
+      + "<table><tr><td>1</td></tr></table><p id=\"t\" undeclared=\"\"/></body></html>";
+
+  private static final String NCX = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<!DOCTYPE ncx PUBLIC \"-//NISO//DTD ncx 2005-1//EN\" "
+      + "\"http://www.daisy.org/z3986/2005/ncx-2005-1.dtd\">\n"
+      + "<ncx xmlns=\"http://www.daisy.org/z3986/2005/ncx/\" version=\"2005-1\">"
+      + "<head><meta name=\"dtb:uid\" content=\"uid\"/></head>"
+      + "<docTitle><text>t</text></docTitle><navMap><navPoint id=\"p1\" playOrder=\"1\">"
+      + "<navLabel><text>1</text></navLabel><content src=\"c.xhtml\"/></navPoint></navMap></ncx>";
+
+  private static final String OPF = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<!DOCTYPE package PUBLIC \"+//ISBN 0-9673008-1-9//DTD OEB 1.2 Package//EN\" "
+      + "\"http://openebook.org/dtds/oeb-1.2/oebpkg12.dtd\">\n"
+      + "<package unique-identifier=\"uid\"><metadata><dc-metadata>"
+      + "<dc:Identifier xmlns:dc=\"http://purl.org/dc/elements/1.0/\" id=\"uid\">x</dc:Identifier>"
+      + "</dc-metadata></metadata><manifest><item id=\"c\" href=\"c.html\" media-type=\"text/x-oeb1-document\"/>"
+      + "</manifest><spine><itemref idref=\"c\"/></spine></package>";
+
+  /**
+   * Records the events and errors of a parse, and the external entities
+   * resolved by the parser.
+   */
+  private static final class RecordingHandler extends DefaultHandler
+  {
+    private final DefaultResolver resolver = new DefaultResolver(EPUBVersion.VERSION_2);
+    private final List<String> events = new ArrayList<>();
+    private final List<String> resolved = new ArrayList<>();
+
+    @Override
+    public InputSource resolveEntity(String publicId, String systemId)
+      throws SAXException,
+      IOException
+    {
+      resolved.add(systemId);
+      return resolver.resolveEntity(publicId, systemId);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts)
+    {
+      StringBuilder event = new StringBuilder("<").append(localName);
+      for (int i = 0; i < atts.getLength(); i++)
+      {
+        event.append(' ').append(atts.getQName(i)).append("=\"").append(atts.getValue(i))
+            .append('"');
+      }
+      events.add(event.append('>').toString());
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+    {
+      events.add(new String(ch, start, length));
+    }
+
+    @Override
+    public void skippedEntity(String name)
+    {
+      // parameter entities are skipped while scanning the external subset,
+      // which is not scanned with a cached grammar; they are ignored by
+      // DeclarationHandler
+      if (!name.startsWith("%"))
+      {
+        events.add("skipped " + name);
+      }
+    }
+
+    @Override
+    public void warning(SAXParseException e)
+    {
+      events.add("warning " + e.getLineNumber() + ":" + e.getMessage());
+    }
+
+    @Override
+    public void error(SAXParseException e)
+    {
+      events.add("error " + e.getLineNumber() + ":" + e.getMessage());
+    }
+
+    @Override
+    public void fatalError(SAXParseException e)
+    {
+      events.add("fatal " + e.getLineNumber() + ":" + e.getMessage());
+    }
+  }
+
+  private static RecordingHandler parse(SAXParser parser, String document, boolean pooled)
+    throws Exception
+  {
+    if (pooled)
+    {
+      assertTrue(isApplicable(document));
+      DTDGrammarPool.enable(parser.getXMLReader());
+    }
+    RecordingHandler handler = new RecordingHandler();
+    try
+    {
+      parser.parse(new InputSource(new StringReader(document)), handler);
+    } catch (SAXParseException e)
+    {
+      // recorded as a fatal error
+    }
+    return handler;
+  }
+
+  private static void assertSameParse(String document, String dtd)
+    throws Exception
+  {
+    SAXParser parser = SAXParserPool.acquire(EPUBVersion.VERSION_2);
+    try
+    {
+      RecordingHandler expected = parse(parser, document, false);
+      assertTrue(expected.resolved.contains(dtd));
+      parser.reset();
+      // the grammar is cached by the first pooled parse, if it wasn't already
+      assertEquals(expected.events, parse(parser, document, true).events);
+      parser.reset();
+      RecordingHandler cached = parse(parser, document, true);
+      assertEquals(expected.events, cached.events);
+      assertFalse(cached.resolved.contains(dtd));
+    } finally
+    {
+      SAXParserPool.release(EPUBVersion.VERSION_2, parser);
+    }
+  }
+
+  @Test
+  public void testCachedGrammarGivesSameXHTMLParse()
+    throws Exception
+  {
+    assertSameParse(XHTML, "http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd");
+  }
+
+  @Test
+  public void testCachedGrammarGivesSameNCXParse()
+    throws Exception
+  {
+    assertSameParse(NCX, "http://www.daisy.org/z3986/2005/ncx-2005-1.dtd");
+  }
+
+  @Test
+  public void testCachedGrammarGivesSameOPFParse()
+    throws Exception
+  {
+    assertSameParse(OPF, "http://openebook.org/dtds/oeb-1.2/oebpkg12.dtd");
+  }
+
+  @Test
+  public void testReleasedParserDoesNotUsePool()
+    throws Exception
+  {
+    // EPUB 3 documents are parsed without the grammar pool, and with a
+    // DOCTYPE that would otherwise be cacheable
+    String epub3 = XHTML.replace("&nbsp;", "");
+    SAXParser parser = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+    SAXParser fresh = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+    try
+    {
+      parse(parser, XHTML, true);
+      SAXParserPool.release(EPUBVersion.VERSION_3, parser);
+      assertSame(parser, SAXParserPool.acquire(EPUBVersion.VERSION_3));
+      assertNull(parser.getXMLReader()
+          .getProperty("http://apache.org/xml/properties/internal/grammar-pool"));
+      RecordingHandler reused = parse(parser, epub3, false);
+      assertTrue(reused.resolved.contains("http://www.w3.org/TR/xhtml1/DTD/xhtml1-strict.dtd"));
+      assertEquals(parse(fresh, epub3, false).events, reused.events);
+    } finally
+    {
+      SAXParserPool.release(EPUBVersion.VERSION_3, parser);
+      SAXParserPool.release(EPUBVersion.VERSION_3, fresh);
+    }
+  }
+
+  private static boolean isApplicable(String document)
+    throws Exception
+  {
+    InputStream in = new BufferedInputStream(
+        new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+    boolean result = DTDGrammarPool.isApplicable(in);
+    // the stream is reset
+    assertEquals('<', in.read());
+    return result;
+  }
+
+  @Test
+  public void testDoctypeWithoutInternalSubset()
+    throws Exception
+  {
+    assertTrue(isApplicable("<?xml version=\"1.0\"?>\n" + DOCTYPE + ">\n<html/>"));
+  }
+
+  @Test
+  public void testDoctypeWithInternalSubset()
+    throws Exception
+  {
+    assertFalse(isApplicable(DOCTYPE + " [<!ENTITY foo \"bar\">]>\n<html/>"));
+  }
+
+  @Test
+  public void testDoctypeInCommentIsIgnored()
+    throws Exception
+  {
+    assertFalse(isApplicable("<!-- " + DOCTYPE + "> -->" + DOCTYPE + " [ ]><html/>"));
+  }
+
+  @Test
+  public void testQuotedBracketIsIgnored()
+    throws Exception
+  {
+    assertTrue(isApplicable("<!DOCTYPE html SYSTEM \"dtd[1].dtd\"><html/>"));
+  }
+
+  @Test
+  public void testNoDoctype()
+    throws Exception
+  {
+    assertFalse(isApplicable("<html/>"));
+  }
+}
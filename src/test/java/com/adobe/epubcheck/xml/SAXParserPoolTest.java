@@ -0,0 +1,66 @@
+package com.adobe.epubcheck.xml;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.xml.parsers.SAXParser;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.util.EPUBVersion;
+
+public class SAXParserPoolTest
+{
+
+  @Test
+  public void testReleasedParserIsReused()
+    throws Exception
+  {
+    SAXParser parser = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+    SAXParserPool.release(EPUBVersion.VERSION_3, parser);
+    assertSame(parser, SAXParserPool.acquire(EPUBVersion.VERSION_3));
+  }
+
+  @Test
+  public void testBorrowedParserIsNotShared()
+    throws Exception
+  {
+    SAXParser first = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+    SAXParser second = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+    assertNotSame(first, second);
+    SAXParserPool.release(EPUBVersion.VERSION_3, first);
+    SAXParserPool.release(EPUBVersion.VERSION_3, second);
+  }
+
+  @Test
+  public void testParsersAreKeyedByVersion()
+    throws Exception
+  {
+    SAXParser parser = SAXParserPool.acquire(EPUBVersion.VERSION_2);
+    SAXParserPool.release(EPUBVersion.VERSION_2, parser);
+    assertNotSame(parser, SAXParserPool.acquire(EPUBVersion.VERSION_3));
+  }
+
+  @Test
+  public void testClearDiscardsParsersOfAllThreads()
+    throws Exception
+  {
+    ExecutorService thread = Executors.newSingleThreadExecutor();
+    try
+    {
+      SAXParser parser = thread.submit(() -> {
+        SAXParser acquired = SAXParserPool.acquire(EPUBVersion.VERSION_3);
+        SAXParserPool.release(EPUBVersion.VERSION_3, acquired);
+        return acquired;
+      }).get();
+      SAXParserPool.clear();
+      assertNotSame(parser, thread.submit(() -> SAXParserPool.acquire(EPUBVersion.VERSION_3)).get());
+    } finally
+    {
+      thread.shutdown();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.adobe.epubcheck.xml;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+import org.xml.sax.helpers.AttributesImpl;
+
+public class ValidatorTriggerTest
+{
+
+  private static final ValidatorTrigger SVG = ValidatorTrigger.element(Namespaces.SVG);
+
+  private static boolean mayOccur(ValidatorTrigger trigger, String document)
+  {
+    return trigger.mayOccur(document.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testNamespaceDeclared()
+  {
+    assertTrue(mayOccur(SVG,
+        "<!DOCTYPE html><html><body><svg xmlns=\"http://www.w3.org/2000/svg\"/></body></html>"));
+  }
+
+  @Test
+  public void testNamespaceNotDeclared()
+  {
+    assertFalse(mayOccur(SVG,
+        "<?xml version=\"1.0\"?><!DOCTYPE html>"
+            + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:epub=\"http://www.idpf.org/2007/ops\">"
+            + "<body><p>\u00E9t\u00E9 &amp; svg</p></body></html>"));
+  }
+
+  @Test
+  public void testNamespaceDeclaredWithReference()
+  {
+    assertTrue(mayOccur(SVG, "<html><s:svg xmlns:s = 'http://www.w3.org/2000/&#115;vg'/></html>"));
+  }
+
+  @Test
+  public void testDoctypeWithExternalIdentifier()
+  {
+    assertTrue(mayOccur(SVG, "<!DOCTYPE svg PUBLIC \"-//W3C//DTD SVG 1.1//EN\" "
+        + "\"http://www.w3.org/Graphics/SVG/1.1/DTD/svg11.dtd\"><svg/>"));
+  }
+
+  @Test
+  public void testDoctypeWithInternalSubset()
+  {
+    assertTrue(mayOccur(SVG, "<!DOCTYPE html [ <!ENTITY ns \"http\"> ]><html/>"));
+  }
+
+  @Test
+  public void testElementTrigger()
+  {
+    assertTrue(SVG.matches(Namespaces.SVG, new AttributesImpl()));
+    assertFalse(SVG.matches(Namespaces.XHTML, new AttributesImpl()));
+  }
+
+  @Test
+  public void testAttributeTrigger()
+  {
+    ValidatorTrigger trigger = ValidatorTrigger.attribute(Namespaces.OPS, "type",
+        value -> value.contains("index"));
+    AttributesImpl atts = new AttributesImpl();
+    assertFalse(trigger.matches(Namespaces.XHTML, atts));
+    atts.addAttribute(Namespaces.OPS, "type", "epub:type", "CDATA", "chapter");
+    assertFalse(trigger.matches(Namespaces.XHTML, atts));
+    atts.setValue(0, "chapter index-entry");
+    assertTrue(trigger.matches(Namespaces.XHTML, atts));
+  }
+}
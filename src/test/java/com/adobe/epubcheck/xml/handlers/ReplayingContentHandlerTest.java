@@ -0,0 +1,212 @@
+package com.adobe.epubcheck.xml.handlers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.LocatorImpl;
+
+import com.adobe.epubcheck.xml.Namespaces;
+import com.adobe.epubcheck.xml.ValidatorTrigger;
+
+public class ReplayingContentHandlerTest
+{
+
+  private ReplayingContentHandler replaying;
+  private LocatorImpl locator;
+
+  @Before
+  public void before()
+  {
+    replaying = new ReplayingContentHandler();
+    locator = new LocatorImpl();
+    replaying.setDocumentLocator(locator);
+  }
+
+  @Test
+  public void testReplaysEventsInOrderToEachDelegate()
+    throws SAXException
+  {
+    RecordingHandler first = new RecordingHandler();
+    RecordingHandler second = new RecordingHandler();
+    replaying.addDelegate(first, first);
+    replaying.addDelegate(second, second);
+    replaying.startDocument();
+    replaying.notationDecl("png", null, "image/png");
+    replaying.startPrefixMapping("", Namespaces.XHTML);
+    replaying.startElement(Namespaces.XHTML, "html", "html", new AttributesImpl());
+    replaying.processingInstruction("target", "data");
+    replaying.endElement(Namespaces.XHTML, "html", "html");
+    replaying.endPrefixMapping("");
+    assertTrue(first.events.isEmpty());
+    replaying.endDocument();
+    List<String> expected = Arrays.asList("startDocument", "notationDecl png",
+        "startPrefixMapping ", "startElement html", "processingInstruction target",
+        "endElement html", "endPrefixMapping ", "endDocument");
+    assertEquals(expected, first.events);
+    assertEquals(expected, second.events);
+  }
+
+  @Test
+  public void testReplaysRecordedLocations()
+    throws SAXException
+  {
+    RecordingHandler delegate = new RecordingHandler();
+    replaying.addDelegate(delegate, null);
+    replaying.startDocument();
+    locator.setLineNumber(2);
+    locator.setColumnNumber(7);
+    replaying.startElement("", "root", "root", new AttributesImpl());
+    locator.setLineNumber(3);
+    locator.setColumnNumber(1);
+    replaying.endElement("", "root", "root");
+    replaying.endDocument();
+    assertEquals(Arrays.asList("-1:-1", "2:7", "3:1", "3:1"), delegate.locations);
+  }
+
+  @Test
+  public void testReplaysCopiesOfAttributes()
+    throws SAXException
+  {
+    RecordingHandler delegate = new RecordingHandler();
+    replaying.addDelegate(delegate, null);
+    AttributesImpl atts = new AttributesImpl();
+    atts.addAttribute("", "id", "id", "ID", "root");
+    replaying.startDocument();
+    replaying.startElement("", "root", "root", atts);
+    // parsers reuse their attributes object
+    atts.setValue(0, "changed");
+    replaying.endElement("", "root", "root");
+    replaying.endDocument();
+    assertEquals("root", delegate.attributes.get(0).getValue("id"));
+  }
+
+  @Test
+  public void testReplaysCopiesOfCharacters()
+    throws SAXException
+  {
+    RecordingHandler delegate = new RecordingHandler();
+    replaying.addDelegate(delegate, null);
+    char[] buffer = "xxtextxx".toCharArray();
+    replaying.startDocument();
+    replaying.characters(buffer, 2, 4);
+    // parsers reuse their character buffer
+    Arrays.fill(buffer, 'y');
+    replaying.ignorableWhitespace(" \n".toCharArray(), 0, 2);
+    replaying.endDocument();
+    assertEquals(Arrays.asList("startDocument", "characters text",
+        "ignorableWhitespace  \n", "endDocument"), delegate.events);
+  }
+
+  @Test
+  public void testSkipsDelegatesNotTriggered()
+    throws SAXException
+  {
+    RecordingHandler always = new RecordingHandler();
+    RecordingHandler svg = new RecordingHandler();
+    RecordingHandler mathml = new RecordingHandler();
+    replaying.addDelegate(always, null);
+    replaying.addDelegate(svg, null, ValidatorTrigger.element(Namespaces.SVG));
+    replaying.addDelegate(mathml, null, ValidatorTrigger.element(Namespaces.MATHML));
+    replaying.startDocument();
+    replaying.startElement(Namespaces.XHTML, "html", "html", new AttributesImpl());
+    replaying.startElement(Namespaces.SVG, "svg", "svg", new AttributesImpl());
+    replaying.endElement(Namespaces.SVG, "svg", "svg");
+    replaying.endElement(Namespaces.XHTML, "html", "html");
+    replaying.endDocument();
+    assertEquals(6, always.events.size());
+    assertEquals(always.events, svg.events);
+    assertTrue(mathml.events.isEmpty());
+  }
+
+  private static final class RecordingHandler extends DefaultHandler
+  {
+    private final List<String> events = new ArrayList<>();
+    private final List<String> locations = new ArrayList<>();
+    private final List<Attributes> attributes = new ArrayList<>();
+    private Locator locator;
+
+    @Override
+    public void setDocumentLocator(Locator locator)
+    {
+      this.locator = locator;
+    }
+
+    private void event(String event)
+    {
+      events.add(event);
+      locations.add(locator.getLineNumber() + ":" + locator.getColumnNumber());
+    }
+
+    @Override
+    public void startDocument()
+    {
+      event("startDocument");
+    }
+
+    @Override
+    public void endDocument()
+    {
+      event("endDocument");
+    }
+
+    @Override
+    public void notationDecl(String name, String publicId, String systemId)
+    {
+      event("notationDecl " + name);
+    }
+
+    @Override
+    public void startPrefixMapping(String prefix, String uri)
+    {
+      event("startPrefixMapping " + prefix);
+    }
+
+    @Override
+    public void endPrefixMapping(String prefix)
+    {
+      event("endPrefixMapping " + prefix);
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts)
+    {
+      attributes.add(atts);
+      event("startElement " + localName);
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName)
+    {
+      event("endElement " + localName);
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length)
+    {
+      event("characters " + new String(ch, start, length));
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length)
+    {
+      event("ignorableWhitespace " + new String(ch, start, length));
+    }
+
+    @Override
+    public void processingInstruction(String target, String data)
+    {
+      event("processingInstruction " + target);
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package org.w3c.epubcheck.core;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.messages.Message;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.adobe.epubcheck.util.ValidationReport;
+
+public class BufferedReportTest
+{
+
+  private static final EPUBLocation LOCATION = EPUBLocation.of(new File("test.epub"));
+
+  @Test
+  public void testCountsMessagesOfBothKinds()
+  {
+    ValidationReport delegate = new ValidationReport("test");
+    BufferedReport report = new BufferedReport(delegate);
+    report.message(MessageId.RSC_005, LOCATION, "error");
+    report.message(new Message(MessageId.RSC_017, Severity.ERROR, "overridden", ""), LOCATION);
+    report.message(new Message(MessageId.RSC_016, Severity.FATAL, "fatal", ""), LOCATION);
+    assertEquals(2, report.getErrorCount());
+    assertEquals(1, report.getFatalErrorCount());
+    assertEquals(0, report.getWarningCount());
+    assertEquals(0, delegate.getErrorCount());
+  }
+}
@@ -0,0 +1,81 @@
+package org.w3c.epubcheck.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CheckExecutorsTest
+{
+
+  @Test
+  public void testRunsAtMostTheGivenNumberOfTasks()
+  {
+    Executor executor = CheckExecutors.bounded(2);
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicInteger completed = new AtomicInteger();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 16; i++)
+    {
+      futures.add(CompletableFuture.runAsync(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try
+        {
+          Thread.sleep(5);
+        } catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+        running.decrementAndGet();
+        completed.incrementAndGet();
+      }, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    assertEquals(16, completed.get());
+    assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void testSharedThreadsAreCapped()
+  {
+    Executor executor = CheckExecutors.bounded(CheckExecutors.MAX_THREADS * 2);
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < CheckExecutors.MAX_THREADS * 4; i++)
+    {
+      futures.add(CompletableFuture.runAsync(() -> {
+        threads.add(Thread.currentThread());
+        try
+        {
+          Thread.sleep(5);
+        } catch (InterruptedException e)
+        {
+          Thread.currentThread().interrupt();
+        }
+      }, executor));
+    }
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+    assertTrue(threads.size() <= CheckExecutors.MAX_THREADS);
+  }
+
+  @Test
+  public void testFailingTaskDoesNotStopTheOthers()
+  {
+    Executor executor = CheckExecutors.bounded(1);
+    AtomicInteger completed = new AtomicInteger();
+    executor.execute(() -> {
+      throw new IllegalStateException();
+    });
+    CompletableFuture.runAsync(completed::incrementAndGet, executor).join();
+    assertEquals(1, completed.get());
+  }
+}
@@ -0,0 +1,83 @@
+package org.w3c.epubcheck.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.api.MessageLimits;
+import com.adobe.epubcheck.messages.MessageId;
+import com.adobe.epubcheck.messages.Severity;
+import com.adobe.epubcheck.util.ValidationReport;
+
+public class LimitedReportTest
+{
+
+  private static final EPUBLocation LOCATION = EPUBLocation.of(new File("test.epub"));
+
+  @Test
+  public void testFailFastStopsAtFirstError()
+  {
+    ValidationReport delegate = new ValidationReport("test");
+    LimitedReport report = new LimitedReport(delegate, MessageLimits.failFast());
+    report.message(MessageId.RSC_017, LOCATION, "warning");
+    assertFalse(report.isLimitReached());
+    report.message(MessageId.RSC_005, LOCATION, "error");
+    assertTrue(report.isLimitReached());
+    assertEquals("ERROR=1", report.getLimitReached());
+    report.message(MessageId.RSC_005, LOCATION, "dropped");
+    assertEquals(1, delegate.getErrorCount());
+    assertEquals(1, delegate.getWarningCount());
+  }
+
+  @Test
+  public void testMessageIdLimit()
+  {
+    ValidationReport delegate = new ValidationReport("test");
+    LimitedReport report = new LimitedReport(delegate, MessageLimits.parse("rsc-005=2"));
+    report.message(MessageId.RSC_007, LOCATION, "other error");
+    report.message(MessageId.RSC_005, LOCATION, "first");
+    assertFalse(report.isLimitReached());
+    report.message(MessageId.RSC_005, LOCATION, "second");
+    assertEquals("RSC-005=2", report.getLimitReached());
+    assertEquals(3, delegate.getErrorCount());
+  }
+
+  @Test
+  public void testSuppressedMessagesAreNotCounted()
+  {
+    LimitedReport report = new LimitedReport(new ValidationReport("test"),
+        MessageLimits.parse("ACC-001=1"));
+    report.message(MessageId.ACC_001, LOCATION);
+    assertFalse(report.isLimitReached());
+    assertNull(report.getLimitReached());
+  }
+
+  @Test
+  public void testParseLimits()
+  {
+    MessageLimits limits = MessageLimits.parse(" warning = 10 , RSC-005=1");
+    assertEquals(10, limits.getLimit(Severity.WARNING));
+    assertEquals(1, limits.getLimit(MessageId.RSC_005));
+    assertEquals(-1, limits.getLimit(Severity.ERROR));
+    assertEquals("WARNING=10,RSC-005=1", limits.toString());
+    assertTrue(MessageLimits.parse("").isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseUnknownKey()
+  {
+    MessageLimits.parse("FOO=1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testParseNonPositiveLimit()
+  {
+    MessageLimits.parse("ERROR=0");
+  }
+}
@@ -0,0 +1,108 @@
+package org.w3c.epubcheck.core.references;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.epubcheck.core.references.Reference.Type;
+
+import com.adobe.epubcheck.api.EPUBLocation;
+import com.adobe.epubcheck.ocf.OCFContainer;
+import com.adobe.epubcheck.ocf.OCFContainers;
+import com.google.common.collect.ImmutableList;
+
+import io.mola.galimatias.URL;
+
+public class ReferenceRegistryTest
+{
+
+  private static final EPUBLocation LOCATION = EPUBLocation.of(new File("test.epub"));
+
+  private URL root;
+  private ReferenceRegistry registry;
+
+  @Before
+  public void setUp()
+  {
+    OCFContainer container = OCFContainers.empty();
+    root = container.getRootURL();
+    registry = new ReferenceRegistry(container, new ResourceRegistry());
+  }
+
+  private URL url(String path)
+    throws Exception
+  {
+    return root.resolve(path);
+  }
+
+  private static List<Type> types(List<Reference> references)
+  {
+    ImmutableList.Builder<Type> types = ImmutableList.builder();
+    references.forEach(reference -> types.add(reference.type));
+    return types.build();
+  }
+
+  @Test
+  public void testLookupByURL()
+    throws Exception
+  {
+    registry.registerReference(url("EPUB/a.xhtml#s1"), Type.HYPERLINK, LOCATION);
+    assertTrue(registry.isReferenced(url("EPUB/a.xhtml#s1")));
+    assertFalse(registry.isReferenced(url("EPUB/a.xhtml")));
+    assertFalse(registry.isReferenced(null));
+  }
+
+  @Test
+  public void testLookupByTargetResource()
+    throws Exception
+  {
+    registry.registerReference(url("EPUB/a.xhtml#s1"), Type.HYPERLINK, LOCATION);
+    registry.registerReference(url("EPUB/img.png"), Type.IMAGE, LOCATION);
+    registry.registerReference(url("EPUB/a.xhtml"), Type.NAV_TOC_LINK, LOCATION);
+    assertEquals(ImmutableList.of(Type.HYPERLINK, Type.NAV_TOC_LINK),
+        types(registry.getReferencesTo(url("EPUB/a.xhtml"))));
+    assertTrue(registry.hasReferencesTo(url("EPUB/a.xhtml")));
+    assertFalse(registry.hasReferencesTo(url("EPUB/b.xhtml")));
+    assertTrue(registry.getReferencesTo(null).isEmpty());
+  }
+
+  @Test
+  public void testLookupByTargetResourceAndType()
+    throws Exception
+  {
+    registry.registerReference(url("EPUB/a.xhtml#s1"), Type.NAV_TOC_LINK, LOCATION);
+    assertFalse(registry.hasReferencesTo(url("EPUB/a.xhtml"), Type.HYPERLINK));
+    registry.registerReference(url("EPUB/a.xhtml#s2"), Type.HYPERLINK, LOCATION);
+    assertTrue(registry.hasReferencesTo(url("EPUB/a.xhtml"), Type.HYPERLINK));
+  }
+
+  @Test
+  public void testRegistrationOrderIsKept()
+    throws Exception
+  {
+    ReferenceRegistry other = new ReferenceRegistry(OCFContainers.empty(), new ResourceRegistry());
+    registry.registerReference(url("EPUB/a.xhtml"), Type.HYPERLINK, LOCATION);
+    other.registerReference(url("EPUB/style.css"), Type.STYLESHEET, LOCATION);
+    other.registerReference(url("EPUB/img.png"), Type.IMAGE, LOCATION);
+    registry.registerReferences(other);
+    registry.registerReference(url("EPUB/font.woff"), Type.FONT, LOCATION);
+    assertEquals(ImmutableList.of(Type.HYPERLINK, Type.STYLESHEET, Type.IMAGE, Type.FONT),
+        types(registry.asList()));
+  }
+
+  @Test
+  public void testListIsASnapshot()
+    throws Exception
+  {
+    registry.registerReference(url("EPUB/a.xhtml"), Type.HYPERLINK, LOCATION);
+    List<Reference> snapshot = registry.asList();
+    registry.registerReference(url("EPUB/b.xhtml"), Type.HYPERLINK, LOCATION);
+    assertEquals(1, snapshot.size());
+    assertEquals(2, registry.asList().size());
+  }
+}
@@ -51,6 +51,8 @@ Feature: EPUBCheck Command Line
 				--out <file>             = output an assessment XML document file (use - to output to console)
 				--xmp <file>             = output an assessment XMP document file (use - to output to console)
 				--json <file>            = output an assessment JSON document file (use - to output to console)
+				--ndjson <file>          = output the messages as newline-delimited JSON records as soon as they are reported,
+				                           followed by a summary record (use - to output to console)
 				-m <file>                = same as --mode
 				-p <profile>             = same as --profile
 				-o <file>                = same as --out
@@ -67,6 +69,22 @@ Feature: EPUBCheck Command Line
 				                           (default is OFF); if enabled, usage information will
 				                           always be included in the output file
 				--locale <locale>        = output localized messages according to the provided IETF BCP 47 language tag string.
+				--threads <number>       = check the publication resources in parallel, using at most <number> threads
+				--nohash                 = do not compute the SHA-256 hash of the container entries in the JSON or NDJSON report
+				--timings                = include the time spent in each check phase, checker, and schema in the JSON report
+				--fail-fast              = stop the check at the first error or fatal error
+				--max-messages <limits>  = stop the check once a number of messages is reported, per severity or message ID,
+				                           given as a comma-separated list of limits (e.g. ERROR=10,RSC-005=1); when the
+				                           check is stopped, the report is incomplete and the process exits with a status of 2
+				--batch <paths>          = check all the publications listed in the <paths> text file (one per line, use - to read
+				                           from the standard input), found in the <paths> directory, or matching the <paths>
+				                           glob pattern; with --out, --json, or --xmp, one report is created per publication,
+				                           in the given directory or next to the publication
+				--jobs <number>          = check at most <number> publications in parallel (in batch or server mode)
+				--server <port>          = run a validation server on the local <port>, accepting POST requests to /check with
+				                           a path=<file> parameter or an uploaded EPUB; use --jobs to set the number of workers
+				--server-root <dir>      = allow the validation server to check the local files in the <dir> directory, given by
+				                           their path=<file> parameter (local files cannot be checked otherwise)
 				
 				-l, --listChecks [<file>]       = list message ids and severity levels to the custom message file named <file>
 				                                  or the console
@@ -200,6 +218,13 @@ Feature: EPUBCheck Command Line
 			Then the return code is 0
 			And file '30-valid-test.epub' was created
 
+		Example: an EPUB is not saved when errors are found
+			Given file '30-mimetype-invalid.epub' does not exist
+			When running `epubcheck --mode exp {{30-mimetype-invalid}} --save`
+			Then the return code is 1
+			And stderr contains 'Epub creation cancelled due to detected errors.'
+			And file '30-mimetype-invalid.epub' does not exist
+
 
 
 	Rule: Configure the verbosity
@@ -287,6 +312,33 @@ Feature: EPUBCheck Command Line
 			And stdout contains '"title" : "Minimal EPUB 3.0"'
 			But stdout does not contain 'No errors or warnings detected'
 
+		Example: a JSON report includes the container entries hashes by default
+			When running `epubcheck {{valid.epub}} -j -`
+			Then the return code is 0
+			And stdout contains '"checkSum" : "'
+
+		Example: a JSON report does not include hashes with the `--nohash` option
+			When running `epubcheck {{valid.epub}} -j - --nohash`
+			Then the return code is 0
+			And stdout contains '"checkSum" : null'
+
+		Example: output a streaming JSON report to the standard output
+			When running `epubcheck {{valid.epub}} --ndjson -`
+			Then the return code is 0
+			And stdout contains '"feature":"title","value":"Minimal EPUB 3.0"}'
+			And stdout contains '{"type":"summary",'
+			But stdout does not contain 'No errors or warnings detected'
+
+		Example: a streaming JSON report includes the container entries hashes by default
+			When running `epubcheck {{valid.epub}} --ndjson -`
+			Then the return code is 0
+			And stdout contains '"feature":"SHA-256"'
+
+		Example: a streaming JSON report does not include hashes with the `--nohash` option
+			When running `epubcheck {{valid.epub}} --ndjson - --nohash`
+			Then the return code is 0
+			And stdout does not contain '"feature":"SHA-256"'
+
 		Example: conflicting report formats are rejected
 			When running `epubcheck {{valid.epub}} -o {{report.xml}} -j {{report.json}}`
 			Then the return code is 1
@@ -325,6 +377,69 @@ Feature: EPUBCheck Command Line
 
 
 
+	Rule: Check publication resources in parallel
+
+		Example: check a valid packaged EPUB with option `--threads`
+			When running `epubcheck {{valid.epub}} --threads 4`
+			Then the return code is 0
+			And stderr is empty
+
+		Example: check an EPUB with warnings with option `--threads`
+			When running `epubcheck -mode exp {{20-warning-tester}} --threads 4`
+			Then the return code is 0
+			And stderr contains 'WARNING(PKG-010)'
+
+		Example: invalid threads argument makes the command fail
+			When running `epubcheck {{valid.epub}} --threads none`
+			Then the return code is 1
+			And stderr contains 'Argument "none" to the --threads option is incorrect'
+
+		Example: missing threads argument when last option makes the command fail
+			When running `epubcheck {{valid.epub}} --threads`
+			Then the return code is 1
+			And stderr contains 'Argument to the --threads option is missing.'
+
+
+
+	Rule: Check publications in batch
+
+		Example: check the publications matching a glob pattern
+			When running `epubcheck --batch {{*.epub}}`
+			Then the return code is 0
+			And stdout contains 'Checked 1 publications: 1 without errors or warnings, 0 with warnings, 0 with errors.'
+
+		Example: save one JSON report per publication in a directory
+			Given file 'reports/valid.epubcheck.json' does not exist
+			When running `epubcheck --batch {{*.epub}} --jobs 2 -j {{reports}}`
+			Then the return code is 0
+			And file 'reports/valid.epubcheck.json' was created
+
+		Example: a file to check cannot be specified with the `--batch` option
+			When running `epubcheck {{valid.epub}} --batch {{*.epub}}`
+			Then the return code is 1
+			And stderr contains 'A file to check cannot be specified with the --batch option.'
+
+		Example: invalid jobs argument makes the command fail
+			When running `epubcheck --batch {{*.epub}} --jobs none`
+			Then the return code is 1
+			And stderr contains 'Argument "none" to the --jobs option is incorrect'
+
+
+
+	Rule: Run a validation server
+
+		Example: invalid server port makes the command fail
+			When running `epubcheck --server none`
+			Then the return code is 1
+			And stderr contains 'Argument "none" to the --server option is incorrect'
+
+		Example: invalid server root makes the command fail
+			When running `epubcheck --server 0 --server-root notfound`
+			Then the return code is 1
+			And stderr contains 'Argument "notfound" to the --server-root option is incorrect'
+
+
+
 	Rule: Override message severities
 
 		Example: messages and severities are overridden with the `-c` option